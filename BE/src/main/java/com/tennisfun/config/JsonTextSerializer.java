@@ -0,0 +1,29 @@
+package com.tennisfun.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Skriver en sträng som innehåller JSON som det värde den beskriver, inte som
+ * en sträng. Till skillnad från {@code @JsonRawValue} läses texten in som ett
+ * träd, så värdet fungerar även med {@code valueToTree} och i CBOR-svar.
+ */
+public class JsonTextSerializer extends StdSerializer<String> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ObjectMapper PARSER = new ObjectMapper();
+
+    public JsonTextSerializer() {
+        super(String.class);
+    }
+
+    @Override
+    public void serialize(String value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        provider.defaultSerializeValue(PARSER.readTree(value), gen);
+    }
+}
@@ -0,0 +1,79 @@
+package com.tennisfun.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Skickar läsningar till en separat läspool (t.ex. en replika) och skrivningar
+ * till primärdatabasen.
+ * <p>
+ * Aktiveras endast när {@code tennisfun.datasource.read.url} är satt; annars
+ * används Spring Boots vanliga datasource. Routningen bygger på att
+ * {@code @Transactional(readOnly = true)} markerar JDBC-anslutningen som
+ * read-only: {@link LazyConnectionDataSourceProxy} hämtar den fysiska
+ * anslutningen först vid första SQL-satsen och väljer då läspoolen. Hibernate
+ * sätter samtidigt sessionen till read-only med FlushMode.MANUAL, så ingen
+ * dirty checking eller flush sker vid läsning.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "tennisfun.datasource.read", name = "url")
+@Slf4j
+public class ReadWriteDataSourceConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties primaryDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(
+            @Qualifier("primaryDataSourceProperties") DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("tennisfun.datasource.read")
+    public DataSourceProperties readDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("tennisfun.datasource.read.hikari")
+    public HikariDataSource readDataSource(
+            @Qualifier("readDataSourceProperties") DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("read");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            @Qualifier("readDataSource") DataSource readDataSource) {
+        log.info("Routing read-only transactions to separate read pool");
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primaryDataSource);
+        proxy.setReadOnlyDataSource(readDataSource);
+        return proxy;
+    }
+}
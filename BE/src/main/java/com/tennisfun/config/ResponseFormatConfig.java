@@ -0,0 +1,21 @@
+package com.tennisfun.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+@Configuration
+public class ResponseFormatConfig {
+
+    // CBOR-svar (Accept: application/cbor) med samma Jackson-inställningar som JSON
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper cborMapper = builder.createXmlMapper(false)
+                .factory(new CBORFactory())
+                .build();
+        return new MappingJackson2CborHttpMessageConverter(cborMapper);
+    }
+}
@@ -0,0 +1,110 @@
+package com.tennisfun.controller;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Kompakta svar för turnerings- och matchendpoints.
+ * <p>
+ * Med {@code ?view=compact}, {@code ?fields=...} eller {@code Accept: application/cbor}
+ * utelämnas null-fält (t.ex. oanvända set- och tiebreak-kolumner). {@code fields}
+ * är en kommaseparerad lista med punktseparerade sökvägar, t.ex.
+ * {@code fields=id,name,groups.participants,groups.matchResults.winner}.
+ * Utan parametrar skickas svaret oförändrat.
+ */
+@ControllerAdvice(assignableTypes = {TournamentController.class, MatchResultController.class})
+public class CompactResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    private static final MediaType CBOR = MediaType.valueOf("application/cbor");
+
+    private final ObjectMapper compactMapper;
+
+    public CompactResponseAdvice(ObjectMapper objectMapper) {
+        this.compactMapper = objectMapper.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body == null || !(request instanceof ServletServerHttpRequest servletRequest)) {
+            return body;
+        }
+        String view = servletRequest.getServletRequest().getParameter("view");
+        String fields = servletRequest.getServletRequest().getParameter("fields");
+        boolean compact = "compact".equalsIgnoreCase(view)
+                || (fields != null && !fields.isBlank())
+                || CBOR.isCompatibleWith(selectedContentType);
+        if (!compact) {
+            return body;
+        }
+
+        JsonNode tree = compactMapper.valueToTree(body);
+        if (fields != null && !fields.isBlank()) {
+            retain(tree, FieldSelector.parse(fields));
+        }
+        return tree;
+    }
+
+    private void retain(JsonNode node, FieldSelector selector) {
+        if (selector.isAll()) {
+            return;
+        }
+        if (node instanceof ArrayNode array) {
+            array.forEach(element -> retain(element, selector));
+        } else if (node instanceof ObjectNode object) {
+            Iterator<Map.Entry<String, JsonNode>> it = object.fields();
+            while (it.hasNext()) {
+                Map.Entry<String, JsonNode> field = it.next();
+                FieldSelector child = selector.children.get(field.getKey());
+                if (child == null) {
+                    it.remove();
+                } else {
+                    retain(field.getValue(), child);
+                }
+            }
+        }
+    }
+
+    // Träd av valda fält; en nod utan barn betyder "hela värdet"
+    private static final class FieldSelector {
+        private final Map<String, FieldSelector> children = new HashMap<>();
+
+        boolean isAll() {
+            return children.isEmpty();
+        }
+
+        static FieldSelector parse(String fields) {
+            FieldSelector root = new FieldSelector();
+            for (String path : fields.split(",")) {
+                FieldSelector current = root;
+                for (String part : path.trim().split("\\.")) {
+                    if (!part.isEmpty()) {
+                        current = current.children.computeIfAbsent(part, k -> new FieldSelector());
+                    }
+                }
+            }
+            return root;
+        }
+    }
+}
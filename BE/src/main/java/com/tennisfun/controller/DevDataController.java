@@ -0,0 +1,47 @@
+package com.tennisfun.controller;
+
+import com.tennisfun.dto.GenerateDataRequest;
+import com.tennisfun.dto.GeneratedDataDTO;
+import com.tennisfun.service.DataGeneratorService;
+import com.tennisfun.tenant.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Utvecklingsverktyg som inte finns i prod-profilen. Genererar testdata för
+ * klubben i {@code X-Club-Id}; använd en egen klubb för mätningar.
+ */
+@RestController
+@RequestMapping("/api/dev")
+@Profile("!prod")
+@RequiredArgsConstructor
+@Slf4j
+public class DevDataController {
+
+    private final DataGeneratorService dataGeneratorService;
+
+    @PostMapping("/generate")
+    public ResponseEntity<?> generate(@RequestBody(required = false) GenerateDataRequest request) {
+        try {
+            GeneratedDataDTO result = dataGeneratorService.generate(TenantContext.current(),
+                    request != null ? request : new GenerateDataRequest());
+            return ResponseEntity.status(HttpStatus.CREATED).body(result);
+        } catch (IllegalArgumentException e) {
+            log.error("Validation error: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error generating test data", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("Ett fel uppstod vid generering av testdata"));
+        }
+    }
+
+    record ErrorResponse(String message) {}
+}
@@ -1,5 +1,8 @@
 package com.tennisfun.controller;
 
+import com.tennisfun.service.WarmupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -8,15 +11,35 @@ import org.springframework.web.bind.annotation.RestController;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * {@code /api/health} är readiness: 503 tills uppvärmningen är klar, så att
+ * plattformen bara skickar trafik till varma noder. {@code /api/health/live}
+ * är liveness och svarar så länge processen svarar alls.
+ */
 @RestController
 @RequestMapping("/api")
+@RequiredArgsConstructor
 public class HealthController {
 
+    private final WarmupService warmupService;
+
     @GetMapping("/health")
     public ResponseEntity<Map<String, String>> health() {
         Map<String, String> response = new HashMap<>();
+        if (!warmupService.isReady()) {
+            response.put("status", "WARMING_UP");
+            response.put("message", "Tennis Fun Backend värms upp");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+        }
         response.put("status", "UP");
         response.put("message", "Tennis Fun Backend is running!");
         return ResponseEntity.ok(response);
     }
+
+    @GetMapping("/health/live")
+    public ResponseEntity<Map<String, String>> live() {
+        Map<String, String> response = new HashMap<>();
+        response.put("status", "UP");
+        return ResponseEntity.ok(response);
+    }
 }
@@ -0,0 +1,187 @@
+package com.tennisfun.controller;
+
+import com.tennisfun.tenant.TenantContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Gör ändrande anrop mot matcher och turneringar idempotenta med headern
+ * {@code Idempotency-Key}.
+ * <p>
+ * Första anropet med en nyckel körs som vanligt och svaret (status, typ, ETag
+ * och innehåll) sparas. Ett nytt försök med samma nyckel, metod och sökväg får det
+ * sparade svaret direkt, utan transaktion eller databasanrop. Kommer försöket
+ * medan originalet fortfarande körs väntar det på originalets svar. Svar med
+ * serverfel sparas inte, så de kan försökas igen på riktigt; ett försök som
+ * väntade på ett sådant svar kör då anropet själv.
+ * <p>
+ * Nycklarna hålls i minnet per nod, begränsat både i antal och i tid.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@Slf4j
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 128;
+    private static final int MAX_STORED_BODY = 64 * 1024;
+
+    @Value("${tennisfun.idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${tennisfun.idempotency.ttl-seconds:900}")
+    private long ttlSeconds;
+
+    @Value("${tennisfun.idempotency.wait-ms:10000}")
+    private long waitMs;
+
+    // Insättningsordning, så de äldsta (och först utgångna) ligger först
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    private record StoredResponse(int status, String contentType, String etag, byte[] body) {
+    }
+
+    private static final class Entry {
+        final long createdAt = System.nanoTime();
+        final CompletableFuture<StoredResponse> response = new CompletableFuture<>();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        String method = request.getMethod();
+        return request.getHeader(HEADER) == null
+                || !(path.startsWith("/api/matches") || path.startsWith("/api/tournaments"))
+                || method.equals("GET") || method.equals("HEAD") || method.equals("OPTIONS");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(HEADER).trim();
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Ogiltig Idempotency-Key");
+            return;
+        }
+        String query = request.getQueryString();
+        String key = TenantContext.current() + "|" + request.getMethod() + " " + request.getRequestURI()
+                + (query != null ? "?" + query : "") + "|" + idempotencyKey;
+
+        Entry created = new Entry();
+        Entry existing;
+        // Misslyckades originalet är nyckeln ledig igen och försöket kör anropet själv
+        while ((existing = putIfAbsent(key, created)) != null) {
+            if (replay(existing, key, response)) {
+                return;
+            }
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        StoredResponse stored = null;
+        try {
+            chain.doFilter(request, wrapper);
+            if (wrapper.getStatus() < 500 && wrapper.getContentSize() <= MAX_STORED_BODY) {
+                stored = new StoredResponse(wrapper.getStatus(), wrapper.getContentType(),
+                        wrapper.getHeader(HttpHeaders.ETAG), wrapper.getContentAsByteArray());
+            }
+        } finally {
+            if (stored == null) {
+                remove(key, created);
+            }
+            // null till väntande försök betyder att de får köra anropet själva; nyckeln är redan borttagen
+            created.response.complete(stored);
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    // false om originalet inte gav något sparat svar och försöket ska köras
+    private boolean replay(Entry existing, String key, HttpServletResponse response)
+            throws IOException, ServletException {
+        StoredResponse stored;
+        try {
+            stored = existing.response.get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            response.setHeader("Retry-After", "1");
+            writeError(response, HttpStatus.CONFLICT, "En förfrågan med samma Idempotency-Key pågår redan");
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return true;
+        } catch (ExecutionException e) {
+            throw new ServletException(e.getCause());
+        }
+        if (stored == null) {
+            return false;
+        }
+        log.debug("Replaying stored response for {}", key);
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        // Klienten behöver den nya versionen för nästa If-Match
+        if (stored.etag() != null) {
+            response.setHeader(HttpHeaders.ETAG, stored.etag());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+        return true;
+    }
+
+    private synchronized Entry putIfAbsent(String key, Entry created) {
+        evictExpired();
+        Entry existing = entries.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        entries.put(key, created);
+        if (entries.size() > maxEntries) {
+            Iterator<Entry> oldest = entries.values().iterator();
+            oldest.next();
+            oldest.remove();
+        }
+        return null;
+    }
+
+    private synchronized void remove(String key, Entry entry) {
+        entries.remove(key, entry);
+    }
+
+    private void evictExpired() {
+        long cutoff = System.nanoTime() - TimeUnit.SECONDS.toNanos(ttlSeconds);
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext() && iterator.next().getValue().createdAt - cutoff < 0) {
+            iterator.remove();
+        }
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("{\"message\":\"" + message + "\"}");
+    }
+}
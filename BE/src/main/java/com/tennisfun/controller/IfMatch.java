@@ -0,0 +1,32 @@
+package com.tennisfun.controller;
+
+/**
+ * Tolkar versionen i headern {@code If-Match}. Matcher, grupper och turneringar
+ * skickar sin version som ETag ({@code "3"}) och klienten skickar tillbaka den
+ * vid ändring; saknas headern (eller är den {@code *}) görs ingen jämförelse.
+ */
+final class IfMatch {
+
+    static final String HEADER = "If-Match";
+
+    private IfMatch() {
+    }
+
+    static Long version(String header) {
+        if (header == null || header.isBlank() || header.trim().equals("*")) {
+            return null;
+        }
+        String value = header.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Ogiltig version i If-Match: " + header);
+        }
+    }
+}
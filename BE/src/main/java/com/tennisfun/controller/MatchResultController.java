@@ -5,6 +5,7 @@ import com.tennisfun.entity.MatchResult;
 import com.tennisfun.service.MatchResultService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -36,14 +37,18 @@ public class MatchResultController {
     }
     
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateMatch(@PathVariable Long id, @RequestBody ReportMatchRequest request) {
+    public ResponseEntity<?> updateMatch(@PathVariable Long id, @RequestBody ReportMatchRequest request,
+                                         @RequestHeader(value = IfMatch.HEADER, required = false) String ifMatch) {
         try {
             log.info("Updating match result with ID: {}", id);
-            MatchResult result = matchResultService.updateMatchResult(id, request);
-            return ResponseEntity.ok(result);
+            MatchResult result = matchResultService.updateMatchResult(id, request, IfMatch.version(ifMatch));
+            return ResponseEntity.ok().eTag(String.valueOf(result.getVersion())).body(result);
         } catch (IllegalArgumentException e) {
             log.error("Validation error: {}", e.getMessage());
             return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Version conflict updating match {}: {}", id, e.getMessage());
+            return conflict(id);
         } catch (Exception e) {
             log.error("Error updating match", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -52,14 +57,18 @@ public class MatchResultController {
     }
     
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteMatch(@PathVariable Long id) {
+    public ResponseEntity<?> deleteMatch(@PathVariable Long id,
+                                         @RequestHeader(value = IfMatch.HEADER, required = false) String ifMatch) {
         try {
             log.info("Deleting match result with ID: {}", id);
-            matchResultService.deleteMatchResult(id);
+            matchResultService.deleteMatchResult(id, IfMatch.version(ifMatch));
             return ResponseEntity.noContent().build();
         } catch (IllegalArgumentException e) {
             log.error("Validation error: {}", e.getMessage());
             return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Version conflict deleting match {}: {}", id, e.getMessage());
+            return conflict(id);
         } catch (Exception e) {
             log.error("Error deleting match", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -69,10 +78,26 @@ public class MatchResultController {
 
     @GetMapping("/group/{groupId}")
     public ResponseEntity<List<MatchResult>> getMatchResultsForGroup(@PathVariable Long groupId) {
-        log.info("Fetching match results for group: {}", groupId);
+        log.debug("Fetching match results for group: {}", groupId);
         List<MatchResult> results = matchResultService.getMatchResultsForGroup(groupId);
         return ResponseEntity.ok(results);
     }
     
+    // Svaret på en krock innehåller matchen som den ser ut nu (null om den har tagits bort)
+    private ResponseEntity<?> conflict(Long id) {
+        MatchResult current;
+        try {
+            current = matchResultService.getMatchResult(id);
+        } catch (IllegalArgumentException e) {
+            current = null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.CONFLICT);
+        if (current != null) {
+            response.eTag(String.valueOf(current.getVersion()));
+        }
+        return response.body(new ConflictResponse(MatchResultService.MATCH_CHANGED, current));
+    }
+    
     record ErrorResponse(String message) {}
+    record ConflictResponse(String message, Object current) {}
 }
@@ -0,0 +1,49 @@
+package com.tennisfun.controller;
+
+import com.tennisfun.dto.HeadToHeadDTO;
+import com.tennisfun.dto.PlayerSuggestionDTO;
+import com.tennisfun.service.HeadToHeadService;
+import com.tennisfun.service.PlayerNameIndexService;
+import com.tennisfun.tenant.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/players")
+@RequiredArgsConstructor
+@Slf4j
+public class PlayerController {
+
+    private final HeadToHeadService headToHeadService;
+    private final PlayerNameIndexService playerNameIndexService;
+
+    // Namn som använts i klubben och börjar som sökningen, utan hänsyn till accenter och versaler
+    @GetMapping("/suggest")
+    public ResponseEntity<?> suggest(@RequestParam String q, @RequestParam(required = false) Integer limit) {
+        try {
+            List<PlayerSuggestionDTO> suggestions = playerNameIndexService.suggest(TenantContext.current(), q, limit);
+            return ResponseEntity.ok(suggestions);
+        } catch (IllegalArgumentException e) {
+            log.error("Validation error: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    // Inbördes möten i klubbens hela historik
+    @GetMapping("/{player1}/vs/{player2}")
+    public ResponseEntity<?> getHeadToHead(@PathVariable String player1, @PathVariable String player2) {
+        try {
+            HeadToHeadDTO headToHead = headToHeadService.getHeadToHead(TenantContext.current(), player1, player2);
+            return ResponseEntity.ok(headToHead);
+        } catch (IllegalArgumentException e) {
+            log.error("Validation error: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    record ErrorResponse(String message) {}
+}
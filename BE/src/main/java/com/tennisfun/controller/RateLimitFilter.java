@@ -0,0 +1,232 @@
+package com.tennisfun.controller;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Begränsar hur ofta en klient (IP-adress) får anropa API:t, med en token bucket
+ * per klient och typ av anrop: läsningar, ändringar och tunga anrop (simulering,
+ * import, export, omräkningar, massåtgärder på turneringar och testdata). Den som överskrider sin takt får 429 med
+ * {@code Retry-After} i stället för att ta trådar och databasanslutningar.
+ * <p>
+ * När primärpoolen har trådar som väntar på en anslutning avvisas läsningar
+ * direkt, så att resultatrapportering och andra ändringar kommer fram även
+ * när många skärmar pollar samtidigt.
+ * <p>
+ * Hinkarna ligger i en {@link ConcurrentHashMap} och uppdateras med CAS, utan lås.
+ * En hink som hunnit fyllas på helt beter sig som en ny och tas bort vid nästa
+ * städning, så minnet följer antalet aktiva klienter.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    enum EndpointClass { READ, WRITE, HEAVY }
+
+    @Value("${tennisfun.ratelimit.enabled:true}")
+    private boolean enabled;
+
+    // En skärm hämtar turneringen och varje grupps resultat var 10:e sekund (1 + G anrop); med 48 grupper
+    // är det ~5 anrop/s, och banornas telefoner bakom klubbens NAT delar samma adress
+    @Value("${tennisfun.ratelimit.read.capacity:500}")
+    private double readCapacity;
+
+    @Value("${tennisfun.ratelimit.read.per-second:40}")
+    private double readPerSecond;
+
+    @Value("${tennisfun.ratelimit.write.capacity:30}")
+    private double writeCapacity;
+
+    @Value("${tennisfun.ratelimit.write.per-second:2}")
+    private double writePerSecond;
+
+    @Value("${tennisfun.ratelimit.heavy.capacity:5}")
+    private double heavyCapacity;
+
+    @Value("${tennisfun.ratelimit.heavy.per-second:0.1}")
+    private double heavyPerSecond;
+
+    @Value("${tennisfun.ratelimit.max-clients:50000}")
+    private int maxClients;
+
+    @Value("${tennisfun.ratelimit.shed-reads-when-pool-saturated:true}")
+    private boolean shedReads;
+
+    private final ObjectProvider<DataSource> dataSource;
+    private volatile HikariPoolMXBean pool;
+
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+    private final AtomicLong rejected = new AtomicLong();
+
+    public RateLimitFilter(ObjectProvider<DataSource> dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    // Tokens och tidpunkten de räknades fram; ersätts helt vid varje uttag
+    private record State(double tokens, long updatedAt) {
+    }
+
+    private static final class Bucket {
+        final double capacity;
+        final double perSecond;
+        final AtomicReference<State> state;
+
+        Bucket(double capacity, double perSecond, long now) {
+            this.capacity = capacity;
+            this.perSecond = perSecond;
+            state = new AtomicReference<>(new State(capacity, now));
+        }
+
+        // 0 om ett token togs, annars nanosekunder tills nästa token finns
+        long tryConsume(long now) {
+            while (true) {
+                State current = state.get();
+                double tokens = refill(current, now);
+                if (tokens < 1) {
+                    return (long) Math.ceil((1 - tokens) / perSecond * 1e9);
+                }
+                if (state.compareAndSet(current, new State(tokens - 1, Math.max(now, current.updatedAt())))) {
+                    return 0;
+                }
+            }
+        }
+
+        boolean isFull(long now) {
+            return refill(state.get(), now) >= capacity;
+        }
+
+        private double refill(State state, long now) {
+            long elapsed = Math.max(0, now - state.updatedAt());
+            return Math.min(capacity, state.tokens() + elapsed / 1e9 * perSecond);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !enabled || !path.startsWith("/api/") || path.startsWith("/api/health")
+                || request.getMethod().equals("OPTIONS");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        EndpointClass endpointClass = classify(request);
+        if (endpointClass == EndpointClass.READ && shedReads && poolSaturated()) {
+            reject(response, 1, "Servern är hårt belastad, försök igen om en stund");
+            return;
+        }
+
+        long now = System.nanoTime();
+        sweepIfDue(now);
+        String key = endpointClass.name() + "|" + request.getRemoteAddr();
+        long waitNanos = buckets.computeIfAbsent(key, k -> newBucket(endpointClass, now)).tryConsume(now);
+        if (waitNanos > 0) {
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            log.debug("Rate limited {} {} from {}, retry after {} s", request.getMethod(),
+                    request.getRequestURI(), request.getRemoteAddr(), retryAfter);
+            reject(response, retryAfter, "För många förfrågningar, försök igen om " + retryAfter + " s");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    static EndpointClass classify(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path.contains("/simulation") || path.startsWith("/api/import/") || path.startsWith("/api/export/")
+                || path.startsWith("/api/dev/") || path.endsWith("/rebuild") || path.endsWith("/bulk-delete")
+                || path.endsWith("/archive-before") || path.endsWith("/purge-archived")) {
+            return EndpointClass.HEAVY;
+        }
+        String method = request.getMethod();
+        return method.equals("GET") || method.equals("HEAD") ? EndpointClass.READ : EndpointClass.WRITE;
+    }
+
+    private Bucket newBucket(EndpointClass endpointClass, long now) {
+        return switch (endpointClass) {
+            case READ -> new Bucket(readCapacity, readPerSecond, now);
+            case WRITE -> new Bucket(writeCapacity, writePerSecond, now);
+            case HEAVY -> new Bucket(heavyCapacity, heavyPerSecond, now);
+        };
+    }
+
+    // Loggar avvisade anrop och tar bort hinkar som är fulla igen; körs av en förfrågan i taget, högst var 30:e sekund
+    // eller direkt när antalet klienter passerar taket
+    private void sweepIfDue(long now) {
+        long last = lastSweep.get();
+        if ((now - last < SWEEP_INTERVAL_NANOS && buckets.size() < maxClients)
+                || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        long rejectedSinceLast = rejected.getAndSet(0);
+        if (rejectedSinceLast > 0) {
+            log.warn("Rate limiter rejected {} requests in the last {} s", rejectedSinceLast,
+                    TimeUnit.NANOSECONDS.toSeconds(now - last));
+        }
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+        if (buckets.size() >= maxClients) {
+            log.warn("Rate limiter tracks {} clients after sweep (limit {}), clearing", buckets.size(), maxClients);
+            buckets.clear();
+        } else if (before != buckets.size()) {
+            log.debug("Rate limiter sweep removed {} idle clients, {} left", before - buckets.size(), buckets.size());
+        }
+    }
+
+    private boolean poolSaturated() {
+        HikariPoolMXBean mxBean = pool;
+        if (mxBean == null) {
+            mxBean = resolvePool();
+        }
+        return mxBean != null && mxBean.getThreadsAwaitingConnection() > 0;
+    }
+
+    // Poolen startas vid första anslutningen, så den slås upp först när den finns
+    private HikariPoolMXBean resolvePool() {
+        DataSource source = dataSource.getIfAvailable();
+        if (source == null) {
+            return null;
+        }
+        try {
+            pool = source.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+        } catch (SQLException e) {
+            log.info("Data source is not a Hikari pool, reads are not shed under load");
+            shedReads = false;
+        }
+        return pool;
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterSeconds, String message) throws IOException {
+        rejected.incrementAndGet();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("{\"message\":\"" + message + "\"}");
+    }
+}
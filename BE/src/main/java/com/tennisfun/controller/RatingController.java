@@ -0,0 +1,58 @@
+package com.tennisfun.controller;
+
+import com.tennisfun.dto.RatingConsistencyDTO;
+import com.tennisfun.entity.PlayerRating;
+import com.tennisfun.service.RatingService;
+import com.tennisfun.tenant.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/ratings")
+@RequiredArgsConstructor
+@Slf4j
+public class RatingController {
+
+    private final RatingService ratingService;
+
+    @GetMapping
+    public ResponseEntity<List<PlayerRating>> getRatings() {
+        return ResponseEntity.ok(ratingService.getRatings(TenantContext.current()));
+    }
+
+    @GetMapping("/{player}")
+    public ResponseEntity<?> getRating(@PathVariable String player) {
+        try {
+            return ResponseEntity.ok(ratingService.getRating(TenantContext.current(), player));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/consistency")
+    public ResponseEntity<RatingConsistencyDTO> checkConsistency() {
+        return ResponseEntity.ok(ratingService.checkConsistency(TenantContext.current()));
+    }
+
+    // Full omräkning av klubbens historik
+    @PostMapping("/rebuild")
+    public ResponseEntity<?> rebuild() {
+        try {
+            log.info("Rebuilding ratings for tenant {}", TenantContext.current());
+            int players = ratingService.rebuild(TenantContext.current());
+            return ResponseEntity.ok(Map.of("players", players));
+        } catch (Exception e) {
+            log.error("Error rebuilding ratings", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("Ett fel uppstod vid omräkning av ratingar"));
+        }
+    }
+
+    record ErrorResponse(String message) {}
+}
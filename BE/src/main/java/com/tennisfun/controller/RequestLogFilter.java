@@ -0,0 +1,92 @@
+package com.tennisfun.controller;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * En loggrad per API-anrop med metod, sökväg, status och tid.
+ * <p>
+ * Ändrande anrop, fel (status 400 och uppåt) och långsamma anrop loggas alltid.
+ * Läsningar, som klienterna pollar var tionde sekund, loggas bara för en andel
+ * ({@code tennisfun.logging.read-sample-rate}) och högst
+ * {@code tennisfun.logging.read-max-per-second} per sekund; antalet överhoppade
+ * läsningar sedan förra raden skrivs med, så att volymen går att räkna fram.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 15)
+@Slf4j
+public class RequestLogFilter extends OncePerRequestFilter {
+
+    @Value("${tennisfun.logging.read-sample-rate:0.01}")
+    private double readSampleRate;
+
+    @Value("${tennisfun.logging.read-max-per-second:5}")
+    private int readMaxPerSecond;
+
+    @Value("${tennisfun.logging.slow-request-ms:1000}")
+    private long slowRequestMs;
+
+    private final AtomicLong skippedReads = new AtomicLong();
+    private final AtomicLong currentSecond = new AtomicLong();
+    private final AtomicInteger loggedThisSecond = new AtomicInteger();
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            int status = failed ? 500 : response.getStatus();
+            String method = request.getMethod();
+            boolean read = method.equals("GET") || method.equals("HEAD");
+            if (status >= 500) {
+                log.warn("request method={} path={} status={} durationMs={}",
+                        method, request.getRequestURI(), status, durationMs);
+            } else if (!read || status >= 400 || durationMs >= slowRequestMs) {
+                log.info("request method={} path={} status={} durationMs={}",
+                        method, request.getRequestURI(), status, durationMs);
+            } else if (log.isInfoEnabled() && sampled()) {
+                log.info("request method={} path={} status={} durationMs={} skippedReads={}",
+                        method, request.getRequestURI(), status, durationMs,
+                        skippedReads.getAndSet(0));
+            } else {
+                skippedReads.incrementAndGet();
+            }
+        }
+    }
+
+    private boolean sampled() {
+        if (readSampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= readSampleRate) {
+            return false;
+        }
+        long second = System.currentTimeMillis() / 1000;
+        long previous = currentSecond.get();
+        if (previous != second && currentSecond.compareAndSet(previous, second)) {
+            loggedThisSecond.set(0);
+        }
+        return loggedThisSecond.incrementAndGet() <= readMaxPerSecond;
+    }
+}
@@ -0,0 +1,55 @@
+package com.tennisfun.controller;
+
+import com.tennisfun.dto.ClubStatsDTO;
+import com.tennisfun.service.StatsRollupService;
+import com.tennisfun.tenant.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/stats")
+@RequiredArgsConstructor
+@Slf4j
+public class StatsController {
+
+    private final StatsRollupService statsRollupService;
+
+    // Klubbstatistik per dag eller månad; standard är senaste året per månad
+    @GetMapping
+    public ResponseEntity<?> getStats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String period,
+            @RequestParam(required = false) Integer top) {
+        try {
+            ClubStatsDTO stats = statsRollupService.getStats(TenantContext.current(), from, to, period, top);
+            return ResponseEntity.ok(stats);
+        } catch (IllegalArgumentException e) {
+            log.error("Validation error: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    // Räknar om klubbens statistik från hela historiken
+    @PostMapping("/rebuild")
+    public ResponseEntity<?> rebuild() {
+        try {
+            log.info("Rebuilding stats rollups for tenant {}", TenantContext.current());
+            int periods = statsRollupService.rebuild(TenantContext.current());
+            return ResponseEntity.ok(Map.of("periods", periods));
+        } catch (Exception e) {
+            log.error("Error rebuilding stats rollups", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("Ett fel uppstod vid omräkning av statistik"));
+        }
+    }
+
+    record ErrorResponse(String message) {}
+}
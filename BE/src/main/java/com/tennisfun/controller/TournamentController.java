@@ -1,15 +1,44 @@
 package com.tennisfun.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tennisfun.dto.BulkOperationDTO;
 import com.tennisfun.dto.CreateTournamentRequest;
+import com.tennisfun.dto.DrawRequest;
+import com.tennisfun.dto.DrawResultDTO;
+import com.tennisfun.dto.EventLogStateDTO;
+import com.tennisfun.dto.GroupScheduleDTO;
+import com.tennisfun.dto.HeadToHeadMatrixDTO;
+import com.tennisfun.dto.QualificationDTO;
+import com.tennisfun.dto.SimulationDTO;
+import com.tennisfun.dto.TournamentEventsDTO;
+import com.tennisfun.dto.TournamentProgressDTO;
 import com.tennisfun.dto.TournamentSummaryDTO;
+import com.tennisfun.entity.AuditEntry;
+import com.tennisfun.entity.BracketNode;
 import com.tennisfun.entity.Tournament;
+import com.tennisfun.entity.TournamentGroup;
+import com.tennisfun.service.AuditLogService;
+import com.tennisfun.service.BracketService;
+import com.tennisfun.service.GroupDrawService;
+import com.tennisfun.service.HeadToHeadService;
+import com.tennisfun.service.MatchScheduleService;
+import com.tennisfun.service.QualificationService;
+import com.tennisfun.service.TournamentEventLogService;
+import com.tennisfun.service.TournamentLifecycleService;
+import com.tennisfun.service.TournamentProgressService;
 import com.tennisfun.service.TournamentService;
+import com.tennisfun.service.TournamentSimulationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 @RestController
@@ -19,6 +48,17 @@ import java.util.List;
 public class TournamentController {
     
     private final TournamentService tournamentService;
+    private final TournamentLifecycleService lifecycleService;
+    private final GroupDrawService groupDrawService;
+    private final MatchScheduleService matchScheduleService;
+    private final BracketService bracketService;
+    private final QualificationService qualificationService;
+    private final TournamentSimulationService simulationService;
+    private final HeadToHeadService headToHeadService;
+    private final AuditLogService auditLogService;
+    private final TournamentEventLogService eventLogService;
+    private final TournamentProgressService progressService;
+    private final ObjectMapper objectMapper;
     
     @PostMapping
     public ResponseEntity<?> createTournament(@RequestBody CreateTournamentRequest request) {
@@ -36,23 +76,40 @@ public class TournamentController {
         }
     }
     
+    // Föreslår grupper; resultatet skickas sedan som groups i createTournament
+    @PostMapping("/draw")
+    public ResponseEntity<?> drawGroups(@RequestBody DrawRequest request) {
+        try {
+            log.info("Drawing {} groups", request.getNumberOfGroups());
+            DrawResultDTO result = groupDrawService.draw(request);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            log.error("Validation error: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error drawing groups", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("Ett fel uppstod vid lottning av grupper"));
+        }
+    }
+    
     @GetMapping
     public ResponseEntity<List<TournamentSummaryDTO>> getAllTournaments() {
-        log.info("Fetching all tournaments");
+        log.debug("Fetching all tournaments");
         List<TournamentSummaryDTO> tournaments = tournamentService.getAllTournaments();
         return ResponseEntity.ok(tournaments);
     }
     
     @GetMapping("/active")
     public ResponseEntity<List<TournamentSummaryDTO>> getActiveTournaments() {
-        log.info("Fetching active tournaments");
+        log.debug("Fetching active tournaments");
         List<TournamentSummaryDTO> tournaments = tournamentService.getActiveTournaments();
         return ResponseEntity.ok(tournaments);
     }
     
     @GetMapping("/archived")
     public ResponseEntity<List<TournamentSummaryDTO>> getArchivedTournaments() {
-        log.info("Fetching archived tournaments");
+        log.debug("Fetching archived tournaments");
         List<TournamentSummaryDTO> tournaments = tournamentService.getArchivedTournaments();
         return ResponseEntity.ok(tournaments);
     }
@@ -60,8 +117,8 @@ public class TournamentController {
     @GetMapping("/{id}")
     public ResponseEntity<?> getTournamentById(@PathVariable Long id) {
         try {
-            log.info("Fetching tournament with ID: {}", id);
-            Tournament tournament = tournamentService.getTournamentById(id);
+            log.debug("Fetching tournament with ID: {}", id);
+            Tournament tournament = tournamentService.getTournamentSnapshot(id);
             return ResponseEntity.ok(tournament);
         } catch (IllegalArgumentException e) {
             log.error("Tournament not found: {}", e.getMessage());
@@ -70,17 +127,172 @@ public class TournamentController {
         }
     }
     
+    // Förväntade och klara matcher per grupp och grupper klara för slutspel, från förberäknade räknare
+    @GetMapping("/{id}/progress")
+    public ResponseEntity<?> getProgress(@PathVariable Long id) {
+        try {
+            TournamentProgressDTO progress = progressService.getProgress(id);
+            return ResponseEntity.ok(progress);
+        } catch (IllegalArgumentException e) {
+            log.error("Tournament not found: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    // Spelordning och banor för återstående matcher, planeras om när resultat rapporteras
+    @GetMapping("/{id}/schedule")
+    public ResponseEntity<?> getTournamentSchedule(@PathVariable Long id) {
+        try {
+            List<GroupScheduleDTO> schedule = matchScheduleService.getTournamentSchedule(id);
+            return ResponseEntity.ok(schedule);
+        } catch (IllegalArgumentException e) {
+            log.error("Tournament not found: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/groups/{groupId}/schedule")
+    public ResponseEntity<?> getGroupSchedule(@PathVariable Long groupId) {
+        try {
+            GroupScheduleDTO schedule = matchScheduleService.getGroupSchedule(groupId);
+            return ResponseEntity.ok(schedule);
+        } catch (IllegalArgumentException e) {
+            log.error("Group not found: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    // Vad varje spelare behöver i gruppens återstående matcher för att gå vidare
+    @GetMapping("/groups/{groupId}/qualification")
+    public ResponseEntity<?> getQualification(
+            @PathVariable Long groupId,
+            @RequestParam(required = false) Integer qualifiers) {
+        try {
+            QualificationDTO qualification = qualificationService.getQualification(groupId, qualifiers);
+            return ResponseEntity.ok(qualification);
+        } catch (IllegalArgumentException e) {
+            log.error("Validation error: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    // Inbördes möten mellan alla turneringens deltagare, ur hela klubbens historik
+    @GetMapping("/{id}/head-to-head")
+    public ResponseEntity<?> getHeadToHeadMatrix(@PathVariable Long id) {
+        try {
+            HeadToHeadMatrixDTO matrix = headToHeadService.getTournamentMatrix(id);
+            return ResponseEntity.ok(matrix);
+        } catch (IllegalArgumentException e) {
+            log.error("Tournament not found: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    // Granskningslogg för turneringen, nyaste först; beforeId hämtar äldre poster
+    @GetMapping("/{id}/audit")
+    public ResponseEntity<?> getAuditLog(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            List<AuditEntry> entries = auditLogService.getTournamentLog(id, beforeId, limit);
+            return ResponseEntity.ok(entries);
+        } catch (IllegalArgumentException e) {
+            log.error("Validation error: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    // Händelseloggen efter ett visst nummer, för deltasynk; resync betyder hämta om allt
+    @GetMapping("/{id}/events")
+    public ResponseEntity<?> getEvents(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            TournamentEventsDTO events = eventLogService.getEvents(id, after, limit);
+            return ResponseEntity.ok(events);
+        } catch (IllegalArgumentException e) {
+            log.error("Validation error: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    // Grupper, matcher och tabeller framräknade ur händelseloggen
+    @GetMapping("/{id}/event-state")
+    public ResponseEntity<?> getEventState(@PathVariable Long id) {
+        try {
+            EventLogStateDTO state = eventLogService.getState(id);
+            return ResponseEntity.ok(state);
+        } catch (IllegalArgumentException e) {
+            log.error("Validation error: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    // Sannolikheter att gå vidare och vinna, från simuleringar av resten av turneringen
+    @GetMapping("/{id}/simulation")
+    public ResponseEntity<?> simulate(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer iterations,
+            @RequestParam(required = false) String model,
+            @RequestParam(required = false) Long seed) {
+        try {
+            SimulationDTO result = simulationService.prepare(id, iterations, model, seed).run(null);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            log.error("Validation error: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error simulating tournament", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("Ett fel uppstod vid simulering av turneringen"));
+        }
+    }
+    
+    // Samma simulering som NDJSON, med ett delresultat per rad så att banskärmen kan visa det löpande
+    @GetMapping("/{id}/simulation/stream")
+    public ResponseEntity<StreamingResponseBody> streamSimulation(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer iterations,
+            @RequestParam(required = false) String model,
+            @RequestParam(required = false) Long seed) {
+        try {
+            TournamentSimulationService.Simulation simulation = simulationService.prepare(id, iterations, model, seed);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.valueOf("application/x-ndjson"))
+                    .body(out -> simulationService.stream(simulation, out));
+        } catch (IllegalArgumentException e) {
+            log.error("Validation error: {}", e.getMessage());
+            // Strömmande svar skrivs inte av meddelandekonverterarna, så felet serialiseras här
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> objectMapper.writeValue(out, new ErrorResponse(e.getMessage())));
+        } catch (Exception e) {
+            log.error("Error preparing tournament simulation", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> objectMapper.writeValue(out,
+                            new ErrorResponse("Ett fel uppstod vid simulering av turneringen")));
+        }
+    }
+    
     @PutMapping("/{id}/rename")
     public ResponseEntity<?> renameTournament(
             @PathVariable Long id,
-            @RequestBody RenameTournamentRequest request) {
+            @RequestBody RenameTournamentRequest request,
+            @RequestHeader(value = IfMatch.HEADER, required = false) String ifMatch) {
         try {
             log.info("Renaming tournament ID: {} to '{}'", id, request.newName());
-            Tournament tournament = tournamentService.renameTournament(id, request.newName());
-            return ResponseEntity.ok(tournament);
+            Tournament tournament = tournamentService.renameTournament(id, request.newName(), IfMatch.version(ifMatch));
+            return ResponseEntity.ok().eTag(String.valueOf(tournament.getVersion())).body(tournament);
         } catch (IllegalArgumentException e) {
             log.error("Validation error: {}", e.getMessage());
             return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Version conflict renaming tournament {}: {}", id, e.getMessage());
+            return tournamentConflict(id);
         } catch (Exception e) {
             log.error("Error renaming tournament", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -134,6 +346,55 @@ public class TournamentController {
                     .body(new ErrorResponse("Ett fel uppstod vid radering av turneringar"));
         }
     }
+
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<?> deleteTournaments(@RequestBody BulkDeleteRequest request) {
+        try {
+            BulkOperationDTO result = lifecycleService.deleteTournaments(request.ids());
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            log.error("Validation error: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error deleting tournaments", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("Ett fel uppstod vid radering av turneringar"));
+        }
+    }
+
+    @PostMapping("/archive-before")
+    public ResponseEntity<?> archiveBefore(@RequestBody ArchiveBeforeRequest request) {
+        try {
+            if (request.date() == null || request.date().isBlank()) {
+                throw new IllegalArgumentException("Datum måste anges");
+            }
+            BulkOperationDTO result = lifecycleService.archiveBefore(LocalDate.parse(request.date()));
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            log.error("Validation error: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new ErrorResponse(e instanceof DateTimeParseException
+                    ? "Ogiltigt datum, använd formatet ÅÅÅÅ-MM-DD" : e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error archiving tournaments", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("Ett fel uppstod vid arkivering av turneringar"));
+        }
+    }
+
+    @PostMapping("/purge-archived")
+    public ResponseEntity<?> purgeArchived(@RequestBody PurgeArchivedRequest request) {
+        try {
+            BulkOperationDTO result = lifecycleService.purgeArchived(request.olderThanYears());
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            log.error("Validation error: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error purging archived tournaments", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("Ett fel uppstod vid rensning av arkiverade turneringar"));
+        }
+    }
     
     @PostMapping("/{id}/next-round")
     public ResponseEntity<?> createNextRound(
@@ -153,17 +414,52 @@ public class TournamentController {
         }
     }
     
+    // Seedar hela slutspelsträdet från gruppställningen; vinnare flyttas sedan vidare automatiskt
+    @PostMapping("/{id}/bracket")
+    public ResponseEntity<?> createBracket(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer numberOfWinners) {
+        try {
+            log.info("Creating bracket for tournament ID: {} with {} winners per group", id, numberOfWinners);
+            List<BracketNode> bracket = bracketService.createBracket(id, numberOfWinners);
+            return ResponseEntity.status(HttpStatus.CREATED).body(bracket);
+        } catch (IllegalArgumentException e) {
+            log.error("Validation error: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error creating bracket", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("Ett fel uppstod vid skapande av slutspelsträdet"));
+        }
+    }
+    
+    @GetMapping("/{id}/bracket")
+    public ResponseEntity<?> getBracket(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(bracketService.getBracket(id));
+        } catch (IllegalArgumentException e) {
+            log.error("Tournament not found: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
     @PutMapping("/groups/{groupId}/participants")
     public ResponseEntity<?> updateGroupParticipants(
             @PathVariable Long groupId,
-            @RequestBody List<String> participants) {
+            @RequestBody List<String> participants,
+            @RequestHeader(value = IfMatch.HEADER, required = false) String ifMatch) {
         try {
             log.info("Updating participants for group ID: {}", groupId);
-            tournamentService.updateGroupParticipants(groupId, participants);
-            return ResponseEntity.ok(new SuccessResponse("Deltagare uppdaterade"));
+            TournamentGroup group = tournamentService.updateGroupParticipants(groupId, participants,
+                    IfMatch.version(ifMatch));
+            return ResponseEntity.ok().eTag(String.valueOf(group.getVersion()))
+                    .body(new SuccessResponse("Deltagare uppdaterade"));
         } catch (IllegalArgumentException e) {
             log.error("Validation error: {}", e.getMessage());
             return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Version conflict updating participants in group {}: {}", groupId, e.getMessage());
+            return groupConflict(groupId);
         } catch (Exception e) {
             log.error("Error updating group participants", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -174,14 +470,20 @@ public class TournamentController {
     @PutMapping("/groups/{groupId}/rename-player")
     public ResponseEntity<?> renamePlayer(
             @PathVariable Long groupId,
-            @RequestBody RenamePlayerRequest request) {
+            @RequestBody RenamePlayerRequest request,
+            @RequestHeader(value = IfMatch.HEADER, required = false) String ifMatch) {
         try {
             log.info("Renaming player in group ID: {}", groupId);
-            tournamentService.renamePlayer(groupId, request.oldName(), request.newName());
-            return ResponseEntity.ok(new SuccessResponse("Spelarnamn uppdaterat"));
+            TournamentGroup group = tournamentService.renamePlayer(groupId, request.oldName(), request.newName(),
+                    IfMatch.version(ifMatch));
+            return ResponseEntity.ok().eTag(String.valueOf(group.getVersion()))
+                    .body(new SuccessResponse("Spelarnamn uppdaterat"));
         } catch (IllegalArgumentException e) {
             log.error("Validation error: {}", e.getMessage());
             return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Version conflict renaming player in group {}: {}", groupId, e.getMessage());
+            return groupConflict(groupId);
         } catch (Exception e) {
             log.error("Error renaming player", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -189,9 +491,42 @@ public class TournamentController {
         }
     }
     
+    // Svaret på en krock innehåller det aktuella tillståndet, så att klienten kan visa det och försöka igen
+    private ResponseEntity<?> tournamentConflict(Long id) {
+        Tournament current;
+        try {
+            current = tournamentService.getTournamentById(id);
+        } catch (IllegalArgumentException e) {
+            current = null;
+        }
+        return conflict(TournamentService.TOURNAMENT_CHANGED, current, current != null ? current.getVersion() : null);
+    }
+
+    private ResponseEntity<?> groupConflict(Long groupId) {
+        TournamentGroup current;
+        try {
+            current = tournamentService.getGroup(groupId);
+        } catch (IllegalArgumentException e) {
+            current = null;
+        }
+        return conflict(TournamentService.GROUP_CHANGED, current, current != null ? current.getVersion() : null);
+    }
+
+    private ResponseEntity<?> conflict(String message, Object current, Long version) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.CONFLICT);
+        if (version != null) {
+            response.eTag(String.valueOf(version));
+        }
+        return response.body(new ConflictResponse(message, current));
+    }
+    
     // Inner classes för meddelanden
     record ErrorResponse(String message) {}
+    record ConflictResponse(String message, Object current) {}
     record SuccessResponse(String message) {}
     record RenamePlayerRequest(String oldName, String newName) {}
     record RenameTournamentRequest(String newName) {}
+    record BulkDeleteRequest(List<Long> ids) {}
+    record ArchiveBeforeRequest(String date) {}
+    record PurgeArchivedRequest(Integer olderThanYears) {}
 }
@@ -0,0 +1,100 @@
+package com.tennisfun.controller;
+
+import com.tennisfun.dto.ImportSummaryDTO;
+import com.tennisfun.service.RatingService;
+import com.tennisfun.service.TransferService;
+import com.tennisfun.tenant.TenantContext;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@Slf4j
+public class TransferController {
+
+    private static final MediaType NDJSON = MediaType.valueOf("application/x-ndjson");
+    private static final MediaType CSV = MediaType.valueOf("text/csv;charset=UTF-8");
+
+    private final TransferService transferService;
+    private final RatingService ratingService;
+
+    // En spelare per rad, t.ex. innehållet i spelarlistan.txt
+    @PostMapping("/import/players")
+    public ResponseEntity<?> importPlayers(HttpServletRequest request) {
+        try {
+            log.info("Importing player list");
+            ImportSummaryDTO summary = transferService.importPlayers(TenantContext.current(), request.getReader());
+            return ResponseEntity.ok(summary);
+        } catch (IllegalArgumentException e) {
+            log.error("Validation error: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error importing players", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("Ett fel uppstod vid import av spelare"));
+        }
+    }
+
+    // CSV med rubrikrad, eller JSON lines med Content-Type: application/x-ndjson
+    @PostMapping("/import/results")
+    public ResponseEntity<?> importResults(HttpServletRequest request) {
+        try {
+            boolean jsonLines = isNdjson(request.getContentType());
+            log.info("Importing match results ({})", jsonLines ? "ndjson" : "csv");
+            ImportSummaryDTO summary = transferService.importResults(
+                    TenantContext.current(), request.getReader(), jsonLines);
+            if (summary.getImported() > 0) {
+                // Importen skriver med JDBC utan händelser per match
+                ratingService.scheduleRebuild(TenantContext.current());
+            }
+            if (summary.getMessage() != null) {
+                return ResponseEntity.badRequest().body(summary);
+            }
+            return ResponseEntity.ok(summary);
+        } catch (IllegalArgumentException e) {
+            log.error("Validation error: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error importing match results", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("Ett fel uppstod vid import av resultat"));
+        }
+    }
+
+    @GetMapping("/export/players")
+    public ResponseEntity<StreamingResponseBody> exportPlayers() {
+        String tenantId = TenantContext.current();
+        log.info("Exporting players for tenant {}", tenantId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.valueOf("text/plain;charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"spelare.txt\"")
+                .body(out -> transferService.exportPlayers(tenantId, out));
+    }
+
+    @GetMapping("/export/results")
+    public ResponseEntity<StreamingResponseBody> exportResults(
+            @RequestParam(defaultValue = "csv") String format) {
+        String tenantId = TenantContext.current();
+        boolean jsonLines = "ndjson".equalsIgnoreCase(format);
+        log.info("Exporting match results for tenant {} as {}", tenantId, jsonLines ? "ndjson" : "csv");
+        return ResponseEntity.ok()
+                .contentType(jsonLines ? NDJSON : CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"resultat." + (jsonLines ? "ndjson" : "csv") + "\"")
+                .body(out -> transferService.exportResults(tenantId, out, jsonLines));
+    }
+
+    private boolean isNdjson(String contentType) {
+        return contentType != null && MediaType.parseMediaType(contentType).isCompatibleWith(NDJSON);
+    }
+
+    record ErrorResponse(String message) {}
+}
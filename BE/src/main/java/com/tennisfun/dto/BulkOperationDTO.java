@@ -0,0 +1,16 @@
+package com.tennisfun.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOperationDTO {
+    private Integer tournaments;
+    private Integer groups;
+    private Integer matches;
+    private Integer chunks;
+    private Long durationMs;
+}
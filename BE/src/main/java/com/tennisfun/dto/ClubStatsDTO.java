@@ -0,0 +1,20 @@
+package com.tennisfun.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClubStatsDTO {
+    private LocalDate from;
+    private LocalDate to;
+    private String period; // day eller month
+    private PeriodStatsDTO totals;
+    private List<PeriodStatsDTO> periods;
+    private List<PlayerActivityDTO> mostActive;
+}
@@ -0,0 +1,18 @@
+package com.tennisfun.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DrawRequest {
+    private List<String> players;
+    private Integer numberOfGroups;
+    private Boolean avoidPreviousGroups; // Standard: true
+    private Long seed; // Valfri, ger reproducerbara startlägen för sökningen
+    private Integer timeLimitMs;
+}
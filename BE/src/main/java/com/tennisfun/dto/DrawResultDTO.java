@@ -0,0 +1,18 @@
+package com.tennisfun.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DrawResultDTO {
+    private List<TournamentGroupDTO> groups; // Samma form som CreateTournamentRequest.groups
+    private List<Double> averageRatings;
+    private Integer repeatedPairs;
+    private Long iterations;
+    private Long elapsedMs;
+}
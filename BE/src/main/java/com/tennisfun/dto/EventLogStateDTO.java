@@ -0,0 +1,31 @@
+package com.tennisfun.dto;
+
+import com.tennisfun.event.MatchSnapshot;
+import com.tennisfun.service.StandingsCalculator;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventLogStateDTO {
+    private Long tournamentId;
+    private Long seq;
+    // true när tillståndet är framräknat ur loggen, false när det lästes från tabellerna
+    private Boolean replayed;
+    private List<Group> groups;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Group {
+        private Long id;
+        private Integer groupNumber;
+        private List<String> participants;
+        private List<MatchSnapshot> matches;
+        private List<StandingsCalculator.Standing> standings;
+    }
+}
@@ -0,0 +1,26 @@
+package com.tennisfun.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Storlek och frö för syntetiska testdata. Samma frö och samma storlekar ger
+ * samma spelare, grupper och resultat; datumen räknas bakåt från {@code endDate}
+ * (dagens datum om det inte anges).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GenerateDataRequest {
+    private Long seed = 42L;
+    private Integer players = 400;
+    private Integer groups = 48;
+    private Integer groupSize = 5;
+    private Integer historyYears = 3;
+    private Integer tournamentsPerYear = 12;
+    private Double openShare = 0.3;
+    private LocalDate endDate;
+}
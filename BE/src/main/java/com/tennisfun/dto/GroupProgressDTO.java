@@ -0,0 +1,21 @@
+package com.tennisfun.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupProgressDTO {
+    private Long groupId;
+    private Integer groupNumber;
+    private Integer participants;
+    private Integer expected;   // Alla möter alla
+    private Integer played;
+    private Integer retired;
+    private Integer walkovers;
+    private Integer completed;  // Spelade, uppgivna och W.O.
+    private Boolean finished;
+    private Boolean knockout;   // Grupp med exakt 2 deltagare
+}
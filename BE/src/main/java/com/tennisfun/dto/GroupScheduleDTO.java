@@ -0,0 +1,20 @@
+package com.tennisfun.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupScheduleDTO {
+    private Long groupId;
+    private Integer groupNumber;
+    private List<String> courts;
+    private List<ScheduledMatchDTO> matches;
+    private Integer reported;
+    private Integer remaining;
+    private Integer backToBack; // Antal gånger en spelare har matcher i två slotar i rad
+}
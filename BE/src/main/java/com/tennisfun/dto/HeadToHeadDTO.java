@@ -0,0 +1,19 @@
+package com.tennisfun.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HeadToHeadDTO {
+    private String player1;
+    private String player2;
+    private Integer matches;
+    private Integer wins1;
+    private Integer wins2;
+    private Integer walkovers; // Ingår i matcher och vinster
+    private Integer games1;
+    private Integer games2;
+}
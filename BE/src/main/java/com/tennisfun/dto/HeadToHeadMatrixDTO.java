@@ -0,0 +1,19 @@
+package com.tennisfun.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Rad i, kolumn j: möten, vinster och vunna games för spelare i mot spelare j
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HeadToHeadMatrixDTO {
+    private Long tournamentId;
+    private List<String> players;
+    private List<List<Integer>> matches;
+    private List<List<Integer>> wins;
+    private List<List<Integer>> games;
+}
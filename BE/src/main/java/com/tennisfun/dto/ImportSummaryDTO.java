@@ -0,0 +1,15 @@
+package com.tennisfun.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportSummaryDTO {
+    private Integer linesRead;
+    private Integer imported;
+    private Integer skipped;
+    private String message;  // Felet som stoppade importen; batcharna före felet är redan sparade
+}
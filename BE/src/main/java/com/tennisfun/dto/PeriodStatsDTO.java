@@ -0,0 +1,19 @@
+package com.tennisfun.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PeriodStatsDTO {
+    private LocalDate periodStart;
+    private Long tournaments;
+    private Long matches;
+    private Double averageGames;  // Per spelad match, W.O. räknas inte
+    private Double walkoverRate;
+    private Double retiredRate;
+}
@@ -0,0 +1,20 @@
+package com.tennisfun.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlayerQualificationDTO {
+    private String player;
+    private Integer points;
+    private Integer remainingMatches;
+    private String status; // CLINCHED, ELIMINATED eller OPEN
+    private Integer bestRank;
+    private Integer worstRank;
+    private List<String> conditions;
+}
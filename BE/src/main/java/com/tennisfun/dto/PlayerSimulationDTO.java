@@ -0,0 +1,15 @@
+package com.tennisfun.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlayerSimulationDTO {
+    private String player;
+    private Double strength;           // Rating eller utjämnad vinstandel, beroende på modell
+    private Double advanceProbability; // Sannolikhet att nå slutspelet
+    private Double winProbability;     // Sannolikhet att vinna turneringen
+}
@@ -0,0 +1,14 @@
+package com.tennisfun.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlayerSuggestionDTO {
+    private String name;
+    private Integer matches;
+    private Boolean sameName;  // Samma namn som sökningen bortsett från accenter och versaler
+}
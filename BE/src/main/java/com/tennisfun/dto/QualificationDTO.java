@@ -0,0 +1,18 @@
+package com.tennisfun.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QualificationDTO {
+    private Long groupId;
+    private Integer qualifiers;
+    private List<String> remainingMatches;
+    private List<PlayerQualificationDTO> players;
+    private Long elapsedMicros;
+}
@@ -0,0 +1,17 @@
+package com.tennisfun.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingConsistencyDTO {
+    private Integer players;
+    private Integer ratedMatches;
+    private Integer ledgerMismatches;
+    private Integer replayMismatches;
+    private Double maxDifference;
+    private Boolean consistent;
+}
@@ -0,0 +1,36 @@
+package com.tennisfun.dto;
+
+import com.tennisfun.entity.MatchStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// En rad i import/export av matchresultat (CSV eller JSON lines)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultTransferRow {
+    private String tournament;
+    private LocalDate date;
+    private Integer gamesPerSet;
+    private String setsPerMatch;
+    private Integer groupNumber;
+    private String player1;
+    private String player2;
+    private MatchStatus status;
+    private String winner;
+    private Integer score1;
+    private Integer score2;
+    private Integer set2Score1;
+    private Integer set2Score2;
+    private Integer set3Score1;
+    private Integer set3Score2;
+    private Integer tiebreak1Score1;
+    private Integer tiebreak1Score2;
+    private Integer tiebreak2Score1;
+    private Integer tiebreak2Score2;
+    private Integer tiebreak3Score1;
+    private Integer tiebreak3Score2;
+}
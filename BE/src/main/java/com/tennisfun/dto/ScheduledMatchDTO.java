@@ -0,0 +1,16 @@
+package com.tennisfun.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledMatchDTO {
+    private Integer slot; // 1 = spelas nu / nästa på tur
+    private String court;
+    private String player1;
+    private String player2;
+    private Boolean inProgress; // Låg redan på banan i förra planen och är inte rapporterad
+}
@@ -0,0 +1,21 @@
+package com.tennisfun.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimulationDTO {
+    private Long tournamentId;
+    private String stage;       // GROUPS, BRACKET eller KNOCKOUT
+    private String model;       // rating eller winrate
+    private Integer iterations; // Simulerade turneringar hittills
+    private Integer totalIterations;
+    private Boolean completed;
+    private List<PlayerSimulationDTO> players;
+    private Long elapsedMs;
+}
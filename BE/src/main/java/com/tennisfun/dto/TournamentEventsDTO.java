@@ -0,0 +1,18 @@
+package com.tennisfun.dto;
+
+import com.tennisfun.entity.TournamentEvent;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TournamentEventsDTO {
+    private List<TournamentEvent> events;
+    private Long lastSeq;
+    // Loggen har fått en ny ögonblicksbild från tabellerna; läs om tillståndet i stället för att följa händelserna
+    private Boolean resync;
+}
@@ -0,0 +1,19 @@
+package com.tennisfun.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TournamentProgressDTO {
+    private Long tournamentId;
+    private Integer expected;
+    private Integer completed;
+    private Double completion;  // Andel klara matcher, 0-1
+    private List<Long> groupsReadyForPlayoffs;  // Färdigspelade grupper, utom knockout-matcher
+    private List<GroupProgressDTO> groups;
+}
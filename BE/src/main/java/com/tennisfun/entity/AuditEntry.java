@@ -0,0 +1,61 @@
+package com.tennisfun.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.tennisfun.config.JsonTextSerializer;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * En rad i granskningsloggen. Raderna skrivs bara, ändras aldrig, och finns
+ * kvar även när turneringen tas bort. Före- och eftervärden lagras som JSON.
+ */
+@Entity
+@Table(name = "audit_log", indexes = {
+        @Index(name = "idx_audit_log_tournament", columnList = "tenant_id, tournament_id, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tenant_id", nullable = false, length = 64)
+    @JsonIgnore
+    private String tenantId;
+
+    @Column(name = "tournament_id")
+    private Long tournamentId;
+
+    @Column(name = "group_id")
+    private Long groupId;
+
+    @Column(name = "match_id")
+    private Long matchId;
+
+    // REPORT, UPDATE, DELETE, RENAME_PLAYER, RENAME_TOURNAMENT eller PARTICIPANTS
+    @Column(nullable = false, length = 32)
+    private String action;
+
+    @Column(name = "before_value", length = 8000)
+    @JsonSerialize(using = JsonTextSerializer.class)
+    private String beforeValue;
+
+    @Column(name = "after_value", length = 8000)
+    @JsonSerialize(using = JsonTextSerializer.class)
+    private String afterValue;
+
+    // Klientens adress, för att kunna följa upp tvister
+    @Column(length = 64)
+    private String source;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+}
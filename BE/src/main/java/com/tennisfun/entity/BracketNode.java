@@ -0,0 +1,72 @@
+package com.tennisfun.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * En match i slutspelsträdet. Omgång 1 är första slutspelsomgången och
+ * vinnaren går vidare till {@code parentId} på plats {@code parentSlot} (0 = spelare 1).
+ * Matchen spelas i en vanlig {@link TournamentGroup} med två deltagare, som
+ * skapas först när båda spelarna är kända.
+ */
+@Entity
+@Table(name = "bracket_nodes", indexes = {
+        @Index(name = "idx_bracket_nodes_tournament", columnList = "tournament_id"),
+        @Index(name = "idx_bracket_nodes_group", columnList = "group_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BracketNode {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "tournament_id", nullable = false)
+    @JsonIgnore
+    private Tournament tournament;
+
+    @Column(name = "tenant_id", nullable = false, length = 64)
+    @JsonIgnore
+    private String tenantId;
+
+    @Column(name = "round_number", nullable = false)
+    private Integer round;
+
+    @Column(name = "round_position", nullable = false)
+    private Integer position;
+
+    private String player1;
+
+    private String player2;
+
+    private Integer seed1;
+
+    private Integer seed2;
+
+    private String winner;
+
+    // Inga främmande nycklar mot grupper och noder, så att turneringen kan tas bort i valfri ordning
+    @Column(name = "group_id")
+    private Long groupId;
+
+    @Column(name = "parent_id")
+    private Long parentId;
+
+    private Integer parentSlot;
+
+    @Column(nullable = false)
+    private boolean bye;
+
+    @PrePersist
+    protected void onCreate() {
+        if (tournament != null) {
+            tenantId = tournament.getTenantId();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.tennisfun.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Ändringsnotis mellan noder när databasen saknar LISTEN/NOTIFY (H2); rensas efter kort tid
+@Entity
+@Table(name = "change_notifications")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeNotification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String originNode;
+
+    @Column(nullable = false, length = 64)
+    private String tenantId;
+
+    @Column
+    private Long tournamentId;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,51 @@
+package com.tennisfun.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Räknare för hur långt en grupp har kommit. Uppdateras med atomära UPDATE-satser
+ * i samma transaktion som resultatet eller deltagarna ändras.
+ */
+@Entity
+@Table(name = "group_progress", indexes = {
+        @Index(name = "idx_group_progress_tournament", columnList = "tournament_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupProgress {
+
+    @Id
+    @Column(name = "group_id")
+    private Long groupId;
+
+    @Column(name = "tenant_id", nullable = false, length = 64)
+    @JsonIgnore
+    private String tenantId;
+
+    @Column(name = "tournament_id", nullable = false)
+    private Long tournamentId;
+
+    @Column(name = "group_number", nullable = false)
+    private Integer groupNumber;
+
+    @Column(nullable = false)
+    private int participants;
+
+    // Alla möter alla: n * (n - 1) / 2
+    @Column(nullable = false)
+    private int expected;
+
+    @Column(nullable = false)
+    private int played;
+
+    @Column(nullable = false)
+    private int retired;
+
+    @Column(nullable = false)
+    private int walkovers;
+}
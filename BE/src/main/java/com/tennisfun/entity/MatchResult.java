@@ -1,6 +1,7 @@
 package com.tennisfun.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.tennisfun.tenant.TenantContext;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -9,7 +10,9 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "match_results")
+@Table(name = "match_results", indexes = {
+        @Index(name = "idx_match_results_tenant", columnList = "tenant_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,6 +27,16 @@ public class MatchResult {
     @JsonIgnore
     private TournamentGroup group;
 
+    @Column(name = "tenant_id", nullable = false, updatable = false,
+            columnDefinition = "varchar(64) default 'default' not null")
+    @JsonIgnore
+    private String tenantId = TenantContext.DEFAULT_TENANT;
+
+    // Ökas vid varje ändring; en ändring som bygger på en äldre version avvisas
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private Long version;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private MatchStatus status = MatchStatus.PLAYED;
@@ -79,5 +92,8 @@ public class MatchResult {
     @PrePersist
     protected void onCreate() {
         reportedAt = LocalDateTime.now();
+        if (group != null) {
+            tenantId = group.getTenantId();
+        }
     }
 }
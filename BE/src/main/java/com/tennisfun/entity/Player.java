@@ -0,0 +1,37 @@
+package com.tennisfun.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Klubbens spelarregister (importerade spelarlistor)
+@Entity
+@Table(name = "players", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_players_tenant_name", columnNames = {"tenant_id", "name"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Player {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tenant_id", nullable = false, length = 64)
+    private String tenantId;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,41 @@
+package com.tennisfun.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Antal matcher per spelare och dag/månad, för listan över mest aktiva spelare
+@Entity
+@Table(name = "player_activity_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_player_activity_rollups_period",
+                columnNames = {"tenant_id", "period_type", "period_start", "player_name"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlayerActivityRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tenant_id", nullable = false, length = 64)
+    @JsonIgnore
+    private String tenantId;
+
+    @Column(name = "period_type", nullable = false, length = 8)
+    private String periodType;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Column(name = "player_name", nullable = false)
+    private String playerName;
+
+    @Column(nullable = false)
+    private long matches;
+}
@@ -0,0 +1,45 @@
+package com.tennisfun.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Aktuell Elo-rating per spelare och klubb, uppdateras inkrementellt efter varje rapport
+@Entity
+@Table(name = "player_ratings", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_player_ratings_tenant_player", columnNames = {"tenant_id", "player_name"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlayerRating {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tenant_id", nullable = false, length = 64)
+    @JsonIgnore
+    private String tenantId;
+
+    @Column(name = "player_name", nullable = false)
+    private String playerName;
+
+    @Column(nullable = false)
+    private double rating;
+
+    @Column(nullable = false)
+    private int matches;
+
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+}
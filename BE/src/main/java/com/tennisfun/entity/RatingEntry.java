@@ -0,0 +1,36 @@
+package com.tennisfun.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Ratingförändringen som ett matchresultat gav, så att den kan backas exakt vid ändring eller borttagning
+@Entity
+@Table(name = "rating_entries", indexes = {
+        @Index(name = "idx_rating_entries_tenant", columnList = "tenant_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingEntry {
+
+    @Id
+    @Column(name = "match_result_id")
+    private Long matchResultId;
+
+    @Column(name = "tenant_id", nullable = false, length = 64)
+    private String tenantId;
+
+    @Column(nullable = false)
+    private String player1;
+
+    @Column(nullable = false)
+    private String player2;
+
+    @Column(nullable = false)
+    private double delta1;
+
+    @Column(nullable = false)
+    private double delta2;
+}
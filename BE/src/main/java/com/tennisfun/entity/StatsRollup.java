@@ -0,0 +1,58 @@
+package com.tennisfun.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Klubbstatistik för en dag eller en månad. Räknarna ökas och minskas med
+ * atomära UPDATE-satser, så flera noder kan skriva samtidigt.
+ * Matcher räknas på rapportdatum, turneringar på turneringsdatum när de arkiveras.
+ */
+@Entity
+@Table(name = "stats_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_stats_rollups_period",
+                columnNames = {"tenant_id", "period_type", "period_start"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatsRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tenant_id", nullable = false, length = 64)
+    @JsonIgnore
+    private String tenantId;
+
+    @Column(name = "period_type", nullable = false, length = 8)
+    private String periodType; // DAY eller MONTH
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Column(nullable = false)
+    private long tournaments;
+
+    @Column(nullable = false)
+    private long matches;
+
+    // Games och antal matcher de räknas över (W.O. ingår inte)
+    @Column(nullable = false)
+    private long games;
+
+    @Column(nullable = false)
+    private long gameMatches;
+
+    @Column(nullable = false)
+    private long walkovers;
+
+    @Column(nullable = false)
+    private long retired;
+}
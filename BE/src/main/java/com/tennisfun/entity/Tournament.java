@@ -1,9 +1,12 @@
 package com.tennisfun.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.tennisfun.tenant.TenantContext;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.OptimisticLock;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -11,7 +14,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "tournaments")
+@Table(name = "tournaments", indexes = {
+        @Index(name = "idx_tournaments_tenant_archived_date", columnList = "tenant_id, archived, date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,6 +25,17 @@ public class Tournament {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+
+    // Klubb som äger turneringen; grupper och matcher ärver värdet
+    @Column(name = "tenant_id", nullable = false, updatable = false,
+            columnDefinition = "varchar(64) default 'default' not null")
+    @JsonIgnore
+    private String tenantId = TenantContext.DEFAULT_TENANT;
+
+    // Ökas vid varje ändring; en ändring som bygger på en äldre version avvisas
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private Long version;
     
     @Column(nullable = false)
     private String name;
@@ -43,7 +59,14 @@ public class Tournament {
     private Boolean archived = false;
     
     @OneToMany(mappedBy = "tournament", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OptimisticLock(excluded = true)
     private List<TournamentGroup> groups = new ArrayList<>();
+
+    // Slutspelsträdet; serialiseras inte med turneringen utan hämtas via /bracket
+    @OneToMany(mappedBy = "tournament", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OptimisticLock(excluded = true)
+    @JsonIgnore
+    private List<BracketNode> bracketNodes = new ArrayList<>();
     
     @PrePersist
     protected void onCreate() {
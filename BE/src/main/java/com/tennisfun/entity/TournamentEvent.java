@@ -0,0 +1,58 @@
+package com.tennisfun.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.tennisfun.config.JsonTextSerializer;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * En händelse i en turnerings händelselogg. Raderna läggs bara till; {@code seq}
+ * är löpande per turnering utan luckor och följer commit-ordningen, så en klient
+ * kan fråga efter allt efter det senaste numret den har sett.
+ */
+@Entity
+@Table(name = "tournament_events", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_tournament_events_seq", columnNames = {"tournament_id", "seq"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TournamentEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @JsonIgnore
+    private Long id;
+
+    @Column(name = "tenant_id", nullable = false, length = 64)
+    @JsonIgnore
+    private String tenantId;
+
+    @Column(name = "tournament_id", nullable = false)
+    private Long tournamentId;
+
+    @Column(nullable = false)
+    private Long seq;
+
+    // MATCH_REPORTED, MATCH_CORRECTED, MATCH_REMOVED, PARTICIPANTS_CHANGED, PLAYER_RENAMED, ROUND_CREATED eller GROUP_REMOVED
+    @Column(nullable = false, length = 32)
+    private String type;
+
+    @Column(name = "group_id")
+    private Long groupId;
+
+    @Column(name = "match_id")
+    private Long matchId;
+
+    @Column(columnDefinition = "text")
+    @JsonSerialize(using = JsonTextSerializer.class)
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,42 @@
+package com.tennisfun.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Senaste sekvensnummer och ögonblicksbild för en turnerings händelselogg.
+ * Raden låses när en händelse läggs till, så händelser för samma turnering
+ * numreras i den ordning transaktionerna committas. {@code stale} sätts när
+ * data har ändrats utan händelser (import, massåtgärder); nästa händelse tar
+ * då en ny ögonblicksbild från tabellerna, och dess nummer sparas i
+ * {@code rebaseSeq} så att klienter som följt loggen från före den får resync.
+ */
+@Entity
+@Table(name = "tournament_event_heads")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TournamentEventHead {
+
+    @Id
+    @Column(name = "tournament_id")
+    private Long tournamentId;
+
+    @Column(name = "tenant_id", nullable = false, length = 64)
+    private String tenantId;
+
+    @Column(name = "last_seq", nullable = false)
+    private Long lastSeq;
+
+    @Column(name = "snapshot_seq", nullable = false)
+    private Long snapshotSeq;
+
+    // Null för huvuden från före kolumnen; räknas som 0
+    @Column(name = "rebase_seq")
+    private Long rebaseSeq;
+
+    @Column(nullable = false)
+    private Boolean stale;
+}
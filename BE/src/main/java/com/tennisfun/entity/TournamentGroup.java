@@ -1,16 +1,22 @@
 package com.tennisfun.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.tennisfun.tenant.TenantContext;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.OptimisticLock;
+import org.hibernate.type.SqlTypes;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "tournament_groups")
+@Table(name = "tournament_groups", indexes = {
+        @Index(name = "idx_tournament_groups_tenant", columnList = "tenant_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,13 +30,23 @@ public class TournamentGroup {
     @JoinColumn(name = "tournament_id", nullable = false)
     @JsonIgnore  // Förhindrar cirkulär referens vid serialisering
     private Tournament tournament;
+
+    @Column(name = "tenant_id", nullable = false, updatable = false,
+            columnDefinition = "varchar(64) default 'default' not null")
+    @JsonIgnore
+    private String tenantId = TenantContext.DEFAULT_TENANT;
+
+    // Ökas vid varje ändring; en ändring som bygger på en äldre version avvisas
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private Long version;
     
     @Column(nullable = false)
     private Integer groupNumber;
     
-    @ElementCollection
-    @CollectionTable(name = "group_participants", joinColumns = @JoinColumn(name = "group_id"))
-    @Column(name = "participant_name")
+    // Lagras som en JSON-kolumn (jsonb på PostgreSQL) så att gruppen läses och uppdateras som en rad
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "participants")
     private List<String> participants = new ArrayList<>();
     
     @Column
@@ -39,6 +55,15 @@ public class TournamentGroup {
     @Column
     private String court2;
     
+    // Matcherna har egna versioner; nya resultat ska inte krocka med ändringar av gruppen
     @OneToMany(mappedBy = "group", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OptimisticLock(excluded = true)
     private List<MatchResult> matchResults = new ArrayList<>();
+
+    @PrePersist
+    protected void onCreate() {
+        if (tournament != null) {
+            tenantId = tournament.getTenantId();
+        }
+    }
 }
@@ -0,0 +1,41 @@
+package com.tennisfun.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Senaste ögonblicksbilden av en turnerings tillstånd enligt händelseloggen:
+ * grupper och matcher efter händelse {@code seq}, som JSON. {@code rebased}
+ * betyder att bilden togs från tabellerna i stället för att räknas fram ur
+ * loggen, och att klienter som följer loggen behöver läsa om tillståndet.
+ */
+@Entity
+@Table(name = "tournament_log_snapshots")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TournamentLogSnapshot {
+
+    @Id
+    @Column(name = "tournament_id")
+    private Long tournamentId;
+
+    @Column(name = "tenant_id", nullable = false, length = 64)
+    private String tenantId;
+
+    @Column(nullable = false)
+    private Long seq;
+
+    @Column(nullable = false)
+    private Boolean rebased;
+
+    @Column(columnDefinition = "text", nullable = false)
+    private String state;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,14 @@
+package com.tennisfun.event;
+
+/**
+ * Ändring som ska in i granskningsloggen men som inte är ett enskilt
+ * matchresultat, t.ex. namnbyten och ändrade deltagare. {@code before} och
+ * {@code after} serialiseras som JSON när posten skrivs.
+ */
+public record AuditEvent(String tenantId, Long tournamentId, Long groupId, String action, Object before, Object after) {
+
+    public static final String RENAME_PLAYER = "RENAME_PLAYER";
+    public static final String RENAME_TOURNAMENT = "RENAME_TOURNAMENT";
+    public static final String PARTICIPANTS = "PARTICIPANTS";
+    public static final String DELETE_TOURNAMENT = "DELETE_TOURNAMENT";
+}
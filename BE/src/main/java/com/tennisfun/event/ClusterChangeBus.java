@@ -0,0 +1,233 @@
+package com.tennisfun.event;
+
+import com.tennisfun.entity.ChangeNotification;
+import com.tennisfun.repository.ChangeNotificationRepository;
+import com.tennisfun.repository.TournamentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sprider {@link TournamentChangedEvent} mellan backend-noder via databasen.
+ * <p>
+ * På PostgreSQL används LISTEN/NOTIFY på en egen anslutning, så andra noder får
+ * ändringen inom millisekunder. På andra databaser (H2) skrivs en rad i
+ * {@code change_notifications} som alla noder pollar. Mottagna ändringar
+ * publiceras lokalt igen med {@code remote = true}, så cachar och strömmar
+ * reagerar likadant oavsett vilken nod som gjorde ändringen.
+ * <p>
+ * Id:n delas ut när raden skrivs men blir synliga när transaktionen committas,
+ * så en rad med lägre id kan dyka upp efter en högre. Pollningen läser därför om
+ * de senaste {@code poll-overlap} id:na och hoppar över rader den redan sett.
+ * Notiser som skickas medan LISTEN-anslutningen är nere går förlorade, så efter
+ * en återanslutning publiceras en massändring för varje klubb.
+ * <p>
+ * Läge styrs av {@code tennisfun.bus.mode}: auto, postgres, polling eller off.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ClusterChangeBus {
+
+    private static final String CHANNEL = "tennisfun_changes";
+
+    private enum Mode { OFF, POSTGRES, POLLING }
+
+    private final DataSourceProperties dataSourceProperties;
+    private final JdbcTemplate jdbcTemplate;
+    private final ChangeNotificationRepository notificationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TournamentRepository tournamentRepository;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "change-bus");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${tennisfun.bus.mode:auto}")
+    private String configuredMode;
+
+    @Value("${tennisfun.bus.poll-interval-ms:500}")
+    private long pollIntervalMs;
+
+    @Value("${tennisfun.bus.poll-overlap:100}")
+    private long pollOverlap;
+
+    @Value("${tennisfun.bus.retention-seconds:60}")
+    private long retentionSeconds;
+
+    private volatile Mode mode = Mode.OFF;
+    private volatile boolean running;
+    private long lastSeenId;
+    // Id:n inom överlappet som redan hanterats
+    private final NavigableSet<Long> seenIds = new TreeSet<>();
+    private long pollCount;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        mode = resolveMode();
+        running = true;
+        switch (mode) {
+            case POSTGRES -> {
+                Thread listener = new Thread(this::listenLoop, "change-bus-listener");
+                listener.setDaemon(true);
+                listener.start();
+            }
+            case POLLING -> {
+                lastSeenId = notificationRepository.findMaxId();
+                executor.scheduleWithFixedDelay(this::poll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+            }
+            case OFF -> {
+                return;
+            }
+        }
+        log.info("Change bus started in {} mode as node {}", mode, nodeId);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        executor.shutdownNow();
+    }
+
+    // Skickas efter commit och utanför anropstråden så att rapporteringen inte väntar på bussen
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLocalChange(TournamentChangedEvent event) {
+        if (event.remote() || mode == Mode.OFF) {
+            return;
+        }
+        executor.execute(() -> publish(event));
+    }
+
+    private void publish(TournamentChangedEvent event) {
+        try {
+            if (mode == Mode.POSTGRES) {
+                String payload = nodeId + "|" + event.tenantId() + "|"
+                        + (event.tournamentId() != null ? event.tournamentId() : "");
+                jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, CHANNEL, payload);
+            } else {
+                notificationRepository.save(
+                        new ChangeNotification(null, nodeId, event.tenantId(), event.tournamentId(), null));
+            }
+        } catch (Exception e) {
+            log.warn("Could not publish change for tournament {}: {}", event.tournamentId(), e.getMessage());
+        }
+    }
+
+    private void listenLoop() {
+        boolean reconnect = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+                 Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + CHANNEL);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                if (reconnect) {
+                    invalidateAll();
+                }
+                reconnect = true;
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(500);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                reconnect = true;
+                log.warn("Change bus listener lost connection, reconnecting: {}", e.getMessage());
+                sleepQuietly(2000);
+            }
+        }
+    }
+
+    // Ändringar från andra noder kan ha missats medan anslutningen var nere
+    private void invalidateAll() {
+        List<String> tenantIds = tournamentRepository.findTenantIds();
+        log.info("Change bus listener reconnected, invalidating {} tenants", tenantIds.size());
+        tenantIds.forEach(tenantId -> dispatch(tenantId, null));
+    }
+
+    private void receive(String payload) {
+        String[] parts = payload.split("\\|", -1);
+        if (parts.length != 3 || parts[0].equals(nodeId)) {
+            return;
+        }
+        Long tournamentId = parts[2].isEmpty() ? null : Long.valueOf(parts[2]);
+        dispatch(parts[1], tournamentId);
+    }
+
+    private void poll() {
+        try {
+            long floor = Math.max(0, lastSeenId - pollOverlap);
+            seenIds.headSet(floor, true).clear();
+            List<ChangeNotification> notifications =
+                    notificationRepository.findTop500ByIdGreaterThanOrderByIdAsc(floor);
+            for (ChangeNotification notification : notifications) {
+                if (!seenIds.add(notification.getId())) {
+                    continue;
+                }
+                lastSeenId = Math.max(lastSeenId, notification.getId());
+                if (!nodeId.equals(notification.getOriginNode())) {
+                    dispatch(notification.getTenantId(), notification.getTournamentId());
+                }
+            }
+            if (++pollCount % 120 == 0) {
+                notificationRepository.deleteOlderThan(LocalDateTime.now().minusSeconds(retentionSeconds));
+            }
+        } catch (Exception e) {
+            log.warn("Change bus poll failed: {}", e.getMessage());
+        }
+    }
+
+    private void dispatch(String tenantId, Long tournamentId) {
+        log.debug("Remote change for tenant {} tournament {}", tenantId, tournamentId);
+        eventPublisher.publishEvent(new TournamentChangedEvent(tenantId, tournamentId, true));
+    }
+
+    private Mode resolveMode() {
+        return switch (configuredMode.toLowerCase()) {
+            case "off" -> Mode.OFF;
+            case "postgres" -> Mode.POSTGRES;
+            case "polling" -> Mode.POLLING;
+            default -> {
+                String url = dataSourceProperties.determineUrl();
+                yield url != null && url.startsWith("jdbc:postgresql:") ? Mode.POSTGRES : Mode.POLLING;
+            }
+        };
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
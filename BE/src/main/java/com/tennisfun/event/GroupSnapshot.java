@@ -0,0 +1,17 @@
+package com.tennisfun.event;
+
+import com.tennisfun.entity.TournamentGroup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Oföränderlig kopia av en grupp: id, nummer och deltagare.
+ */
+public record GroupSnapshot(Long id, Integer groupNumber, List<String> participants) {
+
+    public static GroupSnapshot of(TournamentGroup group) {
+        return new GroupSnapshot(group.getId(), group.getGroupNumber(),
+                group.getParticipants() != null ? List.copyOf(new ArrayList<>(group.getParticipants())) : List.of());
+    }
+}
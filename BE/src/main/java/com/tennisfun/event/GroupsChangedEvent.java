@@ -0,0 +1,12 @@
+package com.tennisfun.event;
+
+import java.util.List;
+
+/**
+ * Grupper som har skapats, fått nya deltagare eller tagits bort av en ny
+ * omgång eller av slutspelsträdet. Publiceras i samma transaktion som ändringen.
+ */
+public record GroupsChangedEvent(String tenantId, Long tournamentId, Type type, List<GroupSnapshot> groups) {
+
+    public enum Type { CREATED, PARTICIPANTS, REMOVED }
+}
@@ -0,0 +1,35 @@
+package com.tennisfun.event;
+
+/**
+ * Publiceras för varje rapporterat, ändrat eller borttaget matchresultat
+ * (även när ett namnbyte eller en borttagen turnering påverkar resultatet).
+ * {@code before} är null för nya resultat och {@code after} är null för borttagna.
+ */
+public record MatchResultChangedEvent(String tenantId, Long tournamentId, MatchSnapshot before, MatchSnapshot after) {
+
+    public enum Type { REPORTED, UPDATED, DELETED }
+
+    public static MatchResultChangedEvent reported(String tenantId, Long tournamentId, MatchSnapshot after) {
+        return new MatchResultChangedEvent(tenantId, tournamentId, null, after);
+    }
+
+    public static MatchResultChangedEvent updated(String tenantId, Long tournamentId,
+                                                  MatchSnapshot before, MatchSnapshot after) {
+        return new MatchResultChangedEvent(tenantId, tournamentId, before, after);
+    }
+
+    public static MatchResultChangedEvent deleted(String tenantId, Long tournamentId, MatchSnapshot before) {
+        return new MatchResultChangedEvent(tenantId, tournamentId, before, null);
+    }
+
+    public Type type() {
+        if (before == null) {
+            return Type.REPORTED;
+        }
+        return after == null ? Type.DELETED : Type.UPDATED;
+    }
+
+    public Long matchId() {
+        return after != null ? after.id() : before.id();
+    }
+}
@@ -0,0 +1,100 @@
+package com.tennisfun.event;
+
+import com.tennisfun.entity.MatchResult;
+import com.tennisfun.entity.MatchStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Oföränderlig kopia av ett matchresultat vid en viss tidpunkt, så att lyssnare
+ * kan se värdet före och efter en ändring även om entiteten har ändrats eller
+ * tagits bort.
+ * <p>
+ * {@code thirdSetTiebreak} anger att set 3 är en avgörande tie-break
+ * (forst-till-tva-tb7/super) och därför inte räknas som games.
+ */
+public record MatchSnapshot(
+        Long id,
+        Long groupId,
+        MatchStatus status,
+        String player1,
+        String player2,
+        String winner,
+        Integer score1,
+        Integer score2,
+        Integer set2Score1,
+        Integer set2Score2,
+        Integer set3Score1,
+        Integer set3Score2,
+        Integer tiebreak1Score1,
+        Integer tiebreak1Score2,
+        Integer tiebreak2Score1,
+        Integer tiebreak2Score2,
+        Integer tiebreak3Score1,
+        Integer tiebreak3Score2,
+        LocalDateTime reportedAt,
+        boolean thirdSetTiebreak) {
+
+    // Används av JPQL-projektioner som läser setsPerMatch från turneringen
+    public MatchSnapshot(Long id, Long groupId, MatchStatus status, String player1, String player2, String winner,
+                         Integer score1, Integer score2, Integer set2Score1, Integer set2Score2,
+                         Integer set3Score1, Integer set3Score2, Integer tiebreak1Score1, Integer tiebreak1Score2,
+                         Integer tiebreak2Score1, Integer tiebreak2Score2, Integer tiebreak3Score1,
+                         Integer tiebreak3Score2, LocalDateTime reportedAt, String setsPerMatch) {
+        this(id, groupId, status, player1, player2, winner, score1, score2, set2Score1, set2Score2,
+                set3Score1, set3Score2, tiebreak1Score1, tiebreak1Score2, tiebreak2Score1, tiebreak2Score2,
+                tiebreak3Score1, tiebreak3Score2, reportedAt, isTiebreakThirdSet(setsPerMatch));
+    }
+
+    public static MatchSnapshot of(MatchResult result, String setsPerMatch) {
+        return new MatchSnapshot(result.getId(), result.getGroup() != null ? result.getGroup().getId() : null,
+                result.getStatus(), result.getPlayer1(), result.getPlayer2(), result.getWinner(),
+                result.getScore1(), result.getScore2(), result.getSet2Score1(), result.getSet2Score2(),
+                result.getSet3Score1(), result.getSet3Score2(), result.getTiebreak1Score1(),
+                result.getTiebreak1Score2(), result.getTiebreak2Score1(), result.getTiebreak2Score2(),
+                result.getTiebreak3Score1(), result.getTiebreak3Score2(), result.getReportedAt(),
+                isTiebreakThirdSet(setsPerMatch));
+    }
+
+    public static boolean isTiebreakThirdSet(String setsPerMatch) {
+        return "forst-till-tva-tb7".equals(setsPerMatch) || "forst-till-tva-super".equals(setsPerMatch);
+    }
+
+    public boolean involves(String player) {
+        return player.equals(player1) || player.equals(player2);
+    }
+
+    // Vunna games för spelare 1 (true) eller spelare 2 (false), tie-break-set 3 exkluderat
+    public int games(boolean forPlayer1) {
+        int total = pick(score1, score2, forPlayer1) + pick(set2Score1, set2Score2, forPlayer1);
+        if (!thirdSetTiebreak) {
+            total += pick(set3Score1, set3Score2, forPlayer1);
+        }
+        return total;
+    }
+
+    // Vunna set (tie-break-set räknas som ett set); W.O. ger inga set
+    public int sets(boolean forPlayer1) {
+        if (status == MatchStatus.WALKOVER) {
+            return 0;
+        }
+        return setWon(score1, score2, forPlayer1) + setWon(set2Score1, set2Score2, forPlayer1)
+                + setWon(set3Score1, set3Score2, forPlayer1);
+    }
+
+    private static int pick(Integer s1, Integer s2, boolean forPlayer1) {
+        if (s1 == null || s2 == null) {
+            return 0;
+        }
+        return forPlayer1 ? s1 : s2;
+    }
+
+    private static int setWon(Integer s1, Integer s2, boolean forPlayer1) {
+        if (s1 == null || s2 == null) {
+            return 0;
+        }
+        int mine = forPlayer1 ? s1 : s2;
+        int theirs = forPlayer1 ? s2 : s1;
+        return mine > theirs ? 1 : 0;
+    }
+}
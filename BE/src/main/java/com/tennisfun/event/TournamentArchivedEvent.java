@@ -0,0 +1,10 @@
+package com.tennisfun.event;
+
+import java.time.LocalDate;
+
+/**
+ * Publiceras när en turnering arkiveras ({@code archived = true}) och när en
+ * arkiverad turnering tas bort ({@code archived = false}).
+ */
+public record TournamentArchivedEvent(String tenantId, Long tournamentId, LocalDate date, boolean archived) {
+}
@@ -0,0 +1,13 @@
+package com.tennisfun.event;
+
+/**
+ * Publiceras när en turnering (eller något under den) har ändrats.
+ * {@code tournamentId == null} betyder att flera turneringar i klubben kan ha ändrats.
+ * {@code remote} är satt när ändringen gjordes på en annan nod och kom via {@link ClusterChangeBus}.
+ */
+public record TournamentChangedEvent(String tenantId, Long tournamentId, boolean remote) {
+
+    public TournamentChangedEvent(String tenantId, Long tournamentId) {
+        this(tenantId, tournamentId, false);
+    }
+}
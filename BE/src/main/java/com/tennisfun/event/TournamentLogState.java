@@ -0,0 +1,10 @@
+package com.tennisfun.event;
+
+import java.util.List;
+
+/**
+ * En turnerings grupper och matcher efter händelse {@code seq} i händelseloggen.
+ */
+public record TournamentLogState(Long tournamentId, long seq, List<GroupSnapshot> groups,
+                                 List<MatchSnapshot> matches) {
+}
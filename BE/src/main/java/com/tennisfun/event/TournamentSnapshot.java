@@ -0,0 +1,10 @@
+package com.tennisfun.event;
+
+import java.time.LocalDate;
+
+/**
+ * Det som behövs om en turnering vid massåtgärder, läst som projektion så att
+ * inga entiteter med grupper och matcher laddas.
+ */
+public record TournamentSnapshot(Long id, String name, LocalDate date, Boolean archived) {
+}
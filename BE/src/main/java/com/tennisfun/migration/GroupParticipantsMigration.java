@@ -0,0 +1,138 @@
+package com.tennisfun.migration;
+
+import com.tennisfun.entity.TournamentGroup;
+import com.tennisfun.repository.TournamentGroupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Flyttar deltagarlistor från den gamla tabellen {@code group_participants}
+ * (en rad per deltagare) till JSON-kolumnen {@code tournament_groups.participants}.
+ * <p>
+ * Körs vid uppstart när alla bönor har skapats men innan webbservern tar emot
+ * anrop, så att ingen läser en grupp vars lista fortfarande är NULL. Den är
+ * idempotent: endast grupper där den nya kolumnen fortfarande är NULL
+ * migreras. De gamla raderna för en omgång grupper tas bort i
+ * samma transaktion som listorna skrivs, eftersom tabellens främmande nyckel mot
+ * {@code tournament_groups} annars hindrar att grupperna raderas. Rader kvar från
+ * tidigare körningar, för grupper som redan har en lista, tas bort vid start.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GroupParticipantsMigration implements SmartInitializingSingleton {
+
+    private static final String LEGACY_TABLE = "group_participants";
+    private static final int CHUNK_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TournamentGroupRepository groupRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${tennisfun.migration.group-participants.enabled:true}")
+    private boolean enabled;
+
+    private volatile Boolean legacyTable;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled || !hasLegacyTable()) {
+            return;
+        }
+
+        int leftovers = jdbcTemplate.update("DELETE FROM " + LEGACY_TABLE + " WHERE group_id IN " +
+                "(SELECT id FROM tournament_groups WHERE participants IS NOT NULL)");
+        if (leftovers > 0) {
+            log.info("Removed {} already migrated rows from {}", leftovers, LEGACY_TABLE);
+        }
+
+        List<Long> pendingIds = jdbcTemplate.queryForList(
+                "SELECT id FROM tournament_groups WHERE participants IS NULL ORDER BY id", Long.class);
+        if (pendingIds.isEmpty()) {
+            return;
+        }
+
+        log.info("Migrating participants for {} groups from {}", pendingIds.size(), LEGACY_TABLE);
+        for (int from = 0; from < pendingIds.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = pendingIds.subList(from, Math.min(from + CHUNK_SIZE, pendingIds.size()));
+            migrateChunk(chunk);
+        }
+        log.info("Participant migration finished");
+    }
+
+    /**
+     * Tar bort turneringarnas rader i den gamla tabellen, om den finns kvar, så att
+     * grupperna kan raderas. Körs i anroparens transaktion.
+     */
+    public void deleteLegacyParticipants(String tenantId, Collection<Long> tournamentIds) {
+        if (tournamentIds.isEmpty() || !hasLegacyTable()) {
+            return;
+        }
+        namedJdbcTemplate.update("DELETE FROM " + LEGACY_TABLE + " WHERE group_id IN " +
+                        "(SELECT id FROM tournament_groups WHERE tenant_id = :tenantId AND tournament_id IN (:ids))",
+                new MapSqlParameterSource("tenantId", tenantId).addValue("ids", tournamentIds));
+    }
+
+    private void migrateChunk(List<Long> groupIds) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Den gamla tabellen saknar både primärnyckel och ordningskolumn, så ordningen inom en
+            // grupp är odefinierad. Den gamla mappningen läste också utan ORDER BY och fick samma
+            // ordning som databasen returnerar här (i praktiken oftast insättningsordningen).
+            Map<Long, List<String>> participantsByGroup = new LinkedHashMap<>();
+            groupIds.forEach(id -> participantsByGroup.put(id, new ArrayList<>()));
+            MapSqlParameterSource ids = new MapSqlParameterSource("ids", groupIds);
+            namedJdbcTemplate.query(
+                    "SELECT group_id, participant_name FROM " + LEGACY_TABLE + " WHERE group_id IN (:ids)", ids,
+                    rs -> {
+                        participantsByGroup.get(rs.getLong(1)).add(rs.getString(2));
+                    });
+
+            List<TournamentGroup> groups = groupRepository.findAllById(groupIds);
+            for (TournamentGroup group : groups) {
+                group.setParticipants(participantsByGroup.get(group.getId()));
+            }
+            groupRepository.saveAllAndFlush(groups);
+            namedJdbcTemplate.update("DELETE FROM " + LEGACY_TABLE + " WHERE group_id IN (:ids)", ids);
+        });
+    }
+
+    private boolean hasLegacyTable() {
+        Boolean exists = legacyTable;
+        if (exists == null) {
+            exists = legacyTableExists();
+            legacyTable = exists;
+        }
+        return exists;
+    }
+
+    private boolean legacyTableExists() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((Connection connection) -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String name : new String[]{LEGACY_TABLE, LEGACY_TABLE.toUpperCase()}) {
+                try (ResultSet tables = metaData.getTables(null, null, name, new String[]{"TABLE"})) {
+                    if (tables.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+}
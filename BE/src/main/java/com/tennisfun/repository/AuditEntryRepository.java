@@ -0,0 +1,16 @@
+package com.tennisfun.repository;
+
+import com.tennisfun.entity.AuditEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AuditEntryRepository extends JpaRepository<AuditEntry, Long> {
+    List<AuditEntry> findByTenantIdAndTournamentIdOrderByIdDesc(String tenantId, Long tournamentId, Pageable pageable);
+
+    List<AuditEntry> findByTenantIdAndTournamentIdAndIdLessThanOrderByIdDesc(
+            String tenantId, Long tournamentId, Long id, Pageable pageable);
+}
@@ -0,0 +1,24 @@
+package com.tennisfun.repository;
+
+import com.tennisfun.entity.BracketNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BracketNodeRepository extends JpaRepository<BracketNode, Long> {
+    List<BracketNode> findByTournamentIdOrderByRoundAscPositionAsc(Long tournamentId);
+    Optional<BracketNode> findByGroupId(Long groupId);
+    boolean existsByTournamentId(Long tournamentId);
+    boolean existsByGroupId(Long groupId);
+
+    @Modifying
+    @Query("DELETE FROM BracketNode n WHERE n.tenantId = :tenantId AND n.tournament.id IN :tournamentIds")
+    int deleteByTournamentIds(@Param("tenantId") String tenantId, @Param("tournamentIds") Collection<Long> tournamentIds);
+}
@@ -0,0 +1,25 @@
+package com.tennisfun.repository;
+
+import com.tennisfun.entity.ChangeNotification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ChangeNotificationRepository extends JpaRepository<ChangeNotification, Long> {
+    List<ChangeNotification> findTop500ByIdGreaterThanOrderByIdAsc(Long id);
+
+    @Query("SELECT COALESCE(MAX(n.id), 0) FROM ChangeNotification n")
+    Long findMaxId();
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ChangeNotification n WHERE n.createdAt < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
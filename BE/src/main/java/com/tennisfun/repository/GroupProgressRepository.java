@@ -0,0 +1,20 @@
+package com.tennisfun.repository;
+
+import com.tennisfun.entity.GroupProgress;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface GroupProgressRepository extends JpaRepository<GroupProgress, Long> {
+    List<GroupProgress> findByTournamentIdAndTenantIdOrderByGroupNumber(Long tournamentId, String tenantId);
+
+    @Modifying
+    @Query("DELETE FROM GroupProgress p WHERE p.tenantId = :tenantId AND p.tournamentId IN :tournamentIds")
+    int deleteByTournamentIds(@Param("tenantId") String tenantId, @Param("tournamentIds") Collection<Long> tournamentIds);
+}
@@ -1,17 +1,27 @@
 package com.tennisfun.repository;
 
+import com.tennisfun.dto.ResultTransferRow;
 import com.tennisfun.entity.MatchResult;
+import com.tennisfun.event.MatchSnapshot;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface MatchResultRepository extends JpaRepository<MatchResult, Long> {
     List<MatchResult> findByGroupId(Long groupId);
+    List<MatchResult> findByGroupIdAndTenantId(Long groupId, String tenantId);
+    Optional<MatchResult> findByIdAndTenantId(Long id, String tenantId);
     
     @Query("SELECT m FROM MatchResult m WHERE m.group.id = :groupId AND " +
            "((m.player1 = :player1 AND m.player2 = :player2) OR " +
@@ -19,4 +29,59 @@ public interface MatchResultRepository extends JpaRepository<MatchResult, Long>
     Optional<MatchResult> findExistingMatch(@Param("groupId") Long groupId, 
                                             @Param("player1") String player1, 
                                             @Param("player2") String player2);
+
+    // Platt projektion för export; läses med cursor så att hela historiken aldrig ligger i minnet
+    @QueryHints(@jakarta.persistence.QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.tennisfun.dto.ResultTransferRow(t.name, t.date, t.gamesPerSet, t.setsPerMatch, g.groupNumber, m.player1, m.player2, " +
+           "m.status, m.winner, m.score1, m.score2, m.set2Score1, m.set2Score2, m.set3Score1, m.set3Score2, " +
+           "m.tiebreak1Score1, m.tiebreak1Score2, m.tiebreak2Score1, m.tiebreak2Score2, " +
+           "m.tiebreak3Score1, m.tiebreak3Score2) " +
+           "FROM MatchResult m JOIN m.group g JOIN g.tournament t WHERE m.tenantId = :tenantId " +
+           "ORDER BY t.date, t.id, g.groupNumber, m.id")
+    Stream<ResultTransferRow> streamForExport(@Param("tenantId") String tenantId);
+
+    String SNAPSHOT_SELECT = "SELECT new com.tennisfun.event.MatchSnapshot(m.id, g.id, m.status, m.player1, m.player2, " +
+           "m.winner, m.score1, m.score2, m.set2Score1, m.set2Score2, m.set3Score1, m.set3Score2, " +
+           "m.tiebreak1Score1, m.tiebreak1Score2, m.tiebreak2Score1, m.tiebreak2Score2, " +
+           "m.tiebreak3Score1, m.tiebreak3Score2, m.reportedAt, t.setsPerMatch) " +
+           "FROM MatchResult m JOIN m.group g JOIN g.tournament t ";
+
+    @Query(SNAPSHOT_SELECT + "WHERE t.id = :tournamentId")
+    List<MatchSnapshot> findSnapshotsByTournamentId(@Param("tournamentId") Long tournamentId);
+
+    // Hela historiken i rapporteringsordning, för omräkning av ratingar
+    @QueryHints(@jakarta.persistence.QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(SNAPSHOT_SELECT + "WHERE m.tenantId = :tenantId ORDER BY m.reportedAt, m.id")
+    Stream<MatchSnapshot> streamSnapshots(@Param("tenantId") String tenantId);
+
+    // Spelade matcher och vinster per spelare (W.O. räknas inte), som spelare 1 respektive spelare 2
+    @Query("SELECT m.player1, COUNT(m), SUM(CASE WHEN m.winner = m.player1 THEN 1 ELSE 0 END) FROM MatchResult m " +
+           "WHERE m.tenantId = :tenantId AND m.status <> com.tennisfun.entity.MatchStatus.WALKOVER " +
+           "AND m.winner IS NOT NULL AND m.player1 IN :players GROUP BY m.player1")
+    List<Object[]> countWinsAsPlayer1(@Param("tenantId") String tenantId, @Param("players") Collection<String> players);
+
+    @Query("SELECT m.player2, COUNT(m), SUM(CASE WHEN m.winner = m.player2 THEN 1 ELSE 0 END) FROM MatchResult m " +
+           "WHERE m.tenantId = :tenantId AND m.status <> com.tennisfun.entity.MatchStatus.WALKOVER " +
+           "AND m.winner IS NOT NULL AND m.player2 IN :players GROUP BY m.player2")
+    List<Object[]> countWinsAsPlayer2(@Param("tenantId") String tenantId, @Param("players") Collection<String> players);
+
+    // Antal matcher per grupp och status, för turneringens framstegsräknare
+    @Query("SELECT g.id, m.status, COUNT(m) FROM MatchResult m JOIN m.group g " +
+           "WHERE g.tournament.id = :tournamentId GROUP BY g.id, m.status")
+    List<Object[]> countByGroupAndStatus(@Param("tournamentId") Long tournamentId);
+
+    // Antal matcher per spelarnamn, som spelare 1 respektive spelare 2
+    @Query("SELECT m.player1, COUNT(m) FROM MatchResult m WHERE m.tenantId = :tenantId GROUP BY m.player1")
+    List<Object[]> countMatchesAsPlayer1(@Param("tenantId") String tenantId);
+
+    @Query("SELECT m.player2, COUNT(m) FROM MatchResult m WHERE m.tenantId = :tenantId GROUP BY m.player2")
+    List<Object[]> countMatchesAsPlayer2(@Param("tenantId") String tenantId);
+
+    @Query("SELECT DISTINCT m.tenantId FROM MatchResult m")
+    List<String> findTenantIds();
+
+    @Modifying
+    @Query("DELETE FROM MatchResult m WHERE m.tenantId = :tenantId AND m.group.id IN " +
+           "(SELECT g.id FROM TournamentGroup g WHERE g.tournament.id IN :tournamentIds)")
+    int deleteByTournamentIds(@Param("tenantId") String tenantId, @Param("tournamentIds") Collection<Long> tournamentIds);
 }
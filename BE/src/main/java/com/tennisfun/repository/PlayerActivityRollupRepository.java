@@ -0,0 +1,23 @@
+package com.tennisfun.repository;
+
+import com.tennisfun.dto.PlayerActivityDTO;
+import com.tennisfun.entity.PlayerActivityRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface PlayerActivityRollupRepository extends JpaRepository<PlayerActivityRollup, Long> {
+
+    @Query("SELECT new com.tennisfun.dto.PlayerActivityDTO(a.playerName, SUM(a.matches)) FROM PlayerActivityRollup a " +
+           "WHERE a.tenantId = :tenantId AND a.periodType = :periodType AND a.periodStart BETWEEN :from AND :to " +
+           "GROUP BY a.playerName ORDER BY SUM(a.matches) DESC, a.playerName")
+    List<PlayerActivityDTO> findMostActive(@Param("tenantId") String tenantId, @Param("periodType") String periodType,
+                                           @Param("from") LocalDate from, @Param("to") LocalDate to,
+                                           Pageable pageable);
+}
@@ -0,0 +1,31 @@
+package com.tennisfun.repository;
+
+import com.tennisfun.entity.PlayerRating;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PlayerRatingRepository extends JpaRepository<PlayerRating, Long> {
+    Optional<PlayerRating> findByTenantIdAndPlayerName(String tenantId, String playerName);
+
+    // Låser raden så att två noder inte skriver över varandras inkrementella uppdateringar
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM PlayerRating r WHERE r.tenantId = :tenantId AND r.playerName = :playerName")
+    Optional<PlayerRating> findForUpdate(@Param("tenantId") String tenantId, @Param("playerName") String playerName);
+
+    List<PlayerRating> findByTenantIdOrderByRatingDesc(String tenantId);
+
+    long countByTenantId(String tenantId);
+
+    @Modifying
+    @Query("DELETE FROM PlayerRating r WHERE r.tenantId = :tenantId")
+    int deleteByTenantId(@Param("tenantId") String tenantId);
+}
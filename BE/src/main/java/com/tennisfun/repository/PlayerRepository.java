@@ -0,0 +1,24 @@
+package com.tennisfun.repository;
+
+import com.tennisfun.entity.Player;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+@Repository
+public interface PlayerRepository extends JpaRepository<Player, Long> {
+    @Query("SELECT p.name FROM Player p WHERE p.tenantId = :tenantId AND p.name IN :names")
+    List<String> findExistingNames(@Param("tenantId") String tenantId, @Param("names") Collection<String> names);
+
+    @QueryHints(@jakarta.persistence.QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p.name FROM Player p WHERE p.tenantId = :tenantId ORDER BY p.name")
+    Stream<String> streamNames(@Param("tenantId") String tenantId);
+}
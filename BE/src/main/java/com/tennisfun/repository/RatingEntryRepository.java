@@ -0,0 +1,19 @@
+package com.tennisfun.repository;
+
+import com.tennisfun.entity.RatingEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface RatingEntryRepository extends JpaRepository<RatingEntry, Long> {
+    List<RatingEntry> findByTenantId(String tenantId);
+
+    @Modifying
+    @Query("DELETE FROM RatingEntry e WHERE e.tenantId = :tenantId")
+    int deleteByTenantId(@Param("tenantId") String tenantId);
+}
@@ -0,0 +1,16 @@
+package com.tennisfun.repository;
+
+import com.tennisfun.entity.StatsRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface StatsRollupRepository extends JpaRepository<StatsRollup, Long> {
+    List<StatsRollup> findByTenantIdAndPeriodTypeAndPeriodStartBetweenOrderByPeriodStart(
+            String tenantId, String periodType, LocalDate from, LocalDate to);
+
+    long countByTenantId(String tenantId);
+}
@@ -0,0 +1,20 @@
+package com.tennisfun.repository;
+
+import com.tennisfun.entity.TournamentEventHead;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Optional;
+
+@Repository
+public interface TournamentEventHeadRepository extends JpaRepository<TournamentEventHead, Long> {
+    Optional<TournamentEventHead> findByTournamentIdAndTenantId(Long tournamentId, String tenantId);
+
+    @Modifying
+    @Query("DELETE FROM TournamentEventHead h WHERE h.tenantId = :tenantId AND h.tournamentId IN :tournamentIds")
+    int deleteByTournamentIds(@Param("tenantId") String tenantId, @Param("tournamentIds") Collection<Long> tournamentIds);
+}
@@ -0,0 +1,24 @@
+package com.tennisfun.repository;
+
+import com.tennisfun.entity.TournamentEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TournamentEventRepository extends JpaRepository<TournamentEvent, Long> {
+    List<TournamentEvent> findByTenantIdAndTournamentIdAndSeqGreaterThanOrderBySeqAsc(
+            String tenantId, Long tournamentId, Long seq, Pageable page);
+
+    List<TournamentEvent> findByTournamentIdAndSeqGreaterThanOrderBySeqAsc(Long tournamentId, Long seq);
+
+    @Modifying
+    @Query("DELETE FROM TournamentEvent e WHERE e.tenantId = :tenantId AND e.tournamentId IN :tournamentIds")
+    int deleteByTournamentIds(@Param("tenantId") String tenantId, @Param("tournamentIds") Collection<Long> tournamentIds);
+}
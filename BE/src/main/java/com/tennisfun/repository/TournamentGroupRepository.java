@@ -2,8 +2,30 @@ package com.tennisfun.repository;
 
 import com.tennisfun.entity.TournamentGroup;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
 @Repository
 public interface TournamentGroupRepository extends JpaRepository<TournamentGroup, Long> {
+    Optional<TournamentGroup> findByIdAndTenantId(Long id, String tenantId);
+    List<TournamentGroup> findByTournamentId(Long tournamentId);
+    Optional<TournamentGroup> findFirstByTournamentIdAndGroupNumber(Long tournamentId, Integer groupNumber);
+
+    @QueryHints(@jakarta.persistence.QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT g.participants FROM TournamentGroup g WHERE g.tenantId = :tenantId")
+    Stream<List<String>> streamParticipants(@Param("tenantId") String tenantId);
+
+    @Modifying
+    @Query("DELETE FROM TournamentGroup g WHERE g.tenantId = :tenantId AND g.tournament.id IN :tournamentIds")
+    int deleteByTournamentIds(@Param("tenantId") String tenantId, @Param("tournamentIds") Collection<Long> tournamentIds);
 }
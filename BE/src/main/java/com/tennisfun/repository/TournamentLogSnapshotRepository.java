@@ -0,0 +1,17 @@
+package com.tennisfun.repository;
+
+import com.tennisfun.entity.TournamentLogSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface TournamentLogSnapshotRepository extends JpaRepository<TournamentLogSnapshot, Long> {
+    @Modifying
+    @Query("DELETE FROM TournamentLogSnapshot s WHERE s.tenantId = :tenantId AND s.tournamentId IN :tournamentIds")
+    int deleteByTournamentIds(@Param("tenantId") String tenantId, @Param("tournamentIds") Collection<Long> tournamentIds);
+}
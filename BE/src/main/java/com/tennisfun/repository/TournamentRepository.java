@@ -1,14 +1,59 @@
 package com.tennisfun.repository;
 
 import com.tennisfun.entity.Tournament;
+import com.tennisfun.event.TournamentSnapshot;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TournamentRepository extends JpaRepository<Tournament, Long> {
-    List<Tournament> findAllByOrderByDateDesc();
-    List<Tournament> findByArchivedOrderByDateDesc(Boolean archived);
-    Tournament findFirstByArchivedOrderByDateDesc(Boolean archived);
+    Optional<Tournament> findByIdAndTenantId(Long id, String tenantId);
+    List<Tournament> findByTenantIdOrderByDateDesc(String tenantId);
+    Optional<Tournament> findFirstByTenantIdOrderByDateDescIdDesc(String tenantId);
+    List<Tournament> findByTenantIdAndArchivedOrderByDateDesc(String tenantId, Boolean archived);
+    Tournament findFirstByTenantIdAndArchivedOrderByDateDesc(String tenantId, Boolean archived);
+    Optional<Tournament> findFirstByTenantIdAndNameAndDate(String tenantId, String name, LocalDate date);
+
+    @Query("SELECT t.date FROM Tournament t WHERE t.tenantId = :tenantId AND t.archived = true")
+    List<LocalDate> findArchivedDates(@Param("tenantId") String tenantId);
+
+    @Query("SELECT new com.tennisfun.event.TournamentSnapshot(t.id, t.name, t.date, t.archived) FROM Tournament t " +
+           "WHERE t.tenantId = :tenantId AND t.id IN :ids ORDER BY t.id")
+    List<TournamentSnapshot> findSnapshotsByIds(@Param("tenantId") String tenantId, @Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.tennisfun.event.TournamentSnapshot(t.id, t.name, t.date, t.archived) FROM Tournament t " +
+           "WHERE t.tenantId = :tenantId AND t.archived = :archived ORDER BY t.id")
+    List<TournamentSnapshot> findSnapshotsByArchived(@Param("tenantId") String tenantId,
+                                                     @Param("archived") Boolean archived, Pageable page);
+
+    @Query("SELECT new com.tennisfun.event.TournamentSnapshot(t.id, t.name, t.date, t.archived) FROM Tournament t " +
+           "WHERE t.tenantId = :tenantId AND t.archived = :archived AND t.date < :before ORDER BY t.id")
+    List<TournamentSnapshot> findSnapshotsByArchivedAndDateBefore(@Param("tenantId") String tenantId,
+                                                                  @Param("archived") Boolean archived,
+                                                                  @Param("before") LocalDate before, Pageable page);
+
+    @Query("SELECT DISTINCT t.tenantId FROM Tournament t")
+    List<String> findTenantIds();
+
+    // Klubbar med aktiva turneringar, den med senast daterade turnering först
+    @Query("SELECT t.tenantId FROM Tournament t WHERE t.archived = false GROUP BY t.tenantId ORDER BY MAX(t.date) DESC")
+    List<String> findActiveTenantIds(Pageable page);
+
+    @Modifying
+    @Query("UPDATE Tournament t SET t.archived = true, t.version = t.version + 1 " +
+           "WHERE t.tenantId = :tenantId AND t.id IN :ids AND t.archived = false")
+    int archiveByIds(@Param("tenantId") String tenantId, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Tournament t WHERE t.tenantId = :tenantId AND t.id IN :ids")
+    int deleteByIds(@Param("tenantId") String tenantId, @Param("ids") Collection<Long> ids);
 }
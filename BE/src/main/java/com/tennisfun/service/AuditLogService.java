@@ -0,0 +1,206 @@
+package com.tennisfun.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tennisfun.entity.AuditEntry;
+import com.tennisfun.event.AuditEvent;
+import com.tennisfun.event.MatchResultChangedEvent;
+import com.tennisfun.event.MatchSnapshot;
+import com.tennisfun.repository.AuditEntryRepository;
+import com.tennisfun.tenant.TenantContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Granskningslogg över rapporter, ändringar, borttagningar, namnbyten och
+ * deltagarändringar med värdet före och efter.
+ * <p>
+ * Efter commit läggs bara en oföränderlig post i en begränsad kö; en egen
+ * tråd serialiserar till JSON och skriver i JDBC-batchar, så rapporteringen
+ * väntar inte på loggen. När kön är full gäller {@code tennisfun.audit.overflow}:
+ * {@code block} låter anropet vänta upp till {@code tennisfun.audit.block-timeout-ms}
+ * innan posten släpps, {@code drop} släpper den direkt. Släppta poster räknas och loggas.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuditLogService {
+
+    public static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 1000;
+    private static final int BATCH_SIZE = 200;
+
+    private static final String INSERT_ENTRY =
+            "INSERT INTO audit_log (tenant_id, tournament_id, group_id, match_id, action, before_value, after_value, " +
+            "source, occurred_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final AuditEntryRepository auditEntryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${tennisfun.audit.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${tennisfun.audit.overflow:block}")
+    private String overflow;
+
+    @Value("${tennisfun.audit.block-timeout-ms:1000}")
+    private long blockTimeoutMs;
+
+    private BlockingQueue<Pending> queue;
+    private Thread writer;
+    private volatile boolean running;
+    private final AtomicLong dropped = new AtomicLong();
+
+    private record Pending(String tenantId, Long tournamentId, Long groupId, Long matchId, String action,
+                           Object before, Object after, String source, LocalDateTime occurredAt) {
+    }
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writer = new Thread(this::writeLoop, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Skriver det som ligger kvar i kön innan noden stängs
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(5000);
+        List<Pending> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            write(remaining);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMatchResultChanged(MatchResultChangedEvent event) {
+        MatchSnapshot before = event.before();
+        MatchSnapshot after = event.after();
+        if (before != null && after != null && (!Objects.equals(before.player1(), after.player1())
+                || !Objects.equals(before.player2(), after.player2()))) {
+            return; // Följd av ett namnbyte, som loggas för sig
+        }
+        if (event.type() == MatchResultChangedEvent.Type.UPDATED && Objects.equals(before, after)) {
+            return; // Samma resultat sparat igen, inget har ändrats
+        }
+        String action = switch (event.type()) {
+            case REPORTED -> "REPORT";
+            case UPDATED -> "UPDATE";
+            case DELETED -> "DELETE";
+        };
+        Long groupId = after != null ? after.groupId() : before.groupId();
+        enqueue(new Pending(event.tenantId(), event.tournamentId(), groupId, event.matchId(), action,
+                before, after, source(), LocalDateTime.now()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAudit(AuditEvent event) {
+        enqueue(new Pending(event.tenantId(), event.tournamentId(), event.groupId(), null, event.action(),
+                event.before(), event.after(), source(), LocalDateTime.now()));
+    }
+
+    // Nyaste först; beforeId bläddrar bakåt
+    public List<AuditEntry> getTournamentLog(Long tournamentId, Long beforeId, Integer limit) {
+        String tenantId = TenantContext.current();
+        int size = limit != null ? limit : DEFAULT_LIMIT;
+        if (size < 1 || size > MAX_LIMIT) {
+            throw new IllegalArgumentException("Antal poster måste vara mellan 1 och " + MAX_LIMIT);
+        }
+        // Loggen finns kvar för borttagna turneringar, så en okänd turnering är bara en tom logg
+        PageRequest page = PageRequest.of(0, size);
+        return beforeId != null
+                ? auditEntryRepository.findByTenantIdAndTournamentIdAndIdLessThanOrderByIdDesc(tenantId, tournamentId, beforeId, page)
+                : auditEntryRepository.findByTenantIdAndTournamentIdOrderByIdDesc(tenantId, tournamentId, page);
+    }
+
+    private void enqueue(Pending entry) {
+        boolean accepted = queue.offer(entry);
+        if (!accepted && "block".equalsIgnoreCase(overflow)) {
+            try {
+                accepted = queue.offer(entry, blockTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!accepted) {
+            long total = dropped.incrementAndGet();
+            log.warn("Audit queue full, dropped {} for match {} in tournament {} ({} dropped in total)",
+                    entry.action(), entry.matchId(), entry.tournamentId(), total);
+        }
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(BATCH_SIZE);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    break;
+                }
+            } catch (Exception e) {
+                log.error("Could not write {} audit entries", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (Pending entry : batch) {
+            rows.add(new Object[]{entry.tenantId(), entry.tournamentId(), entry.groupId(), entry.matchId(),
+                    entry.action(), json(entry.before()), json(entry.after()), entry.source(),
+                    Timestamp.valueOf(entry.occurredAt())});
+        }
+        jdbcTemplate.batchUpdate(INSERT_ENTRY, rows);
+        log.debug("Wrote {} audit entries", rows.size());
+    }
+
+    private String json(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize {} for the audit log, storing null: {}",
+                    value.getClass().getSimpleName(), e.getMessage());
+            return null;
+        }
+    }
+
+    // Anropas på anropstråden efter commit, där förfrågan fortfarande finns
+    private static String source() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servlet ? servlet.getRequest().getRemoteAddr() : null;
+    }
+}
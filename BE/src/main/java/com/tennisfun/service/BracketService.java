@@ -0,0 +1,338 @@
+package com.tennisfun.service;
+
+import com.tennisfun.entity.BracketNode;
+import com.tennisfun.entity.Tournament;
+import com.tennisfun.entity.TournamentGroup;
+import com.tennisfun.event.GroupSnapshot;
+import com.tennisfun.event.GroupsChangedEvent;
+import com.tennisfun.event.MatchResultChangedEvent;
+import com.tennisfun.event.MatchSnapshot;
+import com.tennisfun.event.TournamentChangedEvent;
+import com.tennisfun.repository.BracketNodeRepository;
+import com.tennisfun.repository.MatchResultRepository;
+import com.tennisfun.repository.TournamentGroupRepository;
+import com.tennisfun.repository.TournamentRepository;
+import com.tennisfun.service.StandingsCalculator.Standing;
+import com.tennisfun.tenant.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Slutspelsträd som seedas från gruppställningen och där vinnare flyttas
+ * vidare automatiskt.
+ * <p>
+ * Trädet lagras som {@link BracketNode}-rader. Varje match som har två kända
+ * spelare får en vanlig grupp med två deltagare, så rapportering och visning
+ * fungerar som för manuellt skapade slutspelsmatcher. Avancemang sker i samma
+ * transaktion som rapporten, eftersom lyssnaren är synkron.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BracketService {
+
+    private final TournamentRepository tournamentRepository;
+    private final TournamentGroupRepository groupRepository;
+    private final MatchResultRepository matchResultRepository;
+    private final BracketNodeRepository bracketNodeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional(readOnly = true)
+    public List<BracketNode> getBracket(Long tournamentId) {
+        Tournament tournament = getTournament(tournamentId);
+        return bracketNodeRepository.findByTournamentIdOrderByRoundAscPositionAsc(tournament.getId());
+    }
+
+    @Transactional
+    public List<BracketNode> createBracket(Long tournamentId, Integer numberOfWinners) {
+        Tournament tournament = getTournament(tournamentId);
+        if (bracketNodeRepository.existsByTournamentId(tournamentId)) {
+            throw new IllegalArgumentException("Slutspelsträdet är redan skapat för turneringen");
+        }
+        Integer perGroup = numberOfWinners != null ? numberOfWinners : tournament.getNumberOfWinners();
+        if (perGroup == null || perGroup < 1) {
+            throw new IllegalArgumentException("Antal spelare som går vidare från varje grupp måste anges");
+        }
+
+        List<String> seeds = seedFromStandings(tournament, perGroup);
+        if (seeds.size() < 2) {
+            throw new IllegalArgumentException("Minst två spelare måste gå vidare till slutspelet");
+        }
+
+        int size = Integer.highestOneBit(seeds.size() - 1) << 1;
+        int rounds = Integer.numberOfTrailingZeros(size);
+        int nextGroupNumber = tournament.getGroups().stream()
+                .mapToInt(TournamentGroup::getGroupNumber).max().orElse(0) + 1;
+
+        // Noderna skapas från finalen och nedåt så att varje nod känner sin förälder
+        BracketNode[][] nodes = new BracketNode[rounds + 1][];
+        for (int round = rounds; round >= 1; round--) {
+            int count = size >> round;
+            nodes[round] = new BracketNode[count];
+            for (int position = 0; position < count; position++) {
+                BracketNode node = new BracketNode();
+                node.setTournament(tournament);
+                node.setRound(round);
+                node.setPosition(position);
+                if (round < rounds) {
+                    node.setParentId(nodes[round + 1][position / 2].getId());
+                    node.setParentSlot(position % 2);
+                }
+                tournament.getBracketNodes().add(node);
+                nodes[round][position] = bracketNodeRepository.save(node);
+            }
+        }
+
+        int[] order = seedOrder(size);
+        for (int position = 0; position < size / 2; position++) {
+            BracketNode node = nodes[1][position];
+            int seed1 = order[position * 2];
+            int seed2 = order[position * 2 + 1];
+            node.setSeed1(seed1);
+            node.setPlayer1(seed1 <= seeds.size() ? seeds.get(seed1 - 1) : null);
+            if (seed2 <= seeds.size()) {
+                node.setSeed2(seed2);
+                node.setPlayer2(seeds.get(seed2 - 1));
+            } else {
+                // Frilott: toppseedad spelare går direkt vidare
+                node.setBye(true);
+                node.setWinner(node.getPlayer1());
+            }
+        }
+
+        // Grupper skapas för alla matcher där båda spelarna nu är kända
+        List<GroupSnapshot> created = new ArrayList<>();
+        for (int round = 1; round <= rounds; round++) {
+            for (BracketNode node : nodes[round]) {
+                if (node.isBye()) {
+                    BracketNode parent = nodes[round + 1][node.getPosition() / 2];
+                    setSlot(parent, node.getParentSlot(), node.getWinner());
+                } else if (node.getPlayer1() != null && node.getPlayer2() != null) {
+                    TournamentGroup group = createMatchGroup(tournament, node, nextGroupNumber++);
+                    node.setGroupId(group.getId());
+                    created.add(GroupSnapshot.of(group));
+                }
+                bracketNodeRepository.save(node);
+            }
+        }
+
+        publishGroups(tournament, GroupsChangedEvent.Type.CREATED, created);
+        eventPublisher.publishEvent(new TournamentChangedEvent(tournament.getTenantId(), tournamentId));
+        log.info("Created bracket for tournament {}: {} players, {} rounds, {} byes",
+                tournamentId, seeds.size(), rounds, size - seeds.size());
+        return bracketNodeRepository.findByTournamentIdOrderByRoundAscPositionAsc(tournamentId);
+    }
+
+    /**
+     * Flyttar vinnaren vidare när en slutspelsmatch rapporteras, ändras eller tas bort.
+     * Körs synkront i rapportens transaktion; ett fel rullar tillbaka rapporten.
+     */
+    @EventListener
+    public void onMatchResultChanged(MatchResultChangedEvent event) {
+        MatchSnapshot changed = event.after() != null ? event.after() : event.before();
+        if (changed.groupId() == null) {
+            return;
+        }
+        Optional<BracketNode> found = bracketNodeRepository.findByGroupId(changed.groupId());
+        if (found.isEmpty()) {
+            return;
+        }
+        BracketNode node = found.get();
+        MatchSnapshot before = event.before();
+        MatchSnapshot after = event.after();
+
+        if (before != null && after != null
+                && !(Objects.equals(before.player1(), after.player1()) && Objects.equals(before.player2(), after.player2()))) {
+            renamePlayers(node, before, after);
+            return;
+        }
+
+        String winner = after != null ? after.winner() : null;
+        if (Objects.equals(winner, node.getWinner())) {
+            return;
+        }
+        String previousWinner = node.getWinner();
+        node.setWinner(winner);
+        bracketNodeRepository.save(node);
+        if (node.getParentId() != null) {
+            BracketNode parent = bracketNodeRepository.findById(node.getParentId())
+                    .orElseThrow(() -> new IllegalStateException("Slutspelsträdet saknar nod " + node.getParentId()));
+            advance(parent, node.getParentSlot(), previousWinner, winner);
+        }
+        log.info("Bracket match {} in round {}: winner {} (was {})", node.getId(), node.getRound(), winner, previousWinner);
+    }
+
+    private void advance(BracketNode parent, int slot, String previousWinner, String winner) {
+        if (parent.getGroupId() != null && !matchResultRepository.findByGroupId(parent.getGroupId()).isEmpty()) {
+            throw new IllegalArgumentException("Matchen i nästa omgång har redan spelats. Ta bort det resultatet först.");
+        }
+        setSlot(parent, slot, winner);
+        Tournament tournament = parent.getTournament();
+
+        if (parent.getGroupId() != null) {
+            TournamentGroup group = groupRepository.findById(parent.getGroupId()).orElse(null);
+            if (group != null && winner != null) {
+                group.setParticipants(new ArrayList<>(List.of(parent.getPlayer1(), parent.getPlayer2())));
+                groupRepository.save(group);
+                publishGroups(tournament, GroupsChangedEvent.Type.PARTICIPANTS, List.of(GroupSnapshot.of(group)));
+            } else if (group != null) {
+                // Vinnaren togs bort; matchen väntar igen på en spelare
+                tournament.getGroups().remove(group);
+                parent.setGroupId(null);
+                publishGroups(tournament, GroupsChangedEvent.Type.REMOVED, List.of(GroupSnapshot.of(group)));
+            }
+        } else if (parent.getPlayer1() != null && parent.getPlayer2() != null) {
+            int nextGroupNumber = tournament.getGroups().stream()
+                    .mapToInt(TournamentGroup::getGroupNumber).max().orElse(0) + 1;
+            TournamentGroup group = createMatchGroup(tournament, parent, nextGroupNumber);
+            parent.setGroupId(group.getId());
+            publishGroups(tournament, GroupsChangedEvent.Type.CREATED, List.of(GroupSnapshot.of(group)));
+        }
+        bracketNodeRepository.save(parent);
+        log.debug("Advanced {} (replacing {}) to bracket node {}", winner, previousWinner, parent.getId());
+    }
+
+    // Namnbyte i en slutspelsgrupp: namnen följer med i trädet men inget avancemang ändras
+    private void renamePlayers(BracketNode node, MatchSnapshot before, MatchSnapshot after) {
+        Map<String, String> renamed = new HashMap<>();
+        renamed.put(before.player1(), after.player1());
+        renamed.put(before.player2(), after.player2());
+        node.setPlayer1(renamed.getOrDefault(node.getPlayer1(), node.getPlayer1()));
+        node.setPlayer2(renamed.getOrDefault(node.getPlayer2(), node.getPlayer2()));
+        String previousWinner = node.getWinner();
+        node.setWinner(renamed.getOrDefault(previousWinner, previousWinner));
+        bracketNodeRepository.save(node);
+        if (node.getParentId() != null && previousWinner != null && !previousWinner.equals(node.getWinner())) {
+            bracketNodeRepository.findById(node.getParentId()).ifPresent(parent -> {
+                setSlot(parent, node.getParentSlot(), node.getWinner());
+                bracketNodeRepository.save(parent);
+            });
+        }
+    }
+
+    private TournamentGroup createMatchGroup(Tournament tournament, BracketNode node, int groupNumber) {
+        TournamentGroup group = new TournamentGroup();
+        group.setGroupNumber(groupNumber);
+        group.setParticipants(new ArrayList<>(List.of(node.getPlayer1(), node.getPlayer2())));
+        tournament.addGroup(group);
+        return groupRepository.save(group);
+    }
+
+    private void publishGroups(Tournament tournament, GroupsChangedEvent.Type type, List<GroupSnapshot> groups) {
+        if (!groups.isEmpty()) {
+            eventPublisher.publishEvent(new GroupsChangedEvent(tournament.getTenantId(), tournament.getId(), type, groups));
+        }
+    }
+
+    private static void setSlot(BracketNode node, int slot, String player) {
+        if (slot == 0) {
+            node.setPlayer1(player);
+        } else {
+            node.setPlayer2(player);
+        }
+    }
+
+    private static int remainingMatches(List<String> participants, List<MatchSnapshot> results) {
+        Set<String> played = new HashSet<>();
+        for (MatchSnapshot result : results) {
+            played.add(pairKey(result.player1(), result.player2()));
+        }
+        int remaining = 0;
+        for (int i = 0; i < participants.size(); i++) {
+            for (int j = i + 1; j < participants.size(); j++) {
+                if (!played.contains(pairKey(participants.get(i), participants.get(j)))) {
+                    remaining++;
+                }
+            }
+        }
+        return remaining;
+    }
+
+    private static String pairKey(String a, String b) {
+        return a.compareTo(b) <= 0 ? a + "\u0000" + b : b + "\u0000" + a;
+    }
+
+    /**
+     * Seedlista: alla gruppettor först, sedan alla tvåor osv. Inom samma placering
+     * rangordnas spelarna per spelad match, eftersom grupperna kan vara olika stora.
+     */
+    private List<String> seedFromStandings(Tournament tournament, int perGroup) {
+        List<TournamentGroup> groups = tournament.getGroups().stream()
+                .filter(group -> group.getParticipants() != null && group.getParticipants().size() > 2)
+                .sorted(Comparator.comparing(TournamentGroup::getGroupNumber))
+                .toList();
+        if (groups.isEmpty()) {
+            throw new IllegalArgumentException("Turneringen har inga gruppspelsgrupper att seeda från");
+        }
+        Map<Long, List<MatchSnapshot>> resultsByGroup = matchResultRepository
+                .findSnapshotsByTournamentId(tournament.getId()).stream()
+                .collect(Collectors.groupingBy(MatchSnapshot::groupId));
+
+        // Seedningen bygger på slutliga gruppetabeller
+        for (TournamentGroup group : groups) {
+            int remaining = remainingMatches(group.getParticipants(), resultsByGroup.getOrDefault(group.getId(), List.of()));
+            if (remaining > 0) {
+                throw new IllegalArgumentException("Grupp " + group.getGroupNumber() + " har " + remaining
+                        + " matcher kvar att spela");
+            }
+        }
+
+        List<List<Standing>> standings = new ArrayList<>();
+        for (TournamentGroup group : groups) {
+            standings.add(StandingsCalculator.standings(group.getParticipants(),
+                    resultsByGroup.getOrDefault(group.getId(), List.of())));
+        }
+        Comparator<Standing> acrossGroups = Comparator
+                .comparingDouble((Standing s) -> perMatch(s.points(), s)).reversed()
+                .thenComparing(Comparator.comparingDouble((Standing s) -> perMatch(s.setDifference(), s)).reversed())
+                .thenComparing(Comparator.comparingDouble((Standing s) -> perMatch(s.gameDifference(), s)).reversed())
+                .thenComparing(Comparator.comparingDouble((Standing s) -> perMatch(s.gamesWon(), s)).reversed());
+
+        List<String> seeds = new ArrayList<>();
+        for (int place = 0; place < perGroup; place++) {
+            List<Standing> atPlace = new ArrayList<>();
+            for (List<Standing> groupStandings : standings) {
+                if (place < groupStandings.size()) {
+                    atPlace.add(groupStandings.get(place));
+                }
+            }
+            atPlace.sort(acrossGroups);
+            atPlace.forEach(standing -> seeds.add(standing.player()));
+        }
+        return seeds;
+    }
+
+    private static double perMatch(int value, Standing standing) {
+        return standing.played() > 0 ? (double) value / standing.played() : 0;
+    }
+
+    /**
+     * Standardplacering av seedade spelare: 1 och 2 kan först mötas i finalen,
+     * 1–4 först i semifinal osv. Ger t.ex. 1, 8, 4, 5, 2, 7, 3, 6 för åtta platser.
+     */
+    static int[] seedOrder(int size) {
+        int[] order = {1};
+        while (order.length < size) {
+            int[] next = new int[order.length * 2];
+            int sum = order.length * 2 + 1;
+            for (int i = 0; i < order.length; i++) {
+                next[i * 2] = order[i];
+                next[i * 2 + 1] = sum - order[i];
+            }
+            order = next;
+        }
+        return order;
+    }
+
+    private Tournament getTournament(Long tournamentId) {
+        return tournamentRepository.findByIdAndTenantId(tournamentId, TenantContext.current())
+                .orElseThrow(() -> new IllegalArgumentException("Turnering med ID " + tournamentId + " hittades inte"));
+    }
+}
@@ -0,0 +1,391 @@
+package com.tennisfun.service;
+
+import com.tennisfun.dto.GenerateDataRequest;
+import com.tennisfun.dto.GeneratedDataDTO;
+import com.tennisfun.entity.MatchStatus;
+import com.tennisfun.entity.Tournament;
+import com.tennisfun.entity.TournamentGroup;
+import com.tennisfun.event.TournamentChangedEvent;
+import com.tennisfun.repository.PlayerRepository;
+import com.tennisfun.repository.TournamentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Syntetiska testdata i stor skala för prestandamätningar: hundratals spelare,
+ * många grupper, alla matchstatusar, flerset- och tiebreakresultat, slutspel
+ * och flera års arkiverade turneringar, plus en pågående turnering där en del
+ * matcher återstår.
+ * <p>
+ * Allt dras ur en {@link Random} med angivet frö i en fast ordning, så samma
+ * förfrågan ger samma data. Spelarna har en dold styrka som avgör vem som vinner,
+ * så att rating och inbördes möten ser ut som riktiga. Turneringar och grupper
+ * sparas med JPA (deltagarlistan är en JSON-kolumn), matcherna i JDBC-batchar
+ * om {@value TransferService#BATCH_SIZE} rader, en transaktion per turnering.
+ * <p>
+ * Finns bara utanför prod-profilen.
+ */
+@Service
+@Profile("!prod")
+@RequiredArgsConstructor
+@Slf4j
+public class DataGeneratorService {
+
+    private static final int MAX_PLAYERS = 20000;
+    private static final int MAX_GROUPS = 500;
+    private static final int MAX_GROUP_SIZE = 12;
+    private static final int MAX_HISTORY_TOURNAMENTS = 2000;
+
+    private static final String[] FIRST_NAMES = {
+            "Anna", "Erik", "Maria", "Lars", "Karin", "Anders", "Eva", "Johan", "Sara", "Per",
+            "Lena", "Mikael", "Emma", "Karl", "Ingrid", "Nils", "Åsa", "Olof", "Linnéa", "Björn",
+            "Elin", "Gustav", "Maja", "Fredrik", "Ida", "Henrik", "Sofia", "Magnus", "Frida", "Jonas",
+            "Märta", "Oskar", "Hanna", "Viktor", "Klara", "Axel", "Ebba", "Jöran", "Tove", "Sven"
+    };
+
+    private static final String[] LAST_NAMES = {
+            "Andersson", "Johansson", "Karlsson", "Nilsson", "Eriksson", "Larsson", "Olsson", "Persson",
+            "Svensson", "Gustafsson", "Pettersson", "Jonsson", "Jansson", "Hansson", "Bengtsson", "Jönsson",
+            "Lindberg", "Jakobsson", "Magnusson", "Olofsson", "Lindström", "Lindqvist", "Lindgren", "Berg",
+            "Axelsson", "Bergström", "Lundberg", "Lind", "Lundgren", "Lundqvist", "Mattsson", "Berglund",
+            "Fredriksson", "Sandberg", "Henriksson", "Forsberg", "Sjöberg", "Wallin", "Engström", "Åberg"
+    };
+
+    private static final String[] TOURNAMENT_NAMES = {
+            "Vårcupen", "Sommarspelen", "Höstträffen", "Vinterserien", "Klubbmästerskapet",
+            "Måndagsligan", "Midsommarturneringen", "Nyårsdubbeln", "Lucialobben", "Påskcupen"
+    };
+
+    // Samma val som i administrationsformuläret
+    private static final String[] SETS_PER_MATCH = {
+            "ett-set", "ett-set", "ett-set", "ett-set", "ett-set",
+            "forst-till-tva", "forst-till-tva", "forst-till-tva-super", "forst-till-tva-super", "forst-till-tva-tb7"
+    };
+
+    private final PlayerRepository playerRepository;
+    private final TournamentRepository tournamentRepository;
+    private final RatingService ratingService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Resultatkolumnerna i samma ordning som TransferService.INSERT_RESULT, från score1 till tiebreak3Score2
+    private record PlannedMatch(int groupIndex, MatchStatus status, String player1, String player2, String winner,
+                                Integer[] scores) {
+    }
+
+    private record Format(int gamesPerSet, String setsPerMatch) {
+        boolean multiSet() {
+            return !"ett-set".equals(setsPerMatch);
+        }
+    }
+
+    private static final class Counts {
+        int tournaments;
+        int groups;
+        int matches;
+    }
+
+    public GeneratedDataDTO generate(String tenantId, GenerateDataRequest request) {
+        validate(request);
+        long start = System.nanoTime();
+        Random random = new Random(request.getSeed());
+        List<String> players = playerNames(random, request.getPlayers());
+        Map<String, Double> strength = new HashMap<>();
+        for (String player : players) {
+            strength.put(player, 1500 + random.nextGaussian() * 200);
+        }
+        int insertedPlayers = insertPlayers(tenantId, players);
+
+        LocalDate endDate = request.getEndDate() != null ? request.getEndDate() : LocalDate.now();
+        int history = request.getHistoryYears() * request.getTournamentsPerYear();
+        Counts counts = new Counts();
+        // Äldst först, den pågående turneringen sist
+        for (int i = history; i >= 0; i--) {
+            LocalDate date = i == 0 ? endDate : endDate.minusDays(i * 365L / request.getTournamentsPerYear());
+            Tournament tournament = new Tournament();
+            List<PlannedMatch> matches = planTournament(random, tournament, players, strength, request, date, i == 0);
+            tournament.setTenantId(tenantId);
+            transactionTemplate.executeWithoutResult(status -> save(tenantId, tournament, matches, counts));
+        }
+
+        eventPublisher.publishEvent(new TournamentChangedEvent(tenantId, null));
+        ratingService.scheduleRebuild(tenantId);
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Generated {} players, {} tournaments, {} groups and {} matches for tenant {} (seed {}) in {} ms",
+                insertedPlayers, counts.tournaments, counts.groups, counts.matches, tenantId, request.getSeed(),
+                durationMs);
+        return new GeneratedDataDTO(insertedPlayers, counts.tournaments, counts.groups, counts.matches, durationMs);
+    }
+
+    private static void validate(GenerateDataRequest request) {
+        if (request.getSeed() == null || request.getPlayers() == null || request.getGroups() == null
+                || request.getGroupSize() == null || request.getHistoryYears() == null
+                || request.getTournamentsPerYear() == null || request.getOpenShare() == null) {
+            throw new IllegalArgumentException("Alla storlekar och fröet måste anges");
+        }
+        if (request.getPlayers() < 2 || request.getPlayers() > MAX_PLAYERS) {
+            throw new IllegalArgumentException("Antal spelare måste vara mellan 2 och " + MAX_PLAYERS);
+        }
+        if (request.getGroups() < 1 || request.getGroups() > MAX_GROUPS) {
+            throw new IllegalArgumentException("Antal grupper måste vara mellan 1 och " + MAX_GROUPS);
+        }
+        if (request.getGroupSize() < 2 || request.getGroupSize() > MAX_GROUP_SIZE) {
+            throw new IllegalArgumentException("Gruppstorleken måste vara mellan 2 och " + MAX_GROUP_SIZE);
+        }
+        if (request.getGroups() * request.getGroupSize() > request.getPlayers()) {
+            throw new IllegalArgumentException("Grupperna kräver fler spelare än som skapas");
+        }
+        if (request.getHistoryYears() < 0 || request.getTournamentsPerYear() < 1
+                || request.getHistoryYears() * request.getTournamentsPerYear() > MAX_HISTORY_TOURNAMENTS) {
+            throw new IllegalArgumentException("Historiken får vara högst " + MAX_HISTORY_TOURNAMENTS
+                    + " turneringar, med minst en turnering per år");
+        }
+        if (request.getOpenShare() < 0 || request.getOpenShare() > 1) {
+            throw new IllegalArgumentException("Andelen ospelade matcher måste vara mellan 0 och 1");
+        }
+    }
+
+    private static List<String> playerNames(Random random, int count) {
+        List<String> combinations = new ArrayList<>(FIRST_NAMES.length * LAST_NAMES.length);
+        for (String first : FIRST_NAMES) {
+            for (String last : LAST_NAMES) {
+                combinations.add(first + " " + last);
+            }
+        }
+        Collections.shuffle(combinations, random);
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = combinations.get(i % combinations.size());
+            names.add(i < combinations.size() ? name : name + " " + (i / combinations.size() + 1));
+        }
+        return names;
+    }
+
+    private int insertPlayers(String tenantId, List<String> players) {
+        int inserted = 0;
+        for (int from = 0; from < players.size(); from += TransferService.BATCH_SIZE) {
+            List<String> batch = players.subList(from, Math.min(from + TransferService.BATCH_SIZE, players.size()));
+            inserted += transactionTemplate.execute(status -> {
+                Set<String> existing = new HashSet<>(playerRepository.findExistingNames(tenantId, batch));
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                List<Object[]> rows = new ArrayList<>();
+                for (String name : batch) {
+                    if (!existing.contains(name)) {
+                        rows.add(new Object[]{tenantId, name, now});
+                    }
+                }
+                jdbcTemplate.batchUpdate(TransferService.INSERT_PLAYER, rows);
+                return rows.size();
+            });
+        }
+        return inserted;
+    }
+
+    // Fyller i turneringen och dess grupper och returnerar matcherna; inget sparas här
+    private List<PlannedMatch> planTournament(Random random, Tournament tournament, List<String> players,
+                                              Map<String, Double> strength, GenerateDataRequest request,
+                                              LocalDate date, boolean ongoing) {
+        Format format = new Format(random.nextInt(5) < 3 ? 4 : 6, SETS_PER_MATCH[random.nextInt(SETS_PER_MATCH.length)]);
+        tournament.setName(TOURNAMENT_NAMES[random.nextInt(TOURNAMENT_NAMES.length)] + " " + date.getYear());
+        tournament.setDate(date);
+        tournament.setGamesPerSet(format.gamesPerSet());
+        tournament.setSetsPerMatch(format.setsPerMatch());
+        tournament.setNumberOfWinners(1 + random.nextInt(2));
+        tournament.setArchived(!ongoing);
+
+        List<String> drawn = new ArrayList<>(players);
+        Collections.shuffle(drawn, random);
+        List<PlannedMatch> matches = new ArrayList<>();
+        List<String> qualifiers = new ArrayList<>();
+        List<List<String>> groupWinners = new ArrayList<>();
+        int groupSize = request.getGroupSize();
+        for (int g = 0; g < request.getGroups(); g++) {
+            List<String> participants = new ArrayList<>(drawn.subList(g * groupSize, (g + 1) * groupSize));
+            addGroup(tournament, participants);
+            Map<String, Integer> wins = new HashMap<>();
+            for (int i = 0; i < participants.size(); i++) {
+                for (int j = i + 1; j < participants.size(); j++) {
+                    if (ongoing && random.nextDouble() < request.getOpenShare()) {
+                        continue;
+                    }
+                    PlannedMatch match = playMatch(random, g, participants.get(i), participants.get(j), strength, format);
+                    wins.merge(match.winner(), 1, Integer::sum);
+                    matches.add(match);
+                }
+            }
+            List<String> standings = new ArrayList<>(participants);
+            standings.sort(Comparator.comparing((String p) -> wins.getOrDefault(p, 0)).reversed());
+            groupWinners.add(standings.subList(0, Math.min(tournament.getNumberOfWinners(), standings.size())));
+        }
+        if (ongoing) {
+            return matches;
+        }
+
+        // Gruppettor först, sedan grupptvåor, som seedning till slutspelet
+        for (int place = 0; place < tournament.getNumberOfWinners(); place++) {
+            for (List<String> winners : groupWinners) {
+                if (place < winners.size()) {
+                    qualifiers.add(winners.get(place));
+                }
+            }
+        }
+        // Slutspelet spelas som grupper med två deltagare, som när en ny omgång skapas i appen
+        List<String> round = new ArrayList<>(qualifiers.subList(0, Integer.highestOneBit(qualifiers.size())));
+        while (round.size() >= 2) {
+            List<String> next = new ArrayList<>();
+            int half = round.size() / 2;
+            for (int i = 0; i < half; i++) {
+                String player1 = round.get(i);
+                String player2 = round.get(round.size() - 1 - i);
+                int groupIndex = tournament.getGroups().size();
+                addGroup(tournament, new ArrayList<>(List.of(player1, player2)));
+                PlannedMatch match = playMatch(random, groupIndex, player1, player2, strength, format);
+                matches.add(match);
+                next.add(match.winner());
+            }
+            round = next;
+        }
+        return matches;
+    }
+
+    private static void addGroup(Tournament tournament, List<String> participants) {
+        TournamentGroup group = new TournamentGroup();
+        group.setGroupNumber(tournament.getGroups().size() + 1);
+        group.setParticipants(participants);
+        tournament.addGroup(group);
+    }
+
+    private void save(String tenantId, Tournament tournament, List<PlannedMatch> matches, Counts counts) {
+        Tournament saved = tournamentRepository.save(tournament);
+        LocalDateTime reportedAt = saved.getDate().atTime(9, 0);
+        List<Object[]> rows = new ArrayList<>(TransferService.BATCH_SIZE);
+        for (int i = 0; i < matches.size(); i++) {
+            PlannedMatch match = matches.get(i);
+            Long groupId = saved.getGroups().get(match.groupIndex()).getId();
+            Object[] row = new Object[19];
+            row[0] = tenantId;
+            row[1] = groupId;
+            row[2] = match.status().name();
+            row[3] = match.winner();
+            row[4] = match.player1();
+            row[5] = match.player2();
+            System.arraycopy(match.scores(), 0, row, 6, 12);
+            row[18] = Timestamp.valueOf(reportedAt.plusMinutes(2L * i));
+            rows.add(row);
+            if (rows.size() == TransferService.BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(TransferService.INSERT_RESULT, rows);
+                rows.clear();
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(TransferService.INSERT_RESULT, rows);
+        }
+        counts.tournaments++;
+        counts.groups += saved.getGroups().size();
+        counts.matches += matches.size();
+    }
+
+    private static PlannedMatch playMatch(Random random, int groupIndex, String player1, String player2,
+                                          Map<String, Double> strength, Format format) {
+        double expected = 1 / (1 + Math.pow(10, (strength.get(player2) - strength.get(player1)) / 400));
+        boolean player1Wins = random.nextDouble() < expected;
+        String winner = player1Wins ? player1 : player2;
+        double roll = random.nextDouble();
+        Integer[] scores = new Integer[12];
+        if (roll < 0.04) {
+            return new PlannedMatch(groupIndex, MatchStatus.WALKOVER, player1, player2, winner, scores);
+        }
+        if (roll < 0.08) {
+            retired(random, scores, format);
+            return new PlannedMatch(groupIndex, MatchStatus.RETIRED, player1, player2, winner, scores);
+        }
+        if (!format.multiSet()) {
+            set(random, scores, 0, format.gamesPerSet(), player1Wins);
+        } else {
+            // 2-0 eller 2-1; vid 2-1 vinner förloraren något av de två första seten
+            boolean deciding = random.nextDouble() < 0.35;
+            int lostSet = deciding ? random.nextInt(2) : -1;
+            set(random, scores, 0, format.gamesPerSet(), lostSet == 0 ? !player1Wins : player1Wins);
+            set(random, scores, 1, format.gamesPerSet(), lostSet == 1 ? !player1Wins : player1Wins);
+            if (deciding) {
+                switch (format.setsPerMatch()) {
+                    case "forst-till-tva-super" -> points(random, scores, 4, 10, player1Wins);
+                    case "forst-till-tva-tb7" -> points(random, scores, 4, 7, player1Wins);
+                    default -> set(random, scores, 2, format.gamesPerSet(), player1Wins);
+                }
+            }
+        }
+        return new PlannedMatch(groupIndex, MatchStatus.PLAYED, player1, player2, winner, scores);
+    }
+
+    // Ett avgjort set; vid 7-6 (eller 4-3 i kortset) läggs tiebreakpoängen in
+    private static void set(Random random, Integer[] scores, int set, int gamesPerSet, boolean player1Wins) {
+        int winnerGames;
+        int loserGames;
+        boolean tiebreak = false;
+        double roll = random.nextDouble();
+        if (gamesPerSet == 6) {
+            if (roll < 0.7) {
+                winnerGames = 6;
+                loserGames = random.nextInt(5);
+            } else if (roll < 0.85) {
+                winnerGames = 7;
+                loserGames = 5;
+            } else {
+                winnerGames = 7;
+                loserGames = 6;
+                tiebreak = true;
+            }
+        } else if (roll < 0.8) {
+            winnerGames = gamesPerSet;
+            loserGames = random.nextInt(gamesPerSet - 1);
+        } else {
+            winnerGames = gamesPerSet;
+            loserGames = gamesPerSet - 1;
+            tiebreak = true;
+        }
+        scores[set * 2] = player1Wins ? winnerGames : loserGames;
+        scores[set * 2 + 1] = player1Wins ? loserGames : winnerGames;
+        if (tiebreak) {
+            points(random, scores, 6 + set * 2, gamesPerSet == 6 ? 7 : gamesPerSet + 1, player1Wins);
+        }
+    }
+
+    // Tiebreak till minst {@code target} poäng med två poängs marginal
+    private static void points(Random random, Integer[] scores, int index, int target, boolean player1Wins) {
+        int loser = random.nextDouble() < 0.75 ? random.nextInt(target - 1) : target - 1 + random.nextInt(4);
+        int winner = Math.max(target, loser + 2);
+        scores[index] = player1Wins ? winner : loser;
+        scores[index + 1] = player1Wins ? loser : winner;
+    }
+
+    // Uppgivet: ingen spelare når ett vunnet set i den avbrutna ställningen; i flerset är första setet spelat
+    private static void retired(Random random, Integer[] scores, Format format) {
+        int open = 0;
+        if (format.multiSet()) {
+            set(random, scores, 0, format.gamesPerSet(), random.nextBoolean());
+            open = 2;
+        }
+        scores[open] = random.nextInt(format.gamesPerSet());
+        scores[open + 1] = random.nextInt(format.gamesPerSet());
+    }
+}
@@ -0,0 +1,62 @@
+package com.tennisfun.service;
+
+import com.tennisfun.entity.MatchStatus;
+import com.tennisfun.event.MatchSnapshot;
+
+/**
+ * Elo-beräkning för ett enskilt matchresultat.
+ * <p>
+ * Utfallet väger in marginalen: 70 % av poängen kommer från vinst/förlust och
+ * 30 % från andelen vunna games. W.O. påverkar inte ratingen och en uppgiven
+ * match räknas med halv K-faktor.
+ */
+final class EloCalculator {
+
+    static final double INITIAL_RATING = 1500.0;
+    static final double K_FACTOR = 32.0;
+
+    private static final double RETIRED_WEIGHT = 0.5;
+    private static final double WIN_SHARE = 0.7;
+
+    private EloCalculator() {
+    }
+
+    /**
+     * Ratingoberoende del av en match: faktiskt utfall för spelare 1 och K-faktor.
+     * Kan därför räknas fram parallellt innan ratingarna viks ihop i tidsordning.
+     */
+    record Outcome(String player1, String player2, double score1, double k) {
+
+        Delta apply(double rating1, double rating2) {
+            double expected1 = expected(rating1, rating2);
+            double delta1 = k * (score1 - expected1);
+            return new Delta(delta1, -delta1);
+        }
+    }
+
+    record Delta(double delta1, double delta2) {
+    }
+
+    // Null när matchen inte ska påverka ratingen (W.O., ofullständigt resultat)
+    static Outcome outcome(MatchSnapshot match) {
+        if (match == null || match.status() == null || match.status() == MatchStatus.WALKOVER
+                || match.winner() == null || match.player1() == null || match.player2() == null) {
+            return null;
+        }
+        boolean player1Won = match.winner().equals(match.player1());
+        if (!player1Won && !match.winner().equals(match.player2())) {
+            return null;
+        }
+        double win = player1Won ? 1.0 : 0.0;
+        int games1 = match.games(true);
+        int games2 = match.games(false);
+        double gameShare = games1 + games2 > 0 ? (double) games1 / (games1 + games2) : win;
+        double score1 = WIN_SHARE * win + (1 - WIN_SHARE) * gameShare;
+        double k = match.status() == MatchStatus.RETIRED ? K_FACTOR * RETIRED_WEIGHT : K_FACTOR;
+        return new Outcome(match.player1(), match.player2(), score1, k);
+    }
+
+    static double expected(double rating, double opponentRating) {
+        return 1.0 / (1.0 + Math.pow(10.0, (opponentRating - rating) / 400.0));
+    }
+}
@@ -0,0 +1,394 @@
+package com.tennisfun.service;
+
+import com.tennisfun.dto.DrawRequest;
+import com.tennisfun.dto.DrawResultDTO;
+import com.tennisfun.dto.TournamentGroupDTO;
+import com.tennisfun.entity.PlayerRating;
+import com.tennisfun.entity.TournamentGroup;
+import com.tennisfun.repository.PlayerRatingRepository;
+import com.tennisfun.repository.TournamentGroupRepository;
+import com.tennisfun.repository.TournamentRepository;
+import com.tennisfun.tenant.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Lottar spelare till jämnstarka grupper.
+ * <p>
+ * Varje grupp får så lika snittrating som möjligt, de högst rankade spelarna
+ * (en per grupp) sprids ut och par som spelade i samma grupp i klubbens
+ * senaste turnering undviks. Sökningen är simulated annealing med byten av
+ * två spelare mellan grupper; en kedja per kärna körs parallellt med egen
+ * slumpgenerator och den bästa lottningen vinner.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GroupDrawService {
+
+    private static final int DEFAULT_TIME_LIMIT_MS = 300;
+    private static final int MAX_TIME_LIMIT_MS = 900;
+
+    // Kostnadsvikter; snittratingen mäts i standardavvikelser
+    private static final double BALANCE_WEIGHT = 10.0;
+    private static final double REPEAT_WEIGHT = 1.0;
+    private static final double SEED_WEIGHT = 0.5;
+
+    private static final double START_TEMPERATURE = 1.0;
+    private static final double END_TEMPERATURE = 0.001;
+
+    private final PlayerRatingRepository ratingRepository;
+    private final TournamentRepository tournamentRepository;
+    private final TournamentGroupRepository groupRepository;
+
+    // Ingen transaktion runt sökningen, så att ingen anslutning hålls under annealingen
+    public DrawResultDTO draw(DrawRequest request) {
+        List<String> players = normalizePlayers(request.getPlayers());
+        int groupCount = request.getNumberOfGroups() != null ? request.getNumberOfGroups() : 0;
+        if (groupCount < 1) {
+            throw new IllegalArgumentException("Antal grupper måste vara minst 1");
+        }
+        if (players.size() < groupCount * 2) {
+            throw new IllegalArgumentException("Det behövs minst två spelare per grupp");
+        }
+        int timeLimit = request.getTimeLimitMs() != null
+                ? Math.max(10, Math.min(MAX_TIME_LIMIT_MS, request.getTimeLimitMs())) : DEFAULT_TIME_LIMIT_MS;
+
+        String tenantId = TenantContext.current();
+        Map<String, Double> ratings = new HashMap<>();
+        for (PlayerRating rating : ratingRepository.findByTenantIdOrderByRatingDesc(tenantId)) {
+            ratings.put(rating.getPlayerName(), rating.getRating());
+        }
+        boolean avoidPrevious = request.getAvoidPreviousGroups() == null || request.getAvoidPreviousGroups();
+        long baseSeed = request.getSeed() != null ? request.getSeed() : System.nanoTime();
+        Problem problem = new Problem(players, groupCount, ratings,
+                avoidPrevious ? previousGroups(tenantId) : List.of(), new SplittableRandom(baseSeed));
+
+        long start = System.currentTimeMillis();
+        long deadline = System.nanoTime() + timeLimit * 1_000_000L;
+        int chains = Math.max(1, ForkJoinPool.getCommonPoolParallelism());
+
+        List<CompletableFuture<Chain>> futures = new ArrayList<>();
+        for (int i = 0; i < chains; i++) {
+            long seed = baseSeed + i * 0x9E3779B97F4A7C15L;
+            boolean fromSnake = i == 0;
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                Chain chain = new Chain(problem, new SplittableRandom(seed), fromSnake);
+                chain.anneal(deadline);
+                return chain;
+            }));
+        }
+        Chain best = null;
+        long iterations = 0;
+        for (CompletableFuture<Chain> future : futures) {
+            Chain chain = future.join();
+            iterations += chain.iterations;
+            if (best == null || chain.bestCost < best.bestCost) {
+                best = chain;
+            }
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        log.info("Drew {} players into {} groups: cost {} after {} iterations on {} chains in {} ms",
+                players.size(), groupCount, best.bestCost, iterations, chains, elapsed);
+        return problem.toResult(best.bestAssignment, iterations, elapsed);
+    }
+
+    private List<String> normalizePlayers(List<String> players) {
+        if (players == null || players.isEmpty()) {
+            throw new IllegalArgumentException("Spelarlistan får inte vara tom");
+        }
+        Set<String> unique = new LinkedHashSet<>();
+        for (String player : players) {
+            if (player != null && !player.trim().isEmpty() && !unique.add(player.trim())) {
+                throw new IllegalArgumentException("Spelaren '" + player.trim() + "' finns flera gånger i listan");
+            }
+        }
+        return new ArrayList<>(unique);
+    }
+
+    // Gruppspelsgrupperna (minst tre spelare) i klubbens senaste turnering
+    private List<List<String>> previousGroups(String tenantId) {
+        return tournamentRepository.findFirstByTenantIdOrderByDateDescIdDesc(tenantId)
+                .map(tournament -> groupRepository.findByTournamentId(tournament.getId()).stream()
+                        .map(TournamentGroup::getParticipants)
+                        .filter(participants -> participants != null && participants.size() > 2)
+                        .map(participants -> (List<String>) new ArrayList<>(participants))
+                        .toList())
+                .orElse(List.of());
+    }
+
+    /**
+     * Oföränderlig beskrivning av lottningen i primitiva arrayer, delad mellan kedjorna.
+     */
+    private static final class Problem {
+        final String[] names;
+        final int groupCount;
+        final int[] groupSizes;
+        final double[] z;            // Rating i standardavvikelser från snittet
+        final double[] ratings;
+        final boolean[] seeded;      // De groupCount högst rankade
+        final int[][] partners;      // Tidigare gruppkamrater per spelare
+        final int[] snake;           // Ormseedning som startpunkt
+
+        Problem(List<String> players, int groupCount, Map<String, Double> ratingMap, List<List<String>> previous,
+                SplittableRandom random) {
+            int n = players.size();
+            this.names = players.toArray(new String[0]);
+            this.groupCount = groupCount;
+            this.ratings = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                ratings[i] = ratingMap.getOrDefault(names[i], EloCalculator.INITIAL_RATING);
+                sum += ratings[i];
+            }
+            double mean = sum / n;
+            double variance = 0;
+            for (double rating : ratings) {
+                variance += (rating - mean) * (rating - mean);
+            }
+            double deviation = Math.sqrt(variance / n);
+            this.z = new double[n];
+            for (int i = 0; i < n; i++) {
+                z[i] = deviation > 0 ? (ratings[i] - mean) / deviation : 0;
+            }
+
+            // Blandas före den stabila sorteringen så att spelare med samma rating lottas
+            Integer[] order = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+            }
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                Integer tmp = order[i];
+                order[i] = order[j];
+                order[j] = tmp;
+            }
+            Arrays.sort(order, (a, b) -> Double.compare(ratings[b], ratings[a]));
+            this.seeded = new boolean[n];
+            boolean anyRated = deviation > 0;
+            for (int i = 0; i < groupCount && anyRated; i++) {
+                seeded[order[i]] = true;
+            }
+            this.snake = new int[n];
+            this.groupSizes = new int[groupCount];
+            for (int i = 0; i < n; i++) {
+                int round = i / groupCount;
+                int position = i % groupCount;
+                int group = round % 2 == 0 ? position : groupCount - 1 - position;
+                snake[order[i]] = group;
+                groupSizes[group]++;
+            }
+
+            Map<String, Integer> index = new HashMap<>();
+            for (int i = 0; i < n; i++) {
+                index.put(names[i], i);
+            }
+            List<Set<Integer>> partnerSets = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                partnerSets.add(new HashSet<>());
+            }
+            for (List<String> group : previous) {
+                List<Integer> members = group.stream().map(index::get).filter(Objects::nonNull).toList();
+                for (int a : members) {
+                    for (int b : members) {
+                        if (a != b) {
+                            partnerSets.get(a).add(b);
+                        }
+                    }
+                }
+            }
+            this.partners = new int[n][];
+            for (int i = 0; i < n; i++) {
+                partners[i] = partnerSets.get(i).stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+
+        DrawResultDTO toResult(int[] assignment, long iterations, long elapsedMs) {
+            List<List<Integer>> members = new ArrayList<>();
+            for (int g = 0; g < groupCount; g++) {
+                members.add(new ArrayList<>());
+            }
+            for (int i = 0; i < assignment.length; i++) {
+                members.get(assignment[i]).add(i);
+            }
+            List<TournamentGroupDTO> groups = new ArrayList<>();
+            List<Double> averages = new ArrayList<>();
+            int repeats = 0;
+            for (int g = 0; g < groupCount; g++) {
+                List<Integer> group = members.get(g);
+                group.sort((a, b) -> Double.compare(ratings[b], ratings[a]));
+                double sum = 0;
+                for (int player : group) {
+                    sum += ratings[player];
+                    for (int partner : partners[player]) {
+                        if (assignment[partner] == g && partner > player) {
+                            repeats++;
+                        }
+                    }
+                }
+                averages.add(Math.round(sum / group.size() * 10) / 10.0);
+                groups.add(new TournamentGroupDTO(g + 1,
+                        group.stream().map(i -> names[i]).toList(), null, null));
+            }
+            return new DrawResultDTO(groups, averages, repeats, iterations, elapsedMs);
+        }
+    }
+
+    /**
+     * En annealing-kedja. Kostnaden hålls inkrementellt: gruppsummor, antal seedade
+     * per grupp och, per spelare, antal tidigare gruppkamrater i varje grupp.
+     */
+    private static final class Chain {
+        final Problem problem;
+        final SplittableRandom random;
+        final int[] assignment;
+        final double[] groupSum;
+        final int[] seedCount;
+        final int[][] partnersInGroup;
+        double cost;
+        double bestCost;
+        int[] bestAssignment;
+        long iterations;
+
+        Chain(Problem problem, SplittableRandom random, boolean fromSnake) {
+            this.problem = problem;
+            this.random = random;
+            int n = problem.names.length;
+            this.assignment = problem.snake.clone();
+            if (!fromSnake) {
+                for (int i = n - 1; i > 0; i--) {
+                    int j = random.nextInt(i + 1);
+                    int tmp = assignment[i];
+                    assignment[i] = assignment[j];
+                    assignment[j] = tmp;
+                }
+            }
+            this.groupSum = new double[problem.groupCount];
+            this.seedCount = new int[problem.groupCount];
+            this.partnersInGroup = new int[n][problem.groupCount];
+            for (int i = 0; i < n; i++) {
+                groupSum[assignment[i]] += problem.z[i];
+                if (problem.seeded[i]) {
+                    seedCount[assignment[i]]++;
+                }
+                for (int partner : problem.partners[i]) {
+                    partnersInGroup[partner][assignment[i]]++;
+                }
+            }
+            this.cost = fullCost();
+            this.bestCost = cost;
+            this.bestAssignment = assignment.clone();
+        }
+
+        void anneal(long deadline) {
+            int n = assignment.length;
+            if (problem.groupCount < 2) {
+                return;
+            }
+            long start = System.nanoTime();
+            double span = Math.max(1, deadline - start);
+            double temperature = START_TEMPERATURE;
+            while (true) {
+                if ((iterations & 1023) == 0) {
+                    long now = System.nanoTime();
+                    if (now >= deadline || bestCost == 0) {
+                        return;
+                    }
+                    double progress = (now - start) / span;
+                    temperature = START_TEMPERATURE * Math.pow(END_TEMPERATURE / START_TEMPERATURE, progress);
+                }
+                iterations++;
+                int p = random.nextInt(n);
+                int q = random.nextInt(n);
+                int a = assignment[p];
+                int b = assignment[q];
+                if (a == b) {
+                    continue;
+                }
+                double delta = swapDelta(p, q, a, b);
+                if (delta <= 0 || random.nextDouble() < Math.exp(-delta / temperature)) {
+                    swap(p, q, a, b);
+                    cost += delta;
+                    if (cost < bestCost - 1e-12) {
+                        bestCost = cost;
+                        System.arraycopy(assignment, 0, bestAssignment, 0, n);
+                    }
+                }
+            }
+        }
+
+        private double swapDelta(int p, int q, int a, int b) {
+            double shift = problem.z[q] - problem.z[p];
+            double balance = balanceCost(a, groupSum[a] + shift) + balanceCost(b, groupSum[b] - shift)
+                    - balanceCost(a, groupSum[a]) - balanceCost(b, groupSum[b]);
+
+            int together = 0;
+            for (int partner : problem.partners[p]) {
+                if (partner == q) {
+                    together = 1;
+                    break;
+                }
+            }
+            int repeats = (partnersInGroup[p][b] - together) + (partnersInGroup[q][a] - together)
+                    - partnersInGroup[p][a] - partnersInGroup[q][b];
+
+            int seeds = 0;
+            if (problem.seeded[p] != problem.seeded[q]) {
+                int moved = problem.seeded[p] ? 1 : -1; // Seedad spelare flyttar från a till b
+                seeds = clash(seedCount[a] - moved) + clash(seedCount[b] + moved)
+                        - clash(seedCount[a]) - clash(seedCount[b]);
+            }
+            return BALANCE_WEIGHT * balance + REPEAT_WEIGHT * repeats + SEED_WEIGHT * seeds;
+        }
+
+        private void swap(int p, int q, int a, int b) {
+            double shift = problem.z[q] - problem.z[p];
+            groupSum[a] += shift;
+            groupSum[b] -= shift;
+            if (problem.seeded[p]) {
+                seedCount[a]--;
+                seedCount[b]++;
+            }
+            if (problem.seeded[q]) {
+                seedCount[b]--;
+                seedCount[a]++;
+            }
+            for (int partner : problem.partners[p]) {
+                partnersInGroup[partner][a]--;
+                partnersInGroup[partner][b]++;
+            }
+            for (int partner : problem.partners[q]) {
+                partnersInGroup[partner][b]--;
+                partnersInGroup[partner][a]++;
+            }
+            assignment[p] = b;
+            assignment[q] = a;
+        }
+
+        private double fullCost() {
+            double total = 0;
+            for (int g = 0; g < problem.groupCount; g++) {
+                total += BALANCE_WEIGHT * balanceCost(g, groupSum[g]) + SEED_WEIGHT * clash(seedCount[g]);
+            }
+            int repeats = 0;
+            for (int i = 0; i < assignment.length; i++) {
+                repeats += partnersInGroup[i][assignment[i]];
+            }
+            return total + REPEAT_WEIGHT * repeats / 2.0;
+        }
+
+        private double balanceCost(int group, double sum) {
+            double mean = sum / problem.groupSizes[group];
+            return mean * mean;
+        }
+
+        private static int clash(int seeds) {
+            return Math.max(0, seeds - 1);
+        }
+    }
+}
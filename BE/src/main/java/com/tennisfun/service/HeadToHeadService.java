@@ -0,0 +1,199 @@
+package com.tennisfun.service;
+
+import com.tennisfun.dto.HeadToHeadDTO;
+import com.tennisfun.dto.HeadToHeadMatrixDTO;
+import com.tennisfun.entity.MatchStatus;
+import com.tennisfun.entity.Tournament;
+import com.tennisfun.entity.TournamentGroup;
+import com.tennisfun.event.MatchResultChangedEvent;
+import com.tennisfun.event.MatchSnapshot;
+import com.tennisfun.event.TournamentChangedEvent;
+import com.tennisfun.repository.MatchResultRepository;
+import com.tennisfun.repository.TournamentRepository;
+import com.tennisfun.tenant.TenantContext;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Inbördes möten för alla spelarpar i klubben, hållna i minnet.
+ * <p>
+ * Spelarnamn får ett heltals-id per klubb och varje par som har mötts lagras
+ * som en oföränderlig {@link Tally} under en long-nyckel av de två id:na.
+ * Indexet byggs vid start genom en strömmande läsning av historiken och hålls
+ * sedan aktuellt efter commit: en ändring drar av det gamla resultatet och
+ * lägger på det nya. Importer, radering av alla turneringar och ändringar från
+ * andra noder ger ingen händelse per match; då byggs klubbens index om i bakgrunden.
+ */
+@Service
+@RequiredArgsConstructor
+public class HeadToHeadService {
+
+    private final MatchResultRepository matchResultRepository;
+    private final TournamentRepository tournamentRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final TenantIndexes<TenantIndex> indexes = new TenantIndexes<>("head-to-head", this::load);
+
+    @PreDestroy
+    public void stop() {
+        indexes.stop();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        indexes.initialize(matchResultRepository::findTenantIds);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMatchResultChanged(MatchResultChangedEvent event) {
+        indexes.changed(event.tenantId());
+        TenantIndex index = indexes.peek(event.tenantId());
+        if (index != null) {
+            index.apply(event.before(), -1);
+            index.apply(event.after(), 1);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTournamentChanged(TournamentChangedEvent event) {
+        if (event.remote() || event.tournamentId() == null) {
+            indexes.rebuildLater(event.tenantId());
+        }
+    }
+
+    public HeadToHeadDTO getHeadToHead(String tenantId, String player1, String player2) {
+        if (player1.equals(player2)) {
+            throw new IllegalArgumentException("Välj två olika spelare");
+        }
+        Tally tally = indexes.get(tenantId).get(player1, player2);
+        return new HeadToHeadDTO(player1, player2, tally.matches, tally.wins1, tally.wins2,
+                tally.walkovers, tally.games1, tally.games2);
+    }
+
+    // Matris över turneringens deltagare: wins[i][j] är antal vinster för spelare i mot spelare j
+    @Transactional(readOnly = true)
+    public HeadToHeadMatrixDTO getTournamentMatrix(Long tournamentId) {
+        String tenantId = TenantContext.current();
+        Tournament tournament = tournamentRepository.findByIdAndTenantId(tournamentId, tenantId)
+                .orElseThrow(() -> new IllegalArgumentException("Turnering med ID " + tournamentId + " hittades inte"));
+        LinkedHashSet<String> participants = new LinkedHashSet<>();
+        tournament.getGroups().stream()
+                .filter(group -> group.getParticipants() != null)
+                .sorted(Comparator.comparing(TournamentGroup::getGroupNumber))
+                .forEach(group -> participants.addAll(group.getParticipants()));
+        List<String> players = new ArrayList<>(participants);
+
+        TenantIndex index = indexes.get(tenantId);
+        int n = players.size();
+        List<List<Integer>> matches = new ArrayList<>(n);
+        List<List<Integer>> wins = new ArrayList<>(n);
+        List<List<Integer>> games = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Integer[] matchRow = new Integer[n];
+            Integer[] winRow = new Integer[n];
+            Integer[] gameRow = new Integer[n];
+            for (int j = 0; j < n; j++) {
+                Tally tally = i == j ? Tally.EMPTY : index.get(players.get(i), players.get(j));
+                matchRow[j] = tally.matches;
+                winRow[j] = tally.wins1;
+                gameRow[j] = tally.games1;
+            }
+            matches.add(Arrays.asList(matchRow));
+            wins.add(Arrays.asList(winRow));
+            games.add(Arrays.asList(gameRow));
+        }
+        return new HeadToHeadMatrixDTO(tournamentId, players, matches, wins, games);
+    }
+
+    private TenantIndex load(String tenantId) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        TenantIndex index = new TenantIndex();
+        readOnly.executeWithoutResult(status -> {
+            try (Stream<MatchSnapshot> history = matchResultRepository.streamSnapshots(tenantId)) {
+                history.forEach(match -> index.apply(match, 1));
+            }
+        });
+        return index;
+    }
+
+    /**
+     * Möten mellan två spelare sett från paret med lägst id först. Ersätts
+     * helt vid varje ändring, så läsare ser alltid ett konsistent värde.
+     */
+    private record Tally(int matches, int wins1, int wins2, int walkovers, int games1, int games2) {
+
+        static final Tally EMPTY = new Tally(0, 0, 0, 0, 0, 0);
+
+        Tally plus(Tally other, int sign) {
+            return new Tally(matches + sign * other.matches, wins1 + sign * other.wins1, wins2 + sign * other.wins2,
+                    walkovers + sign * other.walkovers, games1 + sign * other.games1, games2 + sign * other.games2);
+        }
+
+        Tally flip() {
+            return new Tally(matches, wins2, wins1, walkovers, games2, games1);
+        }
+    }
+
+    private static final class TenantIndex implements TenantIndexes.Index {
+        private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+        private final AtomicInteger nextId = new AtomicInteger();
+        private final Map<Long, Tally> pairs = new ConcurrentHashMap<>();
+
+        void apply(MatchSnapshot match, int sign) {
+            if (match == null || match.player1() == null || match.player2() == null
+                    || match.player1().equals(match.player2())) {
+                return;
+            }
+            int id1 = ids.computeIfAbsent(match.player1(), name -> nextId.getAndIncrement());
+            int id2 = ids.computeIfAbsent(match.player2(), name -> nextId.getAndIncrement());
+            boolean walkover = match.status() == MatchStatus.WALKOVER;
+            Tally tally = new Tally(1,
+                    match.player1().equals(match.winner()) ? 1 : 0,
+                    match.player2().equals(match.winner()) ? 1 : 0,
+                    walkover ? 1 : 0,
+                    match.games(true), match.games(false));
+            Tally oriented = id1 < id2 ? tally : tally.flip();
+            pairs.compute(key(id1, id2), (key, current) -> {
+                Tally next = (current != null ? current : Tally.EMPTY).plus(oriented, sign);
+                return next.matches() > 0 ? next : null;
+            });
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return pairs.isEmpty();
+        }
+
+        @Override
+        public String describe() {
+            return ids.size() + " players, " + pairs.size() + " pairs";
+        }
+
+        Tally get(String player1, String player2) {
+            Integer id1 = ids.get(player1);
+            Integer id2 = ids.get(player2);
+            if (id1 == null || id2 == null) {
+                return Tally.EMPTY;
+            }
+            Tally tally = pairs.getOrDefault(key(id1, id2), Tally.EMPTY);
+            return id1 < id2 ? tally : tally.flip();
+        }
+
+        private static long key(int id1, int id2) {
+            return id1 < id2 ? ((long) id1 << 32) | id2 : ((long) id2 << 32) | id1;
+        }
+    }
+}
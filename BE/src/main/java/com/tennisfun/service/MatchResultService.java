@@ -4,10 +4,15 @@ import com.tennisfun.dto.ReportMatchRequest;
 import com.tennisfun.entity.MatchResult;
 import com.tennisfun.entity.MatchStatus;
 import com.tennisfun.entity.TournamentGroup;
+import com.tennisfun.event.MatchResultChangedEvent;
+import com.tennisfun.event.MatchSnapshot;
+import com.tennisfun.event.TournamentChangedEvent;
 import com.tennisfun.repository.MatchResultRepository;
 import com.tennisfun.repository.TournamentGroupRepository;
 import lombok.RequiredArgsConstructor;
+import com.tennisfun.tenant.TenantContext;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,16 +23,19 @@ import java.util.Optional;
 @RequiredArgsConstructor
 @Slf4j
 public class MatchResultService {
+
+    public static final String MATCH_CHANGED = "Matchen har ändrats av någon annan. Ladda om och försök igen";
     
     private final MatchResultRepository matchResultRepository;
     private final TournamentGroupRepository groupRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Transactional
     public MatchResult reportMatch(ReportMatchRequest request) {
         log.info("Reporting match: {} vs {} with status {}",
                 request.getPlayer1(), request.getPlayer2(), request.getStatus());
 
-        TournamentGroup group = groupRepository.findById(request.getGroupId())
+        TournamentGroup group = groupRepository.findByIdAndTenantId(request.getGroupId(), TenantContext.current())
                 .orElseThrow(() -> new IllegalArgumentException("Grupp med ID " + request.getGroupId() + " hittades inte"));
 
         // Kontrollera om matchen redan har rapporterats
@@ -53,11 +61,11 @@ public class MatchResultService {
         String setsPerMatch = group.getTournament() != null && group.getTournament().getSetsPerMatch() != null
                 ? group.getTournament().getSetsPerMatch() : "ett-set";
         boolean isMultiSet = !"ett-set".equals(setsPerMatch);
+        validateScores(request, gamesPerSet, isMultiSet);
 
         switch (status) {
             case PLAYED:
                 if (isMultiSet) {
-                    validateMultiSetPlayed(request);
                     result.setScore1(request.getScore1());
                     result.setScore2(request.getScore2());
                     result.setSet2Score1(request.getSet2Score1());
@@ -72,21 +80,18 @@ public class MatchResultService {
                     result.setTiebreak3Score2(request.getTiebreak3Score2());
                     result.setWinner(request.getWinner());
                 } else {
-                    validatePlayed(request, gamesPerSet);
                     result.setScore1(request.getScore1());
                     result.setScore2(request.getScore2());
                     result.setWinner(request.getScore1() > request.getScore2() ? request.getPlayer1() : request.getPlayer2());
                 }
                 break;
             case WALKOVER:
-                validateWinner(request);
                 result.setWinner(request.getWinner());
                 result.setScore1(null);
                 result.setScore2(null);
                 break;
             case RETIRED:
                 if (isMultiSet) {
-                    validateWinner(request);
                     result.setWinner(request.getWinner());
                     result.setScore1(request.getScore1());
                     result.setScore2(request.getScore2());
@@ -101,7 +106,6 @@ public class MatchResultService {
                     result.setTiebreak3Score1(request.getTiebreak3Score1());
                     result.setTiebreak3Score2(request.getTiebreak3Score2());
                 } else {
-                    validateRetired(request, gamesPerSet);
                     result.setWinner(request.getWinner());
                     result.setScore1(request.getScore1());
                     result.setScore2(request.getScore2());
@@ -111,6 +115,9 @@ public class MatchResultService {
         
         MatchResult savedResult = matchResultRepository.save(result);
         log.info("Match result saved with ID: {}", savedResult.getId());
+        publishChange(group);
+        eventPublisher.publishEvent(MatchResultChangedEvent.reported(group.getTenantId(),
+                group.getTournament().getId(), MatchSnapshot.of(savedResult, setsPerMatch)));
         
         return savedResult;
     }
@@ -215,13 +222,34 @@ public class MatchResultService {
             throw new IllegalArgumentException("Uppgiven match kan inte ha ett komplett vinnande resultat.");
         }
     }
+
+    // Resultatkontrollerna för rapportering och ändring, utan att något läses eller sparas; används även av uppvärmningen
+    void validateScores(ReportMatchRequest request, int gamesPerSet, boolean isMultiSet) {
+        switch (MatchStatus.valueOf(request.getStatus().toUpperCase())) {
+            case PLAYED -> {
+                if (isMultiSet) {
+                    validateMultiSetPlayed(request);
+                } else {
+                    validatePlayed(request, gamesPerSet);
+                }
+            }
+            case WALKOVER -> validateWinner(request);
+            case RETIRED -> {
+                if (isMultiSet) {
+                    validateWinner(request);
+                } else {
+                    validateRetired(request, gamesPerSet);
+                }
+            }
+        }
+    }
     
     @Transactional
-    public MatchResult updateMatchResult(Long id, ReportMatchRequest request) {
+    public MatchResult updateMatchResult(Long id, ReportMatchRequest request, Long expectedVersion) {
         log.info("Updating match result with ID: {}. New status: {}", id, request.getStatus());
         
-        MatchResult existingResult = matchResultRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Matchresultat med ID " + id + " hittades inte"));
+        MatchResult existingResult = getMatchResult(id);
+        Versions.check(expectedVersion, existingResult.getVersion(), MATCH_CHANGED);
 
         TournamentGroup existingGroup = groupRepository.findById(existingResult.getGroup().getId())
                 .orElseThrow(() -> new IllegalArgumentException("Grupp hittades inte"));
@@ -230,6 +258,8 @@ public class MatchResultService {
         String setsPerMatch = existingGroup.getTournament() != null && existingGroup.getTournament().getSetsPerMatch() != null
                 ? existingGroup.getTournament().getSetsPerMatch() : "ett-set";
         boolean isMultiSet = !"ett-set".equals(setsPerMatch);
+        validateScores(request, gamesPerSet, isMultiSet);
+        MatchSnapshot before = MatchSnapshot.of(existingResult, setsPerMatch);
 
         MatchStatus status = MatchStatus.valueOf(request.getStatus().toUpperCase());
         existingResult.setStatus(status);
@@ -237,11 +267,9 @@ public class MatchResultService {
         switch (status) {
             case PLAYED:
                 if (isMultiSet) {
-                    validateMultiSetPlayed(request);
                     copyMultiSetScores(existingResult, request);
                     existingResult.setWinner(request.getWinner());
                 } else {
-                    validatePlayed(request, gamesPerSet);
                     existingResult.setScore1(request.getScore1());
                     existingResult.setScore2(request.getScore2());
                     existingResult.setWinner(request.getScore1() > request.getScore2() ? existingResult.getPlayer1() : existingResult.getPlayer2());
@@ -249,7 +277,6 @@ public class MatchResultService {
                 }
                 break;
             case WALKOVER:
-                validateWinner(request);
                 existingResult.setWinner(request.getWinner());
                 existingResult.setScore1(null);
                 existingResult.setScore2(null);
@@ -257,11 +284,9 @@ public class MatchResultService {
                 break;
             case RETIRED:
                 if (isMultiSet) {
-                    validateWinner(request);
                     copyMultiSetScores(existingResult, request);
                     existingResult.setWinner(request.getWinner());
                 } else {
-                    validateRetired(request, gamesPerSet);
                     existingResult.setWinner(request.getWinner());
                     existingResult.setScore1(request.getScore1());
                     existingResult.setScore2(request.getScore2());
@@ -272,21 +297,38 @@ public class MatchResultService {
         
         MatchResult updatedResult = matchResultRepository.save(existingResult);
         log.info("Match result updated successfully");
+        publishChange(existingGroup);
+        eventPublisher.publishEvent(MatchResultChangedEvent.updated(existingGroup.getTenantId(),
+                existingGroup.getTournament().getId(), before, MatchSnapshot.of(updatedResult, setsPerMatch)));
         
         return updatedResult;
     }
     
     @Transactional
-    public void deleteMatchResult(Long id) {
-        if (!matchResultRepository.existsById(id)) {
-            throw new IllegalArgumentException("Matchresultat med ID " + id + " hittades inte");
-        }
-        matchResultRepository.deleteById(id);
+    public void deleteMatchResult(Long id, Long expectedVersion) {
+        MatchResult result = getMatchResult(id);
+        Versions.check(expectedVersion, result.getVersion(), MATCH_CHANGED);
+        TournamentGroup group = result.getGroup();
+        MatchSnapshot before = MatchSnapshot.of(result, group.getTournament().getSetsPerMatch());
+        matchResultRepository.delete(result);
+        publishChange(group);
+        eventPublisher.publishEvent(MatchResultChangedEvent.deleted(group.getTenantId(),
+                group.getTournament().getId(), before));
         log.info("Match result with ID {} deleted", id);
     }
 
+    @Transactional(readOnly = true)
+    public MatchResult getMatchResult(Long id) {
+        return matchResultRepository.findByIdAndTenantId(id, TenantContext.current())
+                .orElseThrow(() -> new IllegalArgumentException("Matchresultat med ID " + id + " hittades inte"));
+    }
+
     @Transactional(readOnly = true)
     public List<MatchResult> getMatchResultsForGroup(Long groupId) {
-        return matchResultRepository.findByGroupId(groupId);
+        return matchResultRepository.findByGroupIdAndTenantId(groupId, TenantContext.current());
+    }
+
+    private void publishChange(TournamentGroup group) {
+        eventPublisher.publishEvent(new TournamentChangedEvent(group.getTenantId(), group.getTournament().getId()));
     }
 }
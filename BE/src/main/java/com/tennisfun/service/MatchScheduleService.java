@@ -0,0 +1,274 @@
+package com.tennisfun.service;
+
+import com.tennisfun.dto.GroupScheduleDTO;
+import com.tennisfun.dto.ScheduledMatchDTO;
+import com.tennisfun.entity.MatchResult;
+import com.tennisfun.entity.Tournament;
+import com.tennisfun.entity.TournamentGroup;
+import com.tennisfun.repository.MatchResultRepository;
+import com.tennisfun.repository.TournamentGroupRepository;
+import com.tennisfun.repository.TournamentRepository;
+import com.tennisfun.tenant.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Planerar spelordningen för gruppernas återstående matcher på gruppens banor.
+ * <p>
+ * Planen byggs slot för slot: varje slot fyller alla lediga banor med matcher
+ * utan gemensamma spelare, och väljer i första hand matcher där ingen spelare
+ * spelade i föregående slot, därefter spelare som väntat längst och spelat minst.
+ * <p>
+ * Omplaneringen är inkrementell: när gruppens resultat ändras ligger de matcher
+ * som redan stod på banan kvar på sina banor, och bara de frigjorda banorna och
+ * kommande slotar planeras om. Planen räknas om bara när rapporterade matcher,
+ * deltagare eller banor har ändrats sedan förra gången.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MatchScheduleService {
+
+    private static final int MAX_CACHED_PLANS = 512;
+
+    // Straff för en spelare som spelar två slotar i rad, jämfört med en slots väntan
+    private static final int BACK_TO_BACK_PENALTY = 100;
+    private static final int PLAYED_PENALTY = 2;
+
+    private final TournamentRepository tournamentRepository;
+    private final TournamentGroupRepository groupRepository;
+    private final MatchResultRepository matchResultRepository;
+
+    private final Map<Long, Plan> plans = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Plan> eldest) {
+            return size() > MAX_CACHED_PLANS;
+        }
+    };
+
+    @Transactional(readOnly = true)
+    public GroupScheduleDTO getGroupSchedule(Long groupId) {
+        TournamentGroup group = groupRepository.findByIdAndTenantId(groupId, TenantContext.current())
+                .orElseThrow(() -> new IllegalArgumentException("Grupp med ID " + groupId + " hittades inte"));
+        return schedule(group);
+    }
+
+    @Transactional(readOnly = true)
+    public List<GroupScheduleDTO> getTournamentSchedule(Long tournamentId) {
+        Tournament tournament = tournamentRepository.findByIdAndTenantId(tournamentId, TenantContext.current())
+                .orElseThrow(() -> new IllegalArgumentException("Turnering med ID " + tournamentId + " hittades inte"));
+        return groupRepository.findByTournamentId(tournament.getId()).stream()
+                .filter(group -> group.getParticipants() != null && group.getParticipants().size() > 1)
+                .sorted(Comparator.comparing(TournamentGroup::getGroupNumber))
+                .map(this::schedule)
+                .toList();
+    }
+
+    private GroupScheduleDTO schedule(TournamentGroup group) {
+        List<String> participants = group.getParticipants() != null ? group.getParticipants() : List.of();
+        List<String> courts = new ArrayList<>();
+        for (String court : Arrays.asList(group.getCourt1(), group.getCourt2())) {
+            if (court != null && !court.trim().isEmpty()) {
+                courts.add(court.trim());
+            }
+        }
+        List<MatchResult> results = matchResultRepository.findByGroupId(group.getId());
+        Set<String> reported = new HashSet<>();
+        MatchResult latest = null;
+        for (MatchResult result : results) {
+            reported.add(pairKey(result.getPlayer1(), result.getPlayer2()));
+            if (latest == null || isAfter(result.getReportedAt(), latest.getReportedAt())) {
+                latest = result;
+            }
+        }
+        String signature = participants + "|" + courts + "|" + new TreeSet<>(reported);
+
+        Plan previous;
+        synchronized (plans) {
+            previous = plans.get(group.getId());
+        }
+        if (previous != null && previous.signature.equals(signature)) {
+            return previous.schedule;
+        }
+
+        long start = System.nanoTime();
+        Planner planner = new Planner(participants, courts.isEmpty() ? Collections.singletonList(null) : courts,
+                reported, latest, previous);
+        List<ScheduledMatchDTO> matches = planner.plan();
+        GroupScheduleDTO schedule = new GroupScheduleDTO(group.getId(), group.getGroupNumber(), courts, matches,
+                results.size(), matches.size(), planner.backToBack);
+        synchronized (plans) {
+            plans.put(group.getId(), new Plan(signature, schedule));
+        }
+        log.debug("Planned {} matches for group {} in {} µs", matches.size(), group.getId(),
+                (System.nanoTime() - start) / 1000);
+        return schedule;
+    }
+
+    private static boolean isAfter(LocalDateTime a, LocalDateTime b) {
+        return a != null && (b == null || a.isAfter(b));
+    }
+
+    private static String pairKey(String a, String b) {
+        return a.compareTo(b) <= 0 ? a + "\u0000" + b : b + "\u0000" + a;
+    }
+
+    private record Plan(String signature, GroupScheduleDTO schedule) {
+    }
+
+    /**
+     * Girig planering slot för slot. Spelare och banor hanteras som index i
+     * arrayer så att en omplanering vid varje rapport kostar några mikrosekunder.
+     */
+    private static final class Planner {
+        private final List<String> players;
+        private final List<String> courts;
+        private final List<int[]> pending = new ArrayList<>();
+        private final int[] lastSlot;     // Senaste slot spelaren spelade i, MIN_VALUE = inte ännu
+        private final int[] scheduled;
+        private final int[] courtLoad;
+        private final List<ScheduledMatchDTO> result = new ArrayList<>();
+        private final Map<Integer, int[]> pinned = new HashMap<>(); // Bana -> match som pågår
+        int backToBack;
+
+        Planner(List<String> players, List<String> courts, Set<String> reported, MatchResult latest, Plan previous) {
+            this.players = players;
+            this.courts = courts;
+            this.lastSlot = new int[players.size()];
+            this.scheduled = new int[players.size()];
+            this.courtLoad = new int[courts.size()];
+            Arrays.fill(lastSlot, Integer.MIN_VALUE);
+
+            Map<String, Integer> index = new HashMap<>();
+            for (int i = 0; i < players.size(); i++) {
+                index.put(players.get(i), i);
+            }
+            Map<String, int[]> byKey = new HashMap<>();
+            for (int i = 0; i < players.size(); i++) {
+                for (int j = i + 1; j < players.size(); j++) {
+                    String key = pairKey(players.get(i), players.get(j));
+                    if (!reported.contains(key)) {
+                        int[] match = {i, j};
+                        pending.add(match);
+                        byKey.put(key, match);
+                    }
+                }
+            }
+
+            // Matcher som stod på banan i förra planen och ännu inte är rapporterade fortsätter där
+            if (previous != null) {
+                for (ScheduledMatchDTO match : previous.schedule.getMatches()) {
+                    if (match.getSlot() != 1) {
+                        continue;
+                    }
+                    int[] stillPending = byKey.get(pairKey(match.getPlayer1(), match.getPlayer2()));
+                    int court = courts.indexOf(match.getCourt());
+                    if (stillPending != null && court >= 0 && !pinned.containsKey(court)) {
+                        pinned.put(court, stillPending);
+                    }
+                }
+            }
+
+            // De som just spelade klart räknas som spelande i slot 0
+            if (latest != null) {
+                Integer p1 = index.get(latest.getPlayer1());
+                Integer p2 = index.get(latest.getPlayer2());
+                if (p1 != null) {
+                    lastSlot[p1] = 0;
+                }
+                if (p2 != null) {
+                    lastSlot[p2] = 0;
+                }
+            }
+        }
+
+        List<ScheduledMatchDTO> plan() {
+            int slot = 1;
+            while (!pending.isEmpty()) {
+                boolean[] busy = new boolean[players.size()];
+                List<int[]> chosen = new ArrayList<>();
+                List<Integer> chosenCourts = new ArrayList<>();
+                List<Boolean> inProgress = new ArrayList<>();
+                if (slot == 1) {
+                    for (Map.Entry<Integer, int[]> entry : pinned.entrySet()) {
+                        int[] match = entry.getValue();
+                        busy[match[0]] = true;
+                        busy[match[1]] = true;
+                        pending.remove(match);
+                        chosen.add(match);
+                        chosenCourts.add(entry.getKey());
+                        inProgress.add(true);
+                    }
+                }
+                List<Integer> freeCourts = new ArrayList<>();
+                for (int c = 0; c < courts.size(); c++) {
+                    if (slot != 1 || !pinned.containsKey(c)) {
+                        freeCourts.add(c);
+                    }
+                }
+                // Minst belastade banan först så att arbetet sprids när en slot inte fyller alla banor
+                freeCourts.sort(Comparator.comparingInt(c -> courtLoad[c]));
+                for (int court : freeCourts) {
+                    int[] best = pickBest(busy, slot);
+                    if (best == null) {
+                        break;
+                    }
+                    busy[best[0]] = true;
+                    busy[best[1]] = true;
+                    pending.remove(best);
+                    chosen.add(best);
+                    chosenCourts.add(court);
+                    inProgress.add(false);
+                }
+                if (chosen.isEmpty()) {
+                    break; // Kan inte hända, men skyddar mot oändlig loop
+                }
+                for (int i = 0; i < chosen.size(); i++) {
+                    int[] match = chosen.get(i);
+                    int court = chosenCourts.get(i);
+                    for (int player : match) {
+                        if (lastSlot[player] == slot - 1) {
+                            backToBack++;
+                        }
+                        lastSlot[player] = slot;
+                        scheduled[player]++;
+                    }
+                    courtLoad[court]++;
+                    result.add(new ScheduledMatchDTO(slot, courts.get(court), players.get(match[0]),
+                            players.get(match[1]), inProgress.get(i)));
+                }
+                slot++;
+            }
+            return result;
+        }
+
+        private int[] pickBest(boolean[] busy, int slot) {
+            int[] best = null;
+            int bestScore = Integer.MAX_VALUE;
+            for (int[] match : pending) {
+                if (busy[match[0]] || busy[match[1]]) {
+                    continue;
+                }
+                int score = 0;
+                for (int player : match) {
+                    if (lastSlot[player] == slot - 1) {
+                        score += BACK_TO_BACK_PENALTY;
+                    }
+                    int waited = lastSlot[player] == Integer.MIN_VALUE ? slot : slot - lastSlot[player];
+                    score -= Math.min(waited, slot);
+                    score += PLAYED_PENALTY * scheduled[player];
+                }
+                if (score < bestScore) {
+                    bestScore = score;
+                    best = match;
+                }
+            }
+            return best;
+        }
+    }
+}
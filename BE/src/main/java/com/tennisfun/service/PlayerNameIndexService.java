@@ -0,0 +1,219 @@
+package com.tennisfun.service;
+
+import com.tennisfun.dto.PlayerSuggestionDTO;
+import com.tennisfun.event.AuditEvent;
+import com.tennisfun.event.GroupSnapshot;
+import com.tennisfun.event.GroupsChangedEvent;
+import com.tennisfun.event.MatchResultChangedEvent;
+import com.tennisfun.event.MatchSnapshot;
+import com.tennisfun.event.TournamentChangedEvent;
+import com.tennisfun.repository.MatchResultRepository;
+import com.tennisfun.repository.PlayerRepository;
+import com.tennisfun.repository.TournamentGroupRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Alla spelarnamn som har använts i klubben, hållna i minnet för autokomplettering.
+ * <p>
+ * Namnen kommer från spelarregistret, gruppernas deltagare och matcherna. Varje
+ * ord i namnet blir en nyckel utan accenter och versaler ("hakan", "haggstrom")
+ * i en sorterad karta, så en sökning är ett intervall i kartan och "hak" hittar
+ * både "Håkan" och "Hakan". Träffarna rangordnas efter antal matcher.
+ * <p>
+ * Indexet byggs vid start genom strömmande läsning och hålls sedan aktuellt efter
+ * commit: matcher ändrar antalet, nya grupper och deltagare lägger till namn.
+ * Namnbyten, importer, massåtgärder och ändringar från andra noder byggs om i
+ * bakgrunden, så att namn som inte längre används försvinner.
+ */
+@Service
+@RequiredArgsConstructor
+public class PlayerNameIndexService {
+
+    public static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 50;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+    // Sorteras efter alla nycklar med samma början
+    private static final char END = '\uffff';
+    private static final char SEPARATOR = '\u0000';
+
+    private final PlayerRepository playerRepository;
+    private final TournamentGroupRepository groupRepository;
+    private final MatchResultRepository matchResultRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final TenantIndexes<TenantNames> indexes = new TenantIndexes<>("player-name", this::load);
+
+    @PreDestroy
+    public void stop() {
+        indexes.stop();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        indexes.initialize(matchResultRepository::findTenantIds);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMatchResultChanged(MatchResultChangedEvent event) {
+        indexes.changed(event.tenantId());
+        TenantNames index = indexes.peek(event.tenantId());
+        if (index != null) {
+            index.count(event.before(), -1);
+            index.count(event.after(), 1);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGroupsChanged(GroupsChangedEvent event) {
+        indexes.changed(event.tenantId());
+        TenantNames index = indexes.peek(event.tenantId());
+        if (index != null && event.type() != GroupsChangedEvent.Type.REMOVED) {
+            event.groups().stream().map(GroupSnapshot::participants).forEach(index::addAll);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAudit(AuditEvent event) {
+        if (AuditEvent.PARTICIPANTS.equals(event.action()) && event.after() instanceof Collection<?> participants) {
+            indexes.changed(event.tenantId());
+            TenantNames index = indexes.peek(event.tenantId());
+            if (index != null) {
+                participants.forEach(name -> index.add(String.valueOf(name)));
+            }
+        } else if (AuditEvent.RENAME_PLAYER.equals(event.action())) {
+            // Det gamla namnet kan finnas kvar i andra grupper; omläsningen avgör
+            indexes.rebuildLater(event.tenantId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTournamentChanged(TournamentChangedEvent event) {
+        if (event.remote() || event.tournamentId() == null) {
+            indexes.rebuildLater(event.tenantId());
+        }
+    }
+
+    /**
+     * Namn där något ord börjar med {@code prefix}, bortsett från accenter och
+     * versaler, flest matcher först.
+     */
+    public List<PlayerSuggestionDTO> suggest(String tenantId, String prefix, Integer limit) {
+        String key = prefix != null ? fold(prefix) : "";
+        if (key.isEmpty()) {
+            throw new IllegalArgumentException("Sökningen får inte vara tom");
+        }
+        int size = limit != null ? limit : DEFAULT_LIMIT;
+        if (size < 1 || size > MAX_LIMIT) {
+            throw new IllegalArgumentException("Antal förslag måste vara mellan 1 och " + MAX_LIMIT);
+        }
+        TenantNames index = indexes.get(tenantId);
+        Set<String> names = new LinkedHashSet<>(index.keys.subMap(key, true, key + END, false).values());
+        return names.stream()
+                .map(name -> new PlayerSuggestionDTO(name, index.matches.getOrDefault(name, 0),
+                        key.equals(index.folded.get(name))))
+                .sorted(Comparator.comparing(PlayerSuggestionDTO::getSameName).reversed()
+                        .thenComparing(Comparator.comparing(PlayerSuggestionDTO::getMatches).reversed())
+                        .thenComparing(PlayerSuggestionDTO::getName, String.CASE_INSENSITIVE_ORDER))
+                .limit(size)
+                .toList();
+    }
+
+    /**
+     * Namnet utan accenter, med gemener och enkla mellanslag: "Håkan  Öberg" blir
+     * "hakan oberg". Bokstäver som inte delas upp av Unicode (ø, æ, ß) skrivs om.
+     */
+    static String fold(String name) {
+        String decomposed = MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("");
+        String lower = decomposed.toLowerCase(Locale.ROOT)
+                .replace("ø", "o").replace("æ", "ae").replace("œ", "oe")
+                .replace("ß", "ss").replace("ł", "l").replace("đ", "d").replace("þ", "th");
+        return SPACES.matcher(lower).replaceAll(" ").trim();
+    }
+
+    private TenantNames load(String tenantId) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        TenantNames index = new TenantNames();
+        readOnly.executeWithoutResult(status -> {
+            try (Stream<String> names = playerRepository.streamNames(tenantId)) {
+                names.forEach(index::add);
+            }
+            try (Stream<List<String>> groups = groupRepository.streamParticipants(tenantId)) {
+                groups.forEach(index::addAll);
+            }
+            for (Object[] row : matchResultRepository.countMatchesAsPlayer1(tenantId)) {
+                index.count((String) row[0], ((Number) row[1]).intValue());
+            }
+            for (Object[] row : matchResultRepository.countMatchesAsPlayer2(tenantId)) {
+                index.count((String) row[0], ((Number) row[1]).intValue());
+            }
+        });
+        return index;
+    }
+
+    private static final class TenantNames implements TenantIndexes.Index {
+        // Nyckel per ord i namnet: "ord resten av namnet" + SEPARATOR + namnet
+        private final NavigableMap<String, String> keys = new ConcurrentSkipListMap<>();
+        private final Map<String, Integer> matches = new ConcurrentHashMap<>();
+        private final Map<String, String> folded = new ConcurrentHashMap<>();
+
+        @Override
+        public boolean isEmpty() {
+            return matches.isEmpty();
+        }
+
+        @Override
+        public String describe() {
+            return matches.size() + " names";
+        }
+
+        void addAll(Collection<String> names) {
+            if (names != null) {
+                names.forEach(this::add);
+            }
+        }
+
+        void add(String name) {
+            if (name == null || name.isBlank() || matches.putIfAbsent(name, 0) != null) {
+                return;
+            }
+            String key = fold(name);
+            folded.put(name, key);
+            for (int i = 0; i < key.length(); i++) {
+                if (i == 0 || key.charAt(i - 1) == ' ' || key.charAt(i - 1) == '-') {
+                    keys.put(key.substring(i) + SEPARATOR + name, name);
+                }
+            }
+        }
+
+        void count(MatchSnapshot match, int sign) {
+            if (match != null) {
+                count(match.player1(), sign);
+                count(match.player2(), sign);
+            }
+        }
+
+        void count(String name, int delta) {
+            if (name != null && !name.isBlank()) {
+                add(name);
+                matches.merge(name, delta, (current, change) -> Math.max(0, current + change));
+            }
+        }
+    }
+}
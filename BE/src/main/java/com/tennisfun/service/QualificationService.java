@@ -0,0 +1,394 @@
+package com.tennisfun.service;
+
+import com.tennisfun.dto.PlayerQualificationDTO;
+import com.tennisfun.dto.QualificationDTO;
+import com.tennisfun.entity.MatchResult;
+import com.tennisfun.entity.TournamentGroup;
+import com.tennisfun.event.MatchSnapshot;
+import com.tennisfun.repository.MatchResultRepository;
+import com.tennisfun.repository.TournamentGroupRepository;
+import com.tennisfun.service.StandingsCalculator.Standing;
+import com.tennisfun.tenant.TenantContext;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Räknar ut vad varje spelare i en grupp behöver för att gå vidare.
+ * <p>
+ * För varje spelare gås alla kombinationer av spelarens egna återstående
+ * resultat igenom. För varje kombination räknas bästa och sämsta möjliga
+ * placering över alla utfall av övriga matcher, utan att räkna upp dem: vilka
+ * spelare som kan hamna över eller i nivå avgörs som flödesproblem. Poäng avgörs exakt;
+ * när spelare hamnar på samma poäng avgör set- och gameskillnad, som beror på
+ * siffrorna i matcher som inte är spelade, så sådana lägen redovisas som
+ * beroende av skiljetecken. När gruppen är färdigspelad används hela
+ * ordningen (poäng, setskillnad, gameskillnad, vunna games).
+ * <p>
+ * Spelarna och deras egna kombinationer räknas parallellt i en fork/join-pool.
+ * Delresultat memoreras per spelare på (gräns, vinster per spelare) och delas
+ * mellan kombinationer som ger samma läge.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class QualificationService {
+
+    private static final int MAX_PLAYERS = 14; // 4 bitar per spelare i memonyckeln
+
+    private final TournamentGroupRepository groupRepository;
+    private final MatchResultRepository matchResultRepository;
+
+    private final ForkJoinPool pool = new ForkJoinPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+
+    @PreDestroy
+    public void stop() {
+        pool.shutdownNow();
+    }
+
+    @Transactional(readOnly = true)
+    public QualificationDTO getQualification(Long groupId, Integer qualifiers) {
+        long start = System.nanoTime();
+        TournamentGroup group = groupRepository.findByIdAndTenantId(groupId, TenantContext.current())
+                .orElseThrow(() -> new IllegalArgumentException("Grupp med ID " + groupId + " hittades inte"));
+        List<String> participants = group.getParticipants() != null ? group.getParticipants() : List.of();
+        if (participants.size() < 2) {
+            throw new IllegalArgumentException("Gruppen har för få deltagare");
+        }
+        if (participants.size() > MAX_PLAYERS) {
+            throw new IllegalArgumentException("Gruppen är för stor för en exakt beräkning (max " + MAX_PLAYERS + " spelare)");
+        }
+        Integer configured = qualifiers != null ? qualifiers : group.getTournament().getNumberOfWinners();
+        int k = Math.max(1, Math.min(participants.size(), configured != null ? configured : 2));
+
+        String setsPerMatch = group.getTournament().getSetsPerMatch();
+        List<MatchSnapshot> results = new ArrayList<>();
+        for (MatchResult result : matchResultRepository.findByGroupIdAndTenantId(groupId, TenantContext.current())) {
+            results.add(MatchSnapshot.of(result, setsPerMatch));
+        }
+        List<Standing> standings = StandingsCalculator.standings(participants, results);
+
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < participants.size(); i++) {
+            index.put(participants.get(i), i);
+        }
+        int[] wins = new int[participants.size()];
+        Set<String> played = new HashSet<>();
+        for (Standing standing : standings) {
+            wins[index.get(standing.player())] = standing.wins();
+        }
+        for (MatchSnapshot result : results) {
+            played.add(pairKey(result.player1(), result.player2()));
+        }
+        List<int[]> remaining = new ArrayList<>();
+        List<String> remainingNames = new ArrayList<>();
+        for (int i = 0; i < participants.size(); i++) {
+            for (int j = i + 1; j < participants.size(); j++) {
+                if (!played.contains(pairKey(participants.get(i), participants.get(j)))) {
+                    remaining.add(new int[]{i, j});
+                    remainingNames.add(participants.get(i) + " – " + participants.get(j));
+                }
+            }
+        }
+
+        List<PlayerQualificationDTO> players;
+        if (remaining.isEmpty()) {
+            players = finalStandings(standings, k);
+        } else {
+            Solver solver = new Solver(participants, wins, remaining, k);
+            try {
+                PlayerQualificationDTO[] solved = pool.submit(() -> IntStream.range(0, participants.size())
+                        .parallel()
+                        .mapToObj(solver::solve)
+                        .toArray(PlayerQualificationDTO[]::new)).get();
+                players = new ArrayList<>(Arrays.asList(solved));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Beräkningen avbröts", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Beräkningen misslyckades", e.getCause());
+            }
+            // Samma ordning som gruppställningen
+            Map<String, Integer> order = new HashMap<>();
+            for (int i = 0; i < standings.size(); i++) {
+                order.put(standings.get(i).player(), i);
+            }
+            players.sort(Comparator.comparing(p -> order.get(p.getPlayer())));
+        }
+        long elapsed = (System.nanoTime() - start) / 1000;
+        log.debug("Qualification for group {} ({} players, {} open matches) in {} µs",
+                groupId, participants.size(), remaining.size(), elapsed);
+        return new QualificationDTO(groupId, k, remainingNames, players, elapsed);
+    }
+
+    private List<PlayerQualificationDTO> finalStandings(List<Standing> standings, int k) {
+        List<PlayerQualificationDTO> players = new ArrayList<>();
+        for (int rank = 1; rank <= standings.size(); rank++) {
+            Standing standing = standings.get(rank - 1);
+            boolean through = rank <= k;
+            players.add(new PlayerQualificationDTO(standing.player(), standing.points(), 0,
+                    through ? "CLINCHED" : "ELIMINATED", rank, rank, List.of()));
+        }
+        return players;
+    }
+
+    private static String pairKey(String a, String b) {
+        return a.compareTo(b) <= 0 ? a + "\u0000" + b : b + "\u0000" + a;
+    }
+
+    /**
+     * Beräkningen för en grupp. Vinster hålls per spelare i int-arrayer och
+     * memonyckeln packar dem i en long.
+     */
+    private static final class Solver {
+        private final List<String> names;
+        private final int[] wins;
+        private final List<int[]> remaining;
+        private final int k;
+        private final int n;
+
+        Solver(List<String> names, int[] wins, List<int[]> remaining, int k) {
+            this.names = names;
+            this.wins = wins;
+            this.remaining = remaining;
+            this.k = k;
+            this.n = names.size();
+        }
+
+        PlayerQualificationDTO solve(int player) {
+            List<int[]> own = new ArrayList<>();
+            List<int[]> others = new ArrayList<>();
+            for (int[] match : remaining) {
+                (match[0] == player || match[1] == player ? own : others).add(match);
+            }
+            int[][] otherMatches = others.toArray(new int[0][]);
+            int[] open = new int[n];
+            for (int[] match : otherMatches) {
+                open[match[0]]++;
+                open[match[1]]++;
+            }
+            Map<Long, int[]> memo = new ConcurrentHashMap<>();
+            int combos = 1 << own.size();
+
+            // Per kombination: 0 = går alltid vidare, 1 = kan gå vidare, 2 = kan inte gå vidare
+            int[] outcome = new int[combos];
+            int[] best = new int[combos];
+            int[] worst = new int[combos];
+            IntStream.range(0, combos).parallel().forEach(mask -> {
+                int[] start = wins.clone();
+                for (int j = 0; j < own.size(); j++) {
+                    int[] match = own.get(j);
+                    int opponent = match[0] == player ? match[1] : match[0];
+                    start[(mask & (1 << j)) != 0 ? player : opponent]++;
+                }
+                int threshold = start[player];
+                start[player] = 0; // Ingår inte bland övriga
+                int[] bounds = memo.computeIfAbsent(key(threshold, start),
+                        key -> bounds(player, threshold, start, open, otherMatches));
+                int minAbove = bounds[0];
+                int maxAtOrAbove = bounds[1];
+                best[mask] = minAbove + 1;
+                worst[mask] = maxAtOrAbove + 1;
+                outcome[mask] = maxAtOrAbove < k ? 0 : minAbove >= k ? 2 : 1;
+            });
+
+            int bestRank = Arrays.stream(best).min().orElse(1);
+            int worstRank = Arrays.stream(worst).max().orElse(n);
+            boolean always = Arrays.stream(outcome).allMatch(o -> o == 0);
+            boolean never = Arrays.stream(outcome).allMatch(o -> o == 2);
+            String status = always ? "CLINCHED" : never ? "ELIMINATED" : "OPEN";
+            List<String> conditions = always || never ? List.of() : conditions(player, own, outcome);
+            return new PlayerQualificationDTO(names.get(player), wins[player] * StandingsCalculator.POINTS_PER_WIN,
+                    own.size(), status, bestRank, worstRank, conditions);
+        }
+
+        /**
+         * Minsta antal övriga spelare som måste sluta över {@code t} vinster, och
+         * största antal som kan nå minst {@code t}, över alla utfall av övriga matcher.
+         * Spelare som redan ligger över, eller inte kan nå gränsen, avgörs direkt; för
+         * de osäkra prövas mängder med ett flödesproblem (varje match ger en vinst till
+         * en av sina två spelare) med början i den mest gynnsamma storleken.
+         */
+        private int[] bounds(int player, int t, int[] start, int[] open, int[][] matches) {
+            int above = 0;
+            int atOrAbove = 0;
+            List<Integer> mayExceed = new ArrayList<>();
+            List<Integer> mayReach = new ArrayList<>();
+            for (int q = 0; q < n; q++) {
+                if (q == player) {
+                    continue;
+                }
+                if (start[q] > t) {
+                    above++;
+                } else if (start[q] + open[q] > t) {
+                    mayExceed.add(q);
+                }
+                if (start[q] >= t) {
+                    atOrAbove++;
+                } else if (start[q] + open[q] >= t) {
+                    mayReach.add(q);
+                }
+            }
+
+            int minAbove = above + mayExceed.size();
+            search:
+            for (int size = 0; size <= mayExceed.size(); size++) {
+                for (int subset : subsetsOfSize(mayExceed.size(), size)) {
+                    int[] capacity = new int[n];
+                    for (int q = 0; q < n; q++) {
+                        capacity[q] = q == player ? 0 : start[q] > t ? Integer.MAX_VALUE : t - start[q];
+                    }
+                    for (int c = 0; c < mayExceed.size(); c++) {
+                        if ((subset & (1 << c)) != 0) {
+                            capacity[mayExceed.get(c)] = Integer.MAX_VALUE;
+                        }
+                    }
+                    if (assign(matches, capacity) == matches.length) {
+                        minAbove = above + size;
+                        break search;
+                    }
+                }
+            }
+
+            int maxAtOrAbove = atOrAbove;
+            search:
+            for (int size = mayReach.size(); size > 0; size--) {
+                for (int subset : subsetsOfSize(mayReach.size(), size)) {
+                    int[] capacity = new int[n];
+                    int needed = 0;
+                    for (int c = 0; c < mayReach.size(); c++) {
+                        if ((subset & (1 << c)) != 0) {
+                            int q = mayReach.get(c);
+                            capacity[q] = t - start[q];
+                            needed += capacity[q];
+                        }
+                    }
+                    if (assign(matches, capacity) == needed) {
+                        maxAtOrAbove = atOrAbove + size;
+                        break search;
+                    }
+                }
+            }
+            return new int[]{minAbove, maxAtOrAbove};
+        }
+
+        /**
+         * Största antal matcher som kan ges en vinnare utan att någon spelare får fler
+         * vinster än sin kapacitet (bipartit b-matchning med förstärkande stigar).
+         */
+        private int assign(int[][] matches, int[] capacity) {
+            int[] winner = new int[matches.length];
+            Arrays.fill(winner, -1);
+            int[] load = new int[n];
+            int assigned = 0;
+            for (int i = 0; i < matches.length; i++) {
+                if (place(i, -1, matches, capacity, winner, load, new boolean[n])) {
+                    assigned++;
+                }
+            }
+            return assigned;
+        }
+
+        // Ger match i till en spelare (inte {@code excluded}), ev. genom att flytta andra matcher
+        private boolean place(int i, int excluded, int[][] matches, int[] capacity, int[] winner, int[] load,
+                              boolean[] visited) {
+            for (int q : matches[i]) {
+                if (q == excluded || visited[q] || capacity[q] == 0) {
+                    continue;
+                }
+                visited[q] = true;
+                if (load[q] < capacity[q]) {
+                    winner[i] = q;
+                    load[q]++;
+                    return true;
+                }
+                for (int j = 0; j < matches.length; j++) {
+                    if (winner[j] == q && place(j, q, matches, capacity, winner, load, visited)) {
+                        winner[i] = q; // j flyttades till sin andra spelare, så q:s last är oförändrad
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private static List<Integer> subsetsOfSize(int count, int size) {
+            List<Integer> subsets = new ArrayList<>();
+            for (int mask = 0; mask < (1 << count); mask++) {
+                if (Integer.bitCount(mask) == size) {
+                    subsets.add(mask);
+                }
+            }
+            return subsets;
+        }
+
+        private long key(int threshold, int[] state) {
+            long key = threshold;
+            for (int q = 0; q < n; q++) {
+                key = (key << 4) | state[q];
+            }
+            return key;
+        }
+
+        // Minimala mängder egna vinster som räcker respektive behövs
+        private List<String> conditions(int player, List<int[]> own, int[] outcome) {
+            List<String> conditions = new ArrayList<>();
+            List<Integer> guaranteed = minimalMasks(outcome, 0);
+            for (int mask : guaranteed) {
+                conditions.add(mask == 0
+                        ? "Går vidare oavsett egna resultat"
+                        : "Går vidare med vinst mot " + opponents(player, own, mask));
+            }
+            if (guaranteed.isEmpty()) {
+                for (int mask : minimalMasks(outcome, 1)) {
+                    conditions.add(mask == 0
+                            ? "Kan gå vidare även utan fler vinster, beroende på övriga resultat eller set-/gameskillnad"
+                            : "Kan gå vidare med vinst mot " + opponents(player, own, mask)
+                              + ", beroende på övriga resultat eller set-/gameskillnad");
+                }
+            }
+            return conditions;
+        }
+
+        // Kombinationer med utfall högst {@code level} där ingen delmängd också räcker
+        private List<Integer> minimalMasks(int[] outcome, int level) {
+            List<Integer> masks = new ArrayList<>();
+            for (int mask = 0; mask < outcome.length; mask++) {
+                if (outcome[mask] > level) {
+                    continue;
+                }
+                boolean minimal = true;
+                for (int other : masks) {
+                    if ((other & mask) == other) {
+                        minimal = false;
+                        break;
+                    }
+                }
+                if (minimal) {
+                    masks.add(mask);
+                }
+            }
+            return masks;
+        }
+
+        private String opponents(int player, List<int[]> own, int mask) {
+            List<String> beaten = new ArrayList<>();
+            for (int j = 0; j < own.size(); j++) {
+                if ((mask & (1 << j)) != 0) {
+                    int[] match = own.get(j);
+                    beaten.add(names.get(match[0] == player ? match[1] : match[0]));
+                }
+            }
+            return beaten.size() == 1 ? beaten.get(0)
+                    : String.join(", ", beaten.subList(0, beaten.size() - 1)) + " och " + beaten.get(beaten.size() - 1);
+        }
+    }
+}
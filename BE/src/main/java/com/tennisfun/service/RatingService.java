@@ -0,0 +1,298 @@
+package com.tennisfun.service;
+
+import com.tennisfun.dto.RatingConsistencyDTO;
+import com.tennisfun.entity.PlayerRating;
+import com.tennisfun.entity.RatingEntry;
+import com.tennisfun.event.MatchResultChangedEvent;
+import com.tennisfun.event.MatchSnapshot;
+import com.tennisfun.repository.MatchResultRepository;
+import com.tennisfun.repository.PlayerRatingRepository;
+import com.tennisfun.repository.RatingEntryRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * Håller Elo-ratingen per spelare aktuell.
+ * <p>
+ * Varje rapport, ändring eller borttagning ger en O(1)-uppdatering efter commit:
+ * den tidigare ratingförändringen för matchen backas via {@link RatingEntry} och
+ * den nya läggs på. Alla skrivningar sker på en enda tråd så att uppdateringar
+ * inom noden aldrig korsar varandra. En ändrad gammal match räknas mot dagens
+ * ratingar, så efter ändringar i historiken kan en full omräkning ge något
+ * annorlunda värden; {@link #checkConsistency(String)} visar hur stor skillnaden är.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RatingService {
+
+    private static final String INSERT_RATING =
+            "INSERT INTO player_ratings (tenant_id, player_name, rating, matches, updated_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_ENTRY =
+            "INSERT INTO rating_entries (match_result_id, tenant_id, player1, player2, delta1, delta2) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final int BATCH_SIZE = 500;
+    private static final double TOLERANCE = 1e-6;
+
+    private final PlayerRatingRepository ratingRepository;
+    private final RatingEntryRepository entryRepository;
+    private final MatchResultRepository matchResultRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "rating-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ForkJoinPool rebuildPool = new ForkJoinPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+
+    @PreDestroy
+    public void stop() {
+        writer.shutdownNow();
+        rebuildPool.shutdownNow();
+    }
+
+    // Räknar om allt vid första start, då resultat finns men inga ratingar ännu
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        writer.execute(() -> {
+            try {
+                List<String> missing = matchResultRepository.findTenantIds().stream()
+                        .filter(tenantId -> ratingRepository.countByTenantId(tenantId) == 0)
+                        .toList();
+                if (!missing.isEmpty()) {
+                    rebuildTenants(missing);
+                }
+            } catch (Exception e) {
+                log.warn("Initial rating build failed: {}", e.getMessage());
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMatchResultChanged(MatchResultChangedEvent event) {
+        writer.execute(() -> {
+            try {
+                transactionTemplate.executeWithoutResult(status -> apply(event));
+            } catch (Exception e) {
+                log.warn("Could not update ratings for match {} ({}), rebuild recommended: {}",
+                        event.matchId(), event.type(), e.getMessage());
+            }
+        });
+    }
+
+    // Schemalägger omräkning efter åtgärder som inte går via händelser, t.ex. import
+    public void scheduleRebuild(String tenantId) {
+        writer.execute(() -> rebuildTenants(List.of(tenantId)));
+    }
+
+    public int rebuild(String tenantId) throws InterruptedException, ExecutionException {
+        return writer.submit(() -> rebuildTenants(List.of(tenantId))).get();
+    }
+
+    public int rebuildAll() throws InterruptedException, ExecutionException {
+        return writer.submit(() -> rebuildTenants(matchResultRepository.findTenantIds())).get();
+    }
+
+    public List<PlayerRating> getRatings(String tenantId) {
+        return ratingRepository.findByTenantIdOrderByRatingDesc(tenantId);
+    }
+
+    public PlayerRating getRating(String tenantId, String playerName) {
+        return ratingRepository.findByTenantIdAndPlayerName(tenantId, playerName)
+                .orElseThrow(() -> new IllegalArgumentException("Ingen rating finns för spelaren '" + playerName + "'"));
+    }
+
+    /**
+     * Jämför lagrade ratingar dels med summan av ledgerns förändringar (ska alltid
+     * stämma exakt), dels med en full omräkning av historiken i rapporteringsordning.
+     */
+    public RatingConsistencyDTO checkConsistency(String tenantId) {
+        Replay replay = replay(tenantId);
+        List<PlayerRating> stored = ratingRepository.findByTenantIdOrderByRatingDesc(tenantId);
+
+        Map<String, Double> ledger = new HashMap<>();
+        for (RatingEntry entry : entryRepository.findByTenantId(tenantId)) {
+            ledger.merge(entry.getPlayer1(), entry.getDelta1(), Double::sum);
+            ledger.merge(entry.getPlayer2(), entry.getDelta2(), Double::sum);
+        }
+
+        int ledgerMismatches = 0;
+        int replayMismatches = 0;
+        double maxDifference = 0;
+        Set<String> seen = new HashSet<>();
+        for (PlayerRating rating : stored) {
+            seen.add(rating.getPlayerName());
+            double fromLedger = EloCalculator.INITIAL_RATING + ledger.getOrDefault(rating.getPlayerName(), 0.0);
+            if (Math.abs(fromLedger - rating.getRating()) > TOLERANCE) {
+                ledgerMismatches++;
+            }
+            double[] replayed = replay.ratings.get(rating.getPlayerName());
+            double expected = replayed != null ? replayed[0] : EloCalculator.INITIAL_RATING;
+            double difference = Math.abs(expected - rating.getRating());
+            maxDifference = Math.max(maxDifference, difference);
+            if (difference > TOLERANCE) {
+                replayMismatches++;
+            }
+        }
+        for (String player : replay.ratings.keySet()) {
+            if (!seen.contains(player)) {
+                replayMismatches++;
+            }
+        }
+        return new RatingConsistencyDTO(stored.size(), replay.entries.size(), ledgerMismatches,
+                replayMismatches, maxDifference, ledgerMismatches == 0 && replayMismatches == 0);
+    }
+
+    private void apply(MatchResultChangedEvent event) {
+        String tenantId = event.tenantId();
+        if (event.before() != null) {
+            entryRepository.findById(event.before().id()).ifPresent(entry -> {
+                Map<String, PlayerRating> ratings = lock(tenantId, entry.getPlayer1(), entry.getPlayer2());
+                adjust(ratings.get(entry.getPlayer1()), -entry.getDelta1(), -1);
+                adjust(ratings.get(entry.getPlayer2()), -entry.getDelta2(), -1);
+                entryRepository.delete(entry);
+                entryRepository.flush();
+            });
+        }
+        MatchSnapshot after = event.after();
+        EloCalculator.Outcome outcome = EloCalculator.outcome(after);
+        if (outcome == null) {
+            return;
+        }
+        Map<String, PlayerRating> ratings = lock(tenantId, outcome.player1(), outcome.player2());
+        PlayerRating rating1 = ratings.get(outcome.player1());
+        PlayerRating rating2 = ratings.get(outcome.player2());
+        EloCalculator.Delta delta = outcome.apply(rating1.getRating(), rating2.getRating());
+        adjust(rating1, delta.delta1(), 1);
+        adjust(rating2, delta.delta2(), 1);
+        entryRepository.save(new RatingEntry(after.id(), tenantId, outcome.player1(), outcome.player2(),
+                delta.delta1(), delta.delta2()));
+        log.debug("Rating update for match {}: {} {} / {} {}", after.id(),
+                outcome.player1(), delta.delta1(), outcome.player2(), delta.delta2());
+    }
+
+    // Låser i namnordning så att samtidiga noder inte hamnar i deadlock
+    private Map<String, PlayerRating> lock(String tenantId, String player1, String player2) {
+        Map<String, PlayerRating> ratings = new HashMap<>();
+        for (String player : new TreeSet<>(List.of(player1, player2))) {
+            PlayerRating rating = ratingRepository.findForUpdate(tenantId, player)
+                    .orElseGet(() -> new PlayerRating(null, tenantId, player, EloCalculator.INITIAL_RATING, 0, null));
+            ratings.put(player, rating);
+        }
+        return ratings;
+    }
+
+    // En spelare utan kvarvarande ratade matcher tas bort, precis som vid en full omräkning
+    private void adjust(PlayerRating rating, double delta, int matches) {
+        rating.setRating(rating.getRating() + delta);
+        rating.setMatches(Math.max(0, rating.getMatches() + matches));
+        if (rating.getMatches() == 0 && rating.getId() != null) {
+            ratingRepository.delete(rating);
+        } else {
+            ratingRepository.save(rating);
+        }
+    }
+
+    // ---- Full omräkning ----
+
+    private int rebuildTenants(List<String> tenantIds) {
+        long start = System.currentTimeMillis();
+        try {
+            int players = rebuildPool.submit(() -> tenantIds.parallelStream()
+                    .mapToInt(this::rebuildTenant)
+                    .sum()).get();
+            log.info("Rebuilt ratings for {} tenant(s), {} players in {} ms",
+                    tenantIds.size(), players, System.currentTimeMillis() - start);
+            return players;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Omräkningen av ratingar avbröts", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Omräkningen av ratingar misslyckades", e.getCause());
+        }
+    }
+
+    private int rebuildTenant(String tenantId) {
+        Replay replay = replay(tenantId);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        transactionTemplate.executeWithoutResult(status -> {
+            entryRepository.deleteByTenantId(tenantId);
+            ratingRepository.deleteByTenantId(tenantId);
+
+            List<Object[]> ratingRows = new ArrayList<>(replay.ratings.size());
+            replay.ratings.forEach((player, value) ->
+                    ratingRows.add(new Object[]{tenantId, player, value[0], (int) value[1], now}));
+            for (int i = 0; i < ratingRows.size(); i += BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(INSERT_RATING, ratingRows.subList(i, Math.min(i + BATCH_SIZE, ratingRows.size())));
+            }
+            for (int i = 0; i < replay.entries.size(); i += BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(INSERT_ENTRY, replay.entries.subList(i, Math.min(i + BATCH_SIZE, replay.entries.size())));
+            }
+        });
+        return replay.ratings.size();
+    }
+
+    /**
+     * Spelar upp tenantens historik i rapporteringsordning. Utfallen är oberoende
+     * av ratingen och räknas parallellt; själva Elo-vikningen måste ske i ordning.
+     */
+    private Replay replay(String tenantId) {
+        List<MatchSnapshot> matches = readOnlyTransaction().execute(status -> {
+            try (Stream<MatchSnapshot> stream = matchResultRepository.streamSnapshots(tenantId)) {
+                return stream.toList();
+            }
+        });
+        List<MatchSnapshot> history = matches != null ? matches : List.of();
+        EloCalculator.Outcome[] outcomes = new EloCalculator.Outcome[history.size()];
+        Arrays.parallelSetAll(outcomes, i -> EloCalculator.outcome(history.get(i)));
+
+        Replay replay = new Replay();
+        for (int i = 0; i < outcomes.length; i++) {
+            EloCalculator.Outcome outcome = outcomes[i];
+            if (outcome == null) {
+                continue;
+            }
+            double[] rating1 = replay.ratings.computeIfAbsent(outcome.player1(),
+                    p -> new double[]{EloCalculator.INITIAL_RATING, 0});
+            double[] rating2 = replay.ratings.computeIfAbsent(outcome.player2(),
+                    p -> new double[]{EloCalculator.INITIAL_RATING, 0});
+            EloCalculator.Delta delta = outcome.apply(rating1[0], rating2[0]);
+            rating1[0] += delta.delta1();
+            rating1[1]++;
+            rating2[0] += delta.delta2();
+            rating2[1]++;
+            replay.entries.add(new Object[]{history.get(i).id(), tenantId, outcome.player1(), outcome.player2(),
+                    delta.delta1(), delta.delta2()});
+        }
+        return replay;
+    }
+
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        template.setReadOnly(true);
+        return template;
+    }
+
+    // Rating och antal matcher per spelare, samt ledger-rader redo för batch-insert
+    private static class Replay {
+        final Map<String, double[]> ratings = new HashMap<>();
+        final List<Object[]> entries = new ArrayList<>();
+    }
+}
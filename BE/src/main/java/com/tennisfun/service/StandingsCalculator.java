@@ -0,0 +1,73 @@
+package com.tennisfun.service;
+
+import com.tennisfun.event.MatchSnapshot;
+
+import java.util.*;
+
+/**
+ * Gruppställning med samma ordning som gruppvyn i frontend: poäng (2 per vinst),
+ * setskillnad (W.O. räknas inte), gameskillnad (avgörande tie-break-set räknas
+ * inte) och till sist vunna games.
+ */
+public final class StandingsCalculator {
+
+    public static final int POINTS_PER_WIN = 2;
+
+    public static final Comparator<Standing> ORDER = Comparator
+            .comparingInt(Standing::points).reversed()
+            .thenComparing(Comparator.comparingInt(Standing::setDifference).reversed())
+            .thenComparing(Comparator.comparingInt(Standing::gameDifference).reversed())
+            .thenComparing(Comparator.comparingInt(Standing::gamesWon).reversed());
+
+    private StandingsCalculator() {
+    }
+
+    public record Standing(String player, int played, int wins, int setsWon, int setsLost,
+                           int gamesWon, int gamesLost) {
+
+        public int points() {
+            return wins * POINTS_PER_WIN;
+        }
+
+        public int setDifference() {
+            return setsWon - setsLost;
+        }
+
+        public int gameDifference() {
+            return gamesWon - gamesLost;
+        }
+    }
+
+    // Deltagare utan matcher kommer med; lika placerade behåller deltagarlistans ordning
+    public static List<Standing> standings(List<String> participants, Collection<MatchSnapshot> results) {
+        Map<String, int[]> totals = new LinkedHashMap<>();
+        for (String participant : participants) {
+            totals.put(participant, new int[6]);
+        }
+        for (MatchSnapshot result : results) {
+            int[] first = totals.get(result.player1());
+            int[] second = totals.get(result.player2());
+            if (first == null || second == null) {
+                continue;
+            }
+            add(first, result, true);
+            add(second, result, false);
+        }
+        List<Standing> standings = new ArrayList<>(totals.size());
+        totals.forEach((player, t) -> standings.add(new Standing(player, t[0], t[1], t[2], t[3], t[4], t[5])));
+        standings.sort(ORDER);
+        return standings;
+    }
+
+    private static void add(int[] totals, MatchSnapshot result, boolean player1) {
+        String player = player1 ? result.player1() : result.player2();
+        totals[0]++;
+        if (player.equals(result.winner())) {
+            totals[1]++;
+        }
+        totals[2] += result.sets(player1);
+        totals[3] += result.sets(!player1);
+        totals[4] += result.games(player1);
+        totals[5] += result.games(!player1);
+    }
+}
@@ -0,0 +1,346 @@
+package com.tennisfun.service;
+
+import com.tennisfun.dto.ClubStatsDTO;
+import com.tennisfun.dto.PeriodStatsDTO;
+import com.tennisfun.dto.PlayerActivityDTO;
+import com.tennisfun.entity.MatchStatus;
+import com.tennisfun.entity.StatsRollup;
+import com.tennisfun.event.MatchResultChangedEvent;
+import com.tennisfun.event.MatchSnapshot;
+import com.tennisfun.event.TournamentArchivedEvent;
+import com.tennisfun.event.TournamentChangedEvent;
+import com.tennisfun.repository.MatchResultRepository;
+import com.tennisfun.repository.PlayerActivityRollupRepository;
+import com.tennisfun.repository.StatsRollupRepository;
+import com.tennisfun.repository.TournamentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Förberäknad klubbstatistik per dag och månad.
+ * <p>
+ * Varje rapport, ändring och borttagning av ett resultat justerar dagens och
+ * månadens rader efter commit (det gamla resultatet dras av, det nya läggs på),
+ * och arkivering räknar turneringen. Räknarna ändras med {@code x = x + ?}, så
+ * noder som delar databas kan skriva samtidigt. Importer och radering av alla
+ * turneringar ger ingen händelse per match; då räknas klubbens rader om från
+ * historiken. Dashboarden läser därmed en rad per period i stället för att
+ * aggregera alla matchresultat.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StatsRollupService {
+
+    static final String DAY = "DAY";
+    static final String MONTH = "MONTH";
+
+    public static final int DEFAULT_TOP_PLAYERS = 10;
+    private static final int MAX_TOP_PLAYERS = 100;
+    private static final int BATCH_SIZE = 500;
+
+    private static final String UPDATE_ROLLUP =
+            "UPDATE stats_rollups SET tournaments = tournaments + ?, matches = matches + ?, games = games + ?, " +
+            "game_matches = game_matches + ?, walkovers = walkovers + ?, retired = retired + ? " +
+            "WHERE tenant_id = ? AND period_type = ? AND period_start = ?";
+
+    private static final String INSERT_ROLLUP =
+            "INSERT INTO stats_rollups (tenant_id, period_type, period_start, tournaments, matches, games, " +
+            "game_matches, walkovers, retired) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_ACTIVITY =
+            "UPDATE player_activity_rollups SET matches = matches + ? " +
+            "WHERE tenant_id = ? AND period_type = ? AND period_start = ? AND player_name = ?";
+
+    private static final String INSERT_ACTIVITY =
+            "INSERT INTO player_activity_rollups (tenant_id, period_type, period_start, player_name, matches) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    private static final String DELETE_INACTIVE =
+            "DELETE FROM player_activity_rollups " +
+            "WHERE tenant_id = ? AND period_type = ? AND period_start = ? AND player_name = ? AND matches <= 0";
+
+    // Index i räknararrayerna
+    private static final int TOURNAMENTS = 0;
+    private static final int MATCHES = 1;
+    private static final int GAMES = 2;
+    private static final int GAME_MATCHES = 3;
+    private static final int WALKOVERS = 4;
+    private static final int RETIRED = 5;
+
+    private final StatsRollupRepository rollupRepository;
+    private final PlayerActivityRollupRepository activityRepository;
+    private final MatchResultRepository matchResultRepository;
+    private final TournamentRepository tournamentRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // Löpnummer per klubb för köade ändringar; ändringar köade före en omräkning är redan inräknade
+    private final Map<String, AtomicLong> sequences = new ConcurrentHashMap<>();
+    private final Map<String, Long> rebuiltThrough = new ConcurrentHashMap<>();
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "stats-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    public void stop() {
+        writer.shutdownNow();
+    }
+
+    // Räknar om allt vid första start, då resultat finns men ingen statistik ännu
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        writer.execute(() -> {
+            try {
+                matchResultRepository.findTenantIds().stream()
+                        .filter(tenantId -> rollupRepository.countByTenantId(tenantId) == 0)
+                        .forEach(this::rebuildTenant);
+            } catch (Exception e) {
+                log.warn("Initial stats rollup build failed: {}", e.getMessage());
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMatchResultChanged(MatchResultChangedEvent event) {
+        submit(event.tenantId(), "match " + event.matchId(), () -> {
+            applyMatch(event.tenantId(), event.before(), -1);
+            applyMatch(event.tenantId(), event.after(), 1);
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTournamentArchived(TournamentArchivedEvent event) {
+        submit(event.tenantId(), "tournament " + event.tournamentId(), () -> {
+            long[] counts = new long[6];
+            counts[TOURNAMENTS] = event.archived() ? 1 : -1;
+            addRollup(event.tenantId(), event.date(), counts);
+        });
+    }
+
+    // Import och radering av flera turneringar
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTournamentChanged(TournamentChangedEvent event) {
+        if (event.tournamentId() == null && !event.remote()) {
+            writer.execute(() -> rebuildTenant(event.tenantId()));
+        }
+    }
+
+    public int rebuild(String tenantId) throws InterruptedException, ExecutionException {
+        return writer.submit(() -> rebuildTenant(tenantId)).get();
+    }
+
+    public ClubStatsDTO getStats(String tenantId, LocalDate from, LocalDate to, String period, Integer top) {
+        String granularity = period != null ? period.toLowerCase(Locale.ROOT) : "month";
+        if (!granularity.equals("day") && !granularity.equals("month")) {
+            throw new IllegalArgumentException("Period måste vara day eller month");
+        }
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusYears(1).plusDays(1);
+        if (granularity.equals("month")) {
+            start = start.withDayOfMonth(1);
+            end = end.withDayOfMonth(1);
+        }
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("Från-datum måste vara före till-datum");
+        }
+        int limit = top != null ? top : DEFAULT_TOP_PLAYERS;
+        if (limit < 1 || limit > MAX_TOP_PLAYERS) {
+            throw new IllegalArgumentException("Antal spelare måste vara mellan 1 och " + MAX_TOP_PLAYERS);
+        }
+
+        String periodType = granularity.equals("day") ? DAY : MONTH;
+        List<StatsRollup> rows = rollupRepository
+                .findByTenantIdAndPeriodTypeAndPeriodStartBetweenOrderByPeriodStart(tenantId, periodType, start, end);
+        long[] totals = new long[6];
+        List<PeriodStatsDTO> periods = new ArrayList<>(rows.size());
+        for (StatsRollup row : rows) {
+            long[] counts = {row.getTournaments(), row.getMatches(), row.getGames(), row.getGameMatches(),
+                    row.getWalkovers(), row.getRetired()};
+            if (row.getTournaments() == 0 && row.getMatches() == 0) {
+                continue; // Perioder där allt har tagits bort
+            }
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += counts[i];
+            }
+            periods.add(toPeriod(row.getPeriodStart(), counts));
+        }
+        List<PlayerActivityDTO> mostActive = activityRepository.findMostActive(tenantId, periodType, start, end,
+                PageRequest.of(0, limit));
+        return new ClubStatsDTO(start, end, granularity, toPeriod(start, totals), periods, mostActive);
+    }
+
+    private static PeriodStatsDTO toPeriod(LocalDate periodStart, long[] counts) {
+        long matches = counts[MATCHES];
+        return new PeriodStatsDTO(periodStart, counts[TOURNAMENTS], matches,
+                counts[GAME_MATCHES] > 0 ? (double) counts[GAMES] / counts[GAME_MATCHES] : null,
+                matches > 0 ? (double) counts[WALKOVERS] / matches : null,
+                matches > 0 ? (double) counts[RETIRED] / matches : null);
+    }
+
+    // ---- Inkrementella uppdateringar ----
+
+    private void submit(String tenantId, String description, Runnable update) {
+        // Ändringen är committad när den köas, så en omräkning som startar efter detta har den redan med
+        long sequence = sequence(tenantId).incrementAndGet();
+        writer.execute(() -> {
+            if (sequence <= rebuiltThrough.getOrDefault(tenantId, 0L)) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> update.run());
+            } catch (DuplicateKeyException e) {
+                // En annan nod skapade samma periodrad samtidigt; nu finns den och uppdateringen går igenom
+                transactionTemplate.executeWithoutResult(status -> update.run());
+            } catch (Exception e) {
+                log.warn("Could not update stats rollups for {}, rebuild recommended: {}", description, e.getMessage());
+            }
+        });
+    }
+
+    private void applyMatch(String tenantId, MatchSnapshot match, int sign) {
+        if (match == null) {
+            return;
+        }
+        LocalDate date = dateOf(match);
+        long[] counts = counts(match);
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] *= sign;
+        }
+        addRollup(tenantId, date, counts);
+        for (String player : new LinkedHashSet<>(Arrays.asList(match.player1(), match.player2()))) {
+            addActivity(tenantId, DAY, date, player, sign);
+            addActivity(tenantId, MONTH, date.withDayOfMonth(1), player, sign);
+        }
+    }
+
+    private void addRollup(String tenantId, LocalDate date, long[] counts) {
+        upsert(UPDATE_ROLLUP, INSERT_ROLLUP, tenantId, DAY, date, counts);
+        upsert(UPDATE_ROLLUP, INSERT_ROLLUP, tenantId, MONTH, date.withDayOfMonth(1), counts);
+    }
+
+    private void upsert(String update, String insert, String tenantId, String periodType, LocalDate start, long[] counts) {
+        Date periodStart = Date.valueOf(start);
+        int updated = jdbcTemplate.update(update, counts[0], counts[1], counts[2], counts[3], counts[4], counts[5],
+                tenantId, periodType, periodStart);
+        if (updated == 0) {
+            jdbcTemplate.update(insert, tenantId, periodType, periodStart,
+                    counts[0], counts[1], counts[2], counts[3], counts[4], counts[5]);
+        }
+    }
+
+    private void addActivity(String tenantId, String periodType, LocalDate start, String player, int delta) {
+        Date periodStart = Date.valueOf(start);
+        int updated = jdbcTemplate.update(UPDATE_ACTIVITY, delta, tenantId, periodType, periodStart, player);
+        if (updated == 0 && delta > 0) {
+            jdbcTemplate.update(INSERT_ACTIVITY, tenantId, periodType, periodStart, player, delta);
+        } else if (delta < 0) {
+            jdbcTemplate.update(DELETE_INACTIVE, tenantId, periodType, periodStart, player);
+        }
+    }
+
+    private static LocalDate dateOf(MatchSnapshot match) {
+        LocalDateTime reportedAt = match.reportedAt();
+        return reportedAt != null ? reportedAt.toLocalDate() : LocalDate.now();
+    }
+
+    private static long[] counts(MatchSnapshot match) {
+        long[] counts = new long[6];
+        counts[MATCHES] = 1;
+        if (match.status() == MatchStatus.WALKOVER) {
+            counts[WALKOVERS] = 1;
+        } else {
+            counts[GAMES] = match.games(true) + match.games(false);
+            counts[GAME_MATCHES] = 1;
+        }
+        if (match.status() == MatchStatus.RETIRED) {
+            counts[RETIRED] = 1;
+        }
+        return counts;
+    }
+
+    // ---- Full omräkning ----
+
+    private AtomicLong sequence(String tenantId) {
+        return sequences.computeIfAbsent(tenantId, t -> new AtomicLong());
+    }
+
+    // Körs alltid på skrivtråden, så inga köade ändringar för klubben körs samtidigt
+    private int rebuildTenant(String tenantId) {
+        long start = System.currentTimeMillis();
+        long cutoff = sequence(tenantId).get();
+        Map<String, Map<LocalDate, long[]>> rollups = Map.of(DAY, new HashMap<>(), MONTH, new HashMap<>());
+        Map<String, Map<LocalDate, Map<String, Long>>> activity = Map.of(DAY, new HashMap<>(), MONTH, new HashMap<>());
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            try (Stream<MatchSnapshot> history = matchResultRepository.streamSnapshots(tenantId)) {
+                history.forEach(match -> {
+                    LocalDate date = dateOf(match);
+                    long[] counts = counts(match);
+                    for (String periodType : List.of(DAY, MONTH)) {
+                        LocalDate periodStart = periodType.equals(DAY) ? date : date.withDayOfMonth(1);
+                        long[] total = rollups.get(periodType).computeIfAbsent(periodStart, d -> new long[6]);
+                        for (int i = 0; i < counts.length; i++) {
+                            total[i] += counts[i];
+                        }
+                        Map<String, Long> players = activity.get(periodType)
+                                .computeIfAbsent(periodStart, d -> new HashMap<>());
+                        for (String player : new LinkedHashSet<>(Arrays.asList(match.player1(), match.player2()))) {
+                            players.merge(player, 1L, Long::sum);
+                        }
+                    }
+                });
+            }
+            for (LocalDate date : tournamentRepository.findArchivedDates(tenantId)) {
+                rollups.get(DAY).computeIfAbsent(date, d -> new long[6])[TOURNAMENTS]++;
+                rollups.get(MONTH).computeIfAbsent(date.withDayOfMonth(1), d -> new long[6])[TOURNAMENTS]++;
+            }
+        });
+
+        List<Object[]> rollupRows = new ArrayList<>();
+        rollups.forEach((periodType, byDate) -> byDate.forEach((date, c) -> rollupRows.add(new Object[]{
+                tenantId, periodType, Date.valueOf(date), c[0], c[1], c[2], c[3], c[4], c[5]})));
+        List<Object[]> activityRows = new ArrayList<>();
+        activity.forEach((periodType, byDate) -> byDate.forEach((date, players) -> players.forEach((player, matches) ->
+                activityRows.add(new Object[]{tenantId, periodType, Date.valueOf(date), player, matches}))));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM stats_rollups WHERE tenant_id = ?", tenantId);
+            jdbcTemplate.update("DELETE FROM player_activity_rollups WHERE tenant_id = ?", tenantId);
+            for (int i = 0; i < rollupRows.size(); i += BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(INSERT_ROLLUP, rollupRows.subList(i, Math.min(i + BATCH_SIZE, rollupRows.size())));
+            }
+            for (int i = 0; i < activityRows.size(); i += BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(INSERT_ACTIVITY, activityRows.subList(i, Math.min(i + BATCH_SIZE, activityRows.size())));
+            }
+        });
+        rebuiltThrough.merge(tenantId, cutoff, Math::max);
+        log.info("Rebuilt stats rollups for tenant {}: {} period rows, {} player rows in {} ms",
+                tenantId, rollupRows.size(), activityRows.size(), System.currentTimeMillis() - start);
+        return rollupRows.size();
+    }
+}
@@ -0,0 +1,131 @@
+package com.tennisfun.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Ett index per klubb i minnet som kan byggas om från databasen.
+ * <p>
+ * Tjänsten uppdaterar indexet själv efter commit och anropar {@link #changed}
+ * före varje sådan ändring. Ändringar utan händelse per rad (importer,
+ * massåtgärder, andra noder) ger {@link #rebuildLater}, som byggs på en egen
+ * tråd; flera i rad ger en enda omläsning. Varje ändring räknar upp klubbens
+ * version, och en omläsning som korsats av en ändring görs om, så att indexet
+ * inte blir kvar utan den. Även en klubb utan data får ett (tomt) index i
+ * minnet, så att t.ex. förslag medan man skriver inte läser databasen vid varje
+ * tangent; versionen gör att det byggs om som alla andra.
+ */
+@Slf4j
+final class TenantIndexes<T extends TenantIndexes.Index> {
+
+    interface Index {
+        boolean isEmpty();
+
+        // Storlek för loggen, t.ex. "12 players, 40 pairs"
+        String describe();
+    }
+
+    private final String name;
+    private final Function<String, T> loader;
+
+    private final Map<String, T> indexes = new ConcurrentHashMap<>();
+    private final Map<String, Object> buildLocks = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final Set<String> pendingRebuilds = ConcurrentHashMap.newKeySet();
+    private final ExecutorService builder;
+
+    /**
+     * @param loader läser klubbens index från databasen; anropas på nytt om
+     *               en ändring kommer under läsningen
+     */
+    TenantIndexes(String name, Function<String, T> loader) {
+        this.name = name;
+        this.loader = loader;
+        this.builder = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, name + "-builder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    void initialize(Supplier<? extends Collection<String>> tenantIds) {
+        builder.execute(() -> {
+            try {
+                tenantIds.get().forEach(this::rebuild);
+            } catch (Exception e) {
+                log.warn("Initial {} index build failed: {}", name, e.getMessage());
+            }
+        });
+    }
+
+    void stop() {
+        builder.shutdownNow();
+    }
+
+    // Första frågan för en klubb som inte finns i minnet bygger indexet direkt;
+    // låset är per klubb, så en klubb som byggs håller inte upp de andra
+    T get(String tenantId) {
+        T index = indexes.get(tenantId);
+        if (index != null) {
+            return index;
+        }
+        synchronized (buildLocks.computeIfAbsent(tenantId, t -> new Object())) {
+            index = indexes.get(tenantId);
+            return index != null ? index : rebuild(tenantId);
+        }
+    }
+
+    // Indexet att uppdatera efter en ändring, eller null om det byggs vid nästa fråga
+    T peek(String tenantId) {
+        return indexes.get(tenantId);
+    }
+
+    void changed(String tenantId) {
+        versions.computeIfAbsent(tenantId, t -> new AtomicLong()).incrementAndGet();
+    }
+
+    void rebuildLater(String tenantId) {
+        changed(tenantId);
+        if (pendingRebuilds.add(tenantId)) {
+            builder.execute(() -> {
+                pendingRebuilds.remove(tenantId);
+                try {
+                    rebuild(tenantId);
+                } catch (Exception e) {
+                    log.warn("{} index rebuild for tenant {} failed: {}", name, tenantId, e.getMessage());
+                }
+            });
+        }
+    }
+
+    private T rebuild(String tenantId) {
+        long start = System.currentTimeMillis();
+        T index;
+        long version;
+        do {
+            version = currentVersion(tenantId);
+            index = loader.apply(tenantId);
+            indexes.put(tenantId, index);
+        } while (version != currentVersion(tenantId));
+        if (!index.isEmpty()) {
+            log.info("Built {} index for tenant {}: {} in {} ms",
+                    name, tenantId, index.describe(), System.currentTimeMillis() - start);
+        }
+        return index;
+    }
+
+    // Läser utan att lägga till klubben; räknaren skapas först vid en ändring
+    private long currentVersion(String tenantId) {
+        AtomicLong version = versions.get(tenantId);
+        return version != null ? version.get() : 0;
+    }
+}
@@ -0,0 +1,114 @@
+package com.tennisfun.service;
+
+import com.tennisfun.entity.Tournament;
+import com.tennisfun.event.TournamentChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Cache för fullständigt laddade turneringar (grupper + resultat), som pollas
+ * av alla klienter var tionde sekund.
+ * <p>
+ * Varje klubb har en egen begränsad partition (LRU), så en klubb med många
+ * turneringar kan inte tränga undan en annan klubbs poster. Poster tas bort när
+ * en {@link TournamentChangedEvent} har committats. En generationsräknare per
+ * partition hindrar att en läsning som startade före en ändring lägger tillbaka
+ * gammal data efter att posten har invaliderats. En partition som är tom när
+ * laddningen misslyckas tas bort igen, så okända klubb-id:n lämnar inget kvar.
+ */
+@Component
+@Slf4j
+public class TournamentCache {
+
+    private final ConcurrentMap<String, Partition> partitions = new ConcurrentHashMap<>();
+
+    @Value("${tennisfun.cache.tournaments-per-tenant:8}")
+    private int maxEntriesPerTenant;
+
+    public Tournament get(String tenantId, Long tournamentId, Supplier<Tournament> loader) {
+        Partition partition = partitions.computeIfAbsent(tenantId, k -> new Partition(maxEntriesPerTenant));
+        Tournament cached = partition.get(tournamentId);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = partition.generation();
+        Tournament loaded = null;
+        try {
+            loaded = loader.get();
+            partition.putIfGeneration(tournamentId, loaded, generation);
+            return loaded;
+        } finally {
+            if (loaded == null && partition.isEmpty()) {
+                partitions.remove(tenantId, partition);
+            }
+        }
+    }
+
+    public void evict(String tenantId, Long tournamentId) {
+        Partition partition = partitions.get(tenantId);
+        if (partition == null) {
+            return;
+        }
+        if (tournamentId == null) {
+            partition.clear();
+        } else {
+            partition.remove(tournamentId);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTournamentChanged(TournamentChangedEvent event) {
+        log.debug("Evicting tournament {} for tenant {}", event.tournamentId(), event.tenantId());
+        evict(event.tenantId(), event.tournamentId());
+    }
+
+    private static final class Partition {
+        private final Map<Long, Tournament> entries;
+        private long generation;
+
+        Partition(int maxEntries) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Tournament> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        synchronized Tournament get(Long id) {
+            return entries.get(id);
+        }
+
+        synchronized boolean isEmpty() {
+            return entries.isEmpty();
+        }
+
+        synchronized long generation() {
+            return generation;
+        }
+
+        synchronized void putIfGeneration(Long id, Tournament tournament, long expectedGeneration) {
+            if (generation == expectedGeneration) {
+                entries.put(id, tournament);
+            }
+        }
+
+        synchronized void remove(Long id) {
+            generation++;
+            entries.remove(id);
+        }
+
+        synchronized void clear() {
+            generation++;
+            entries.clear();
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package com.tennisfun.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tennisfun.dto.EventLogStateDTO;
+import com.tennisfun.dto.TournamentEventsDTO;
+import com.tennisfun.entity.TournamentEvent;
+import com.tennisfun.entity.TournamentEventHead;
+import com.tennisfun.entity.TournamentLogSnapshot;
+import com.tennisfun.event.AuditEvent;
+import com.tennisfun.event.GroupSnapshot;
+import com.tennisfun.event.GroupsChangedEvent;
+import com.tennisfun.event.MatchResultChangedEvent;
+import com.tennisfun.event.MatchSnapshot;
+import com.tennisfun.event.TournamentChangedEvent;
+import com.tennisfun.event.TournamentLogState;
+import com.tennisfun.repository.MatchResultRepository;
+import com.tennisfun.repository.TournamentEventHeadRepository;
+import com.tennisfun.repository.TournamentEventRepository;
+import com.tennisfun.repository.TournamentGroupRepository;
+import com.tennisfun.repository.TournamentLogSnapshotRepository;
+import com.tennisfun.repository.TournamentRepository;
+import com.tennisfun.tenant.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Valfri händelselogg per turnering ({@code tennisfun.eventlog.enabled}):
+ * rapporterade, rättade och borttagna matcher, ändrade deltagare, namnbyten,
+ * nya omgångar och borttagna slutspelsgrupper, som rader som bara läggs till.
+ * <p>
+ * Händelsen skrivs i samma transaktion som ändringen, så loggen innehåller
+ * precis det som har committats. Huvudraden i {@code tournament_event_heads}
+ * låses med en UPDATE när numret räknas upp, vilket ger löpande nummer per
+ * turnering i commit-ordning. Var {@code tennisfun.eventlog.snapshot-every}:e
+ * händelse sparas en ögonblicksbild som räknas fram ur föregående bild och
+ * händelserna efter den; tillståndet är alltid senaste bild plus svansen.
+ * <p>
+ * Loggen startas per turnering vid första händelsen, med en ögonblicksbild från
+ * tabellerna. Samma sak görs efter import och massåtgärder, som ändrar data utan
+ * händelser; klienter som följer loggen får då {@code resync}.
+ * <p>
+ * Tabellerna för matcher och grupper är fortfarande det som appen läser och
+ * skriver mot; loggen är en källa för strömmar, deltasynk och för att räkna om
+ * eller lägga till vyer (tabell, rating, statistik) genom att spela upp den.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TournamentEventLogService {
+
+    public static final String MATCH_REPORTED = "MATCH_REPORTED";
+    public static final String MATCH_CORRECTED = "MATCH_CORRECTED";
+    public static final String MATCH_REMOVED = "MATCH_REMOVED";
+    public static final String PARTICIPANTS_CHANGED = "PARTICIPANTS_CHANGED";
+    public static final String PLAYER_RENAMED = "PLAYER_RENAMED";
+    public static final String ROUND_CREATED = "ROUND_CREATED";
+    public static final String GROUP_REMOVED = "GROUP_REMOVED";
+
+    private static final int DEFAULT_LIMIT = 500;
+    private static final int MAX_LIMIT = 5000;
+
+    private static final String NEXT_SEQ =
+            "UPDATE tournament_event_heads SET last_seq = last_seq + 1 WHERE tournament_id = ?";
+    private static final String READ_HEAD =
+            "SELECT last_seq, snapshot_seq, stale FROM tournament_event_heads WHERE tournament_id = ?";
+    private static final String INSERT_HEAD =
+            "INSERT INTO tournament_event_heads (tournament_id, tenant_id, last_seq, snapshot_seq, stale) " +
+            "VALUES (?, ?, 1, 0, true)";
+    private static final String LOCK_TOURNAMENT =
+            "SELECT id FROM tournaments WHERE id = ? AND tenant_id = ? FOR UPDATE";
+    private static final String INSERT_EVENT =
+            "INSERT INTO tournament_events (tenant_id, tournament_id, seq, type, group_id, match_id, payload, " +
+            "occurred_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_SNAPSHOT = "DELETE FROM tournament_log_snapshots WHERE tournament_id = ?";
+    private static final String INSERT_SNAPSHOT =
+            "INSERT INTO tournament_log_snapshots (tournament_id, tenant_id, seq, rebased, state, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String SNAPSHOT_TAKEN =
+            "UPDATE tournament_event_heads SET snapshot_seq = ?, stale = false WHERE tournament_id = ?";
+    private static final String REBASED =
+            "UPDATE tournament_event_heads SET snapshot_seq = ?, rebase_seq = ?, stale = false WHERE tournament_id = ?";
+    private static final String MARK_STALE = "UPDATE tournament_event_heads SET stale = true WHERE tenant_id = ?";
+
+    private final TournamentRepository tournamentRepository;
+    private final TournamentGroupRepository groupRepository;
+    private final MatchResultRepository matchResultRepository;
+    private final TournamentEventRepository eventRepository;
+    private final TournamentEventHeadRepository headRepository;
+    private final TournamentLogSnapshotRepository snapshotRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${tennisfun.eventlog.enabled:false}")
+    private boolean enabled;
+
+    @Value("${tennisfun.eventlog.snapshot-every:100}")
+    private int snapshotEvery;
+
+    private record Head(long seq, long snapshotSeq, boolean stale) {
+    }
+
+    // ---- Skrivning, i ändringens transaktion ----
+
+    // Före slutspelsträdets lyssnare, så att matchen loggas före följdändringarna i trädet
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onMatchResultChanged(MatchResultChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        switch (event.type()) {
+            case REPORTED -> append(event.tenantId(), event.tournamentId(), MATCH_REPORTED,
+                    event.after().groupId(), event.matchId(), event.after());
+            case UPDATED -> append(event.tenantId(), event.tournamentId(), MATCH_CORRECTED,
+                    event.after().groupId(), event.matchId(), event.after());
+            case DELETED -> append(event.tenantId(), event.tournamentId(), MATCH_REMOVED,
+                    event.before().groupId(), event.matchId(), event.before());
+        }
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onAudit(AuditEvent event) {
+        if (!enabled || event.groupId() == null) {
+            return;
+        }
+        if (AuditEvent.PARTICIPANTS.equals(event.action())) {
+            append(event.tenantId(), event.tournamentId(), PARTICIPANTS_CHANGED, event.groupId(), null,
+                    new GroupSnapshot(event.groupId(), null, strings(event.after())));
+        } else if (AuditEvent.RENAME_PLAYER.equals(event.action())
+                && event.before() instanceof Map<?, ?> before && event.after() instanceof Map<?, ?> after) {
+            Map<String, Object> renamed = new LinkedHashMap<>();
+            renamed.put("from", before.get("player"));
+            renamed.put("to", after.get("player"));
+            renamed.put("participants", after.get("participants"));
+            append(event.tenantId(), event.tournamentId(), PLAYER_RENAMED, event.groupId(), null, renamed);
+        }
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onGroupsChanged(GroupsChangedEvent event) {
+        if (!enabled || event.groups().isEmpty()) {
+            return;
+        }
+        switch (event.type()) {
+            case CREATED -> append(event.tenantId(), event.tournamentId(), ROUND_CREATED,
+                    event.groups().size() == 1 ? event.groups().get(0).id() : null, null, event.groups());
+            case PARTICIPANTS -> event.groups().forEach(group -> append(event.tenantId(), event.tournamentId(),
+                    PARTICIPANTS_CHANGED, group.id(), null, group));
+            case REMOVED -> event.groups().forEach(group -> append(event.tenantId(), event.tournamentId(),
+                    GROUP_REMOVED, group.id(), null, group));
+        }
+    }
+
+    // Import och massåtgärder ändrar utan händelser; nästa händelse tar en ny bild från tabellerna
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTournamentChanged(TournamentChangedEvent event) {
+        if (enabled && event.tournamentId() == null && !event.remote()) {
+            jdbcTemplate.update(MARK_STALE, event.tenantId());
+        }
+    }
+
+    private void append(String tenantId, Long tournamentId, String type, Long groupId, Long matchId, Object payload) {
+        Head head = nextSeq(tenantId, tournamentId);
+        if (head == null) {
+            return;
+        }
+        jdbcTemplate.update(INSERT_EVENT, tenantId, tournamentId, head.seq(), type, groupId, matchId, json(payload),
+                Timestamp.valueOf(LocalDateTime.now()));
+        if (head.stale()) {
+            // Tabellerna innehåller redan den här ändringen (JPQL-frågorna flushar först)
+            saveSnapshot(tenantId, fromTables(tournamentId, head.seq()), true);
+        } else if (head.seq() - head.snapshotSeq() >= snapshotEvery) {
+            saveSnapshot(tenantId, replay(tournamentId), false);
+        }
+    }
+
+    // Räknar upp och låser huvudraden; null om turneringen inte finns (t.ex. raderad i samma transaktion)
+    private Head nextSeq(String tenantId, Long tournamentId) {
+        if (jdbcTemplate.update(NEXT_SEQ, tournamentId) == 0) {
+            // Första händelsen: turneringsraden låses så att bara en transaktion skapar huvudet
+            if (jdbcTemplate.queryForList(LOCK_TOURNAMENT, Long.class, tournamentId, tenantId).isEmpty()) {
+                return null;
+            }
+            if (jdbcTemplate.update(NEXT_SEQ, tournamentId) == 0) {
+                jdbcTemplate.update(INSERT_HEAD, tournamentId, tenantId);
+                log.debug("Started event log for tournament {}", tournamentId);
+            }
+        }
+        return jdbcTemplate.queryForObject(READ_HEAD,
+                (rs, row) -> new Head(rs.getLong(1), rs.getLong(2), rs.getBoolean(3)), tournamentId);
+    }
+
+    private void saveSnapshot(String tenantId, TournamentLogState state, boolean rebased) {
+        jdbcTemplate.update(DELETE_SNAPSHOT, state.tournamentId());
+        jdbcTemplate.update(INSERT_SNAPSHOT, state.tournamentId(), tenantId, state.seq(), rebased, json(state),
+                Timestamp.valueOf(LocalDateTime.now()));
+        if (rebased) {
+            jdbcTemplate.update(REBASED, state.seq(), state.seq(), state.tournamentId());
+        } else {
+            jdbcTemplate.update(SNAPSHOT_TAKEN, state.seq(), state.tournamentId());
+        }
+        log.debug("Saved {} snapshot of tournament {} at seq {}", rebased ? "rebased" : "replayed",
+                state.tournamentId(), state.seq());
+    }
+
+    // ---- Läsning ----
+
+    @Transactional(readOnly = true)
+    public TournamentEventsDTO getEvents(Long tournamentId, Long after, Integer limit) {
+        String tenantId = requireTournament(tournamentId);
+        int size = limit != null ? limit : DEFAULT_LIMIT;
+        if (size < 1 || size > MAX_LIMIT) {
+            throw new IllegalArgumentException("Antal händelser måste vara mellan 1 och " + MAX_LIMIT);
+        }
+        long from = after != null ? after : 0;
+        TournamentEventHead head = headRepository.findByTournamentIdAndTenantId(tournamentId, tenantId).orElse(null);
+        if (head == null) {
+            return new TournamentEventsDTO(List.of(), 0L, false);
+        }
+        // Före senaste nya bilden från tabellerna ändrades data utan händelser, även om senare bilder finns
+        long rebaseSeq = head.getRebaseSeq() != null ? head.getRebaseSeq() : 0;
+        boolean resync = head.getStale() || (from > 0 && from < rebaseSeq);
+        List<TournamentEvent> events = eventRepository.findByTenantIdAndTournamentIdAndSeqGreaterThanOrderBySeqAsc(
+                tenantId, tournamentId, from, PageRequest.of(0, size));
+        return new TournamentEventsDTO(events, head.getLastSeq(), resync);
+    }
+
+    // Tillståndet enligt loggen med tabell per grupp, framräknad ur de uppspelade matcherna
+    @Transactional(readOnly = true)
+    public EventLogStateDTO getState(Long tournamentId) {
+        String tenantId = requireTournament(tournamentId);
+        TournamentEventHead head = headRepository.findByTournamentIdAndTenantId(tournamentId, tenantId).orElse(null);
+        boolean replayed = head != null && !head.getStale();
+        TournamentLogState state = replayed ? replay(tournamentId)
+                : fromTables(tournamentId, head != null ? head.getLastSeq() : 0);
+
+        Map<Long, List<MatchSnapshot>> matchesByGroup = new LinkedHashMap<>();
+        for (MatchSnapshot match : state.matches()) {
+            matchesByGroup.computeIfAbsent(match.groupId(), id -> new ArrayList<>()).add(match);
+        }
+        List<EventLogStateDTO.Group> groups = new ArrayList<>();
+        for (GroupSnapshot group : state.groups()) {
+            List<MatchSnapshot> matches = matchesByGroup.getOrDefault(group.id(), List.of());
+            groups.add(new EventLogStateDTO.Group(group.id(), group.groupNumber(), group.participants(), matches,
+                    StandingsCalculator.standings(group.participants(), matches)));
+        }
+        return new EventLogStateDTO(tournamentId, state.seq(), replayed, groups);
+    }
+
+    /**
+     * Senaste ögonblicksbilden plus händelserna efter den. Utgångspunkt för att
+     * räkna om eller bygga nya vyer ur loggen.
+     */
+    @Transactional(readOnly = true)
+    public TournamentLogState replay(Long tournamentId) {
+        TournamentLogSnapshot snapshot = snapshotRepository.findById(tournamentId)
+                .orElseThrow(() -> new IllegalStateException("Händelseloggen för turnering " + tournamentId
+                        + " saknar ögonblicksbild"));
+        TournamentLogState base = read(snapshot.getState(), new TypeReference<>() {});
+        Map<Long, GroupSnapshot> groups = new LinkedHashMap<>();
+        base.groups().forEach(group -> groups.put(group.id(), group));
+        Map<Long, MatchSnapshot> matches = new LinkedHashMap<>();
+        base.matches().forEach(match -> matches.put(match.id(), match));
+
+        long seq = base.seq();
+        for (TournamentEvent event : eventRepository.findByTournamentIdAndSeqGreaterThanOrderBySeqAsc(tournamentId, seq)) {
+            apply(event, groups, matches);
+            seq = event.getSeq();
+        }
+        return new TournamentLogState(tournamentId, seq, sorted(groups.values()), new ArrayList<>(matches.values()));
+    }
+
+    private void apply(TournamentEvent event, Map<Long, GroupSnapshot> groups, Map<Long, MatchSnapshot> matches) {
+        switch (event.getType()) {
+            case MATCH_REPORTED, MATCH_CORRECTED -> {
+                MatchSnapshot match = read(event.getPayload(), new TypeReference<>() {});
+                matches.put(match.id(), match);
+            }
+            case MATCH_REMOVED -> matches.remove(event.getMatchId());
+            case PARTICIPANTS_CHANGED -> {
+                GroupSnapshot changed = read(event.getPayload(), new TypeReference<>() {});
+                setParticipants(groups, event.getGroupId(), changed.groupNumber(), changed.participants());
+            }
+            case PLAYER_RENAMED -> {
+                Map<String, Object> renamed = read(event.getPayload(), new TypeReference<>() {});
+                setParticipants(groups, event.getGroupId(), null, strings(renamed.get("participants")));
+            }
+            case ROUND_CREATED -> {
+                List<GroupSnapshot> created = read(event.getPayload(), new TypeReference<>() {});
+                created.forEach(group -> groups.put(group.id(), group));
+            }
+            case GROUP_REMOVED -> {
+                groups.remove(event.getGroupId());
+                matches.values().removeIf(match -> Objects.equals(match.groupId(), event.getGroupId()));
+            }
+            default -> log.warn("Unknown event type {} at seq {} in tournament {}",
+                    event.getType(), event.getSeq(), event.getTournamentId());
+        }
+    }
+
+    private static void setParticipants(Map<Long, GroupSnapshot> groups, Long groupId, Integer groupNumber,
+                                        List<String> participants) {
+        GroupSnapshot existing = groups.get(groupId);
+        Integer number = groupNumber != null ? groupNumber : existing != null ? existing.groupNumber() : null;
+        groups.put(groupId, new GroupSnapshot(groupId, number, participants));
+    }
+
+    private TournamentLogState fromTables(Long tournamentId, long seq) {
+        List<GroupSnapshot> groups = groupRepository.findByTournamentId(tournamentId).stream()
+                .map(GroupSnapshot::of)
+                .toList();
+        return new TournamentLogState(tournamentId, seq, sorted(groups),
+                matchResultRepository.findSnapshotsByTournamentId(tournamentId));
+    }
+
+    private String requireTournament(Long tournamentId) {
+        if (!enabled) {
+            throw new IllegalArgumentException("Händelseloggen är inte aktiverad");
+        }
+        String tenantId = TenantContext.current();
+        tournamentRepository.findByIdAndTenantId(tournamentId, tenantId)
+                .orElseThrow(() -> new IllegalArgumentException("Turnering med ID " + tournamentId + " hittades inte"));
+        return tenantId;
+    }
+
+    private static List<GroupSnapshot> sorted(Iterable<GroupSnapshot> groups) {
+        List<GroupSnapshot> list = new ArrayList<>();
+        groups.forEach(list::add);
+        list.sort(Comparator.comparing(GroupSnapshot::groupNumber, Comparator.nullsLast(Comparator.naturalOrder())));
+        return list;
+    }
+
+    private static List<String> strings(Object value) {
+        List<String> result = new ArrayList<>();
+        if (value instanceof List<?> list) {
+            list.forEach(item -> result.add(String.valueOf(item)));
+        }
+        return result;
+    }
+
+    private String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Kunde inte serialisera händelse", e);
+        }
+    }
+
+    private <T> T read(String json, TypeReference<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Kunde inte läsa händelseloggen", e);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.tennisfun.service;
+
+import com.tennisfun.dto.BulkOperationDTO;
+import com.tennisfun.event.AuditEvent;
+import com.tennisfun.event.TournamentChangedEvent;
+import com.tennisfun.event.TournamentSnapshot;
+import com.tennisfun.migration.GroupParticipantsMigration;
+import com.tennisfun.repository.BracketNodeRepository;
+import com.tennisfun.repository.GroupProgressRepository;
+import com.tennisfun.repository.MatchResultRepository;
+import com.tennisfun.repository.TournamentEventHeadRepository;
+import com.tennisfun.repository.TournamentEventRepository;
+import com.tennisfun.repository.TournamentGroupRepository;
+import com.tennisfun.repository.TournamentLogSnapshotRepository;
+import com.tennisfun.repository.TournamentRepository;
+import com.tennisfun.tenant.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Massåtgärder på turneringar: radera en lista, radera alla aktiva, arkivera
+ * allt före ett datum och rensa gamla arkiverade turneringar.
+ * <p>
+ * Varje åtgärd körs i omgångar om {@code tennisfun.bulk.chunk-size} turneringar,
+ * en transaktion per omgång, och varje omgång är ett fåtal mängdsatser (matcher,
+ * slutspelsnoder, grupper, turneringar) oavsett hur stora turneringarna är.
+ * Entiteterna laddas aldrig. Eftersom satserna går förbi entitetshändelserna
+ * räknas huvud-mot-huvud, statistik och rating om en gång när hela åtgärden är klar.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TournamentLifecycleService {
+
+    private final TournamentRepository tournamentRepository;
+    private final TournamentGroupRepository groupRepository;
+    private final MatchResultRepository matchResultRepository;
+    private final BracketNodeRepository bracketNodeRepository;
+    private final TournamentEventRepository eventRepository;
+    private final TournamentEventHeadRepository eventHeadRepository;
+    private final TournamentLogSnapshotRepository logSnapshotRepository;
+    private final GroupProgressRepository progressRepository;
+    private final GroupParticipantsMigration participantsMigration;
+    private final RatingService ratingService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${tennisfun.bulk.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${tennisfun.bulk.max-ids:10000}")
+    private int maxIds;
+
+    public BulkOperationDTO deleteTournaments(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("Minst en turnering måste anges");
+        }
+        if (ids.size() > maxIds) {
+            throw new IllegalArgumentException("Högst " + maxIds + " turneringar kan raderas åt gången");
+        }
+        String tenantId = TenantContext.current();
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids.stream().filter(Objects::nonNull).toList()));
+        log.info("Bulk deleting {} tournaments", distinct.size());
+        Progress progress = new Progress();
+        for (int from = 0; from < distinct.size(); from += chunkSize) {
+            List<Long> chunk = distinct.subList(from, Math.min(from + chunkSize, distinct.size()));
+            transactionTemplate.executeWithoutResult(status ->
+                    progress.add(deleteRows(tenantId, tournamentRepository.findSnapshotsByIds(tenantId, chunk))));
+        }
+        return finish(tenantId, progress, true);
+    }
+
+    public BulkOperationDTO deleteActive() {
+        String tenantId = TenantContext.current();
+        log.info("Bulk deleting all active tournaments");
+        return deleteWhile(tenantId, () -> tournamentRepository.findSnapshotsByArchived(
+                tenantId, false, PageRequest.of(0, chunkSize)));
+    }
+
+    public BulkOperationDTO purgeArchived(Integer olderThanYears) {
+        if (olderThanYears == null || olderThanYears < 1) {
+            throw new IllegalArgumentException("Antal år måste vara minst 1");
+        }
+        String tenantId = TenantContext.current();
+        LocalDate before = LocalDate.now().minusYears(olderThanYears);
+        log.info("Purging archived tournaments dated before {}", before);
+        return deleteWhile(tenantId, () -> tournamentRepository.findSnapshotsByArchivedAndDateBefore(
+                tenantId, true, before, PageRequest.of(0, chunkSize)));
+    }
+
+    public BulkOperationDTO archiveBefore(LocalDate before) {
+        if (before == null) {
+            throw new IllegalArgumentException("Datum måste anges");
+        }
+        String tenantId = TenantContext.current();
+        log.info("Archiving tournaments dated before {}", before);
+        Progress progress = new Progress();
+        boolean more = true;
+        while (more) {
+            more = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                List<Long> ids = tournamentRepository.findSnapshotsByArchivedAndDateBefore(
+                                tenantId, false, before, PageRequest.of(0, chunkSize)).stream()
+                        .map(TournamentSnapshot::id)
+                        .toList();
+                int archived = ids.isEmpty() ? 0 : tournamentRepository.archiveByIds(tenantId, ids);
+                progress.add(new BulkOperationDTO(archived, 0, 0, 1, null));
+                return archived > 0 && ids.size() == chunkSize;
+            }));
+        }
+        return finish(tenantId, progress, false);
+    }
+
+    /**
+     * Raderar turneringarna med mängdsatser i pågående transaktion och loggar
+     * varje turnering i granskningsloggen. Händelser per match publiceras inte;
+     * den som behöver dem (t.ex. radering av en enskild turnering) får göra det själv.
+     */
+    @Transactional
+    public BulkOperationDTO deleteRows(String tenantId, List<TournamentSnapshot> tournaments) {
+        if (tournaments.isEmpty()) {
+            return new BulkOperationDTO(0, 0, 0, 1, null);
+        }
+        List<Long> ids = tournaments.stream().map(TournamentSnapshot::id).toList();
+        int matches = matchResultRepository.deleteByTournamentIds(tenantId, ids);
+        bracketNodeRepository.deleteByTournamentIds(tenantId, ids);
+        eventRepository.deleteByTournamentIds(tenantId, ids);
+        logSnapshotRepository.deleteByTournamentIds(tenantId, ids);
+        eventHeadRepository.deleteByTournamentIds(tenantId, ids);
+        progressRepository.deleteByTournamentIds(tenantId, ids);
+        participantsMigration.deleteLegacyParticipants(tenantId, ids);
+        int groups = groupRepository.deleteByTournamentIds(tenantId, ids);
+        int deleted = tournamentRepository.deleteByIds(tenantId, ids);
+        for (TournamentSnapshot tournament : tournaments) {
+            eventPublisher.publishEvent(new AuditEvent(tenantId, tournament.id(), null,
+                    AuditEvent.DELETE_TOURNAMENT, tournament, null));
+        }
+        return new BulkOperationDTO(deleted, groups, matches, 1, null);
+    }
+
+    // Frågar om första sidan efter varje omgång; det som raderats matchar inte längre
+    private BulkOperationDTO deleteWhile(String tenantId, Supplier<List<TournamentSnapshot>> nextChunk) {
+        Progress progress = new Progress();
+        boolean more = true;
+        while (more) {
+            more = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                List<TournamentSnapshot> chunk = nextChunk.get();
+                BulkOperationDTO result = deleteRows(tenantId, chunk);
+                progress.add(result);
+                return result.getTournaments() > 0 && chunk.size() == chunkSize;
+            }));
+        }
+        return finish(tenantId, progress, true);
+    }
+
+    private BulkOperationDTO finish(String tenantId, Progress progress, boolean deleted) {
+        BulkOperationDTO result = progress.result();
+        if (result.getTournaments() > 0) {
+            eventPublisher.publishEvent(new TournamentChangedEvent(tenantId, null));
+            if (deleted) {
+                ratingService.scheduleRebuild(tenantId);
+            }
+        }
+        log.info("Bulk operation done: {} tournaments, {} groups, {} matches in {} chunks, {} ms",
+                result.getTournaments(), result.getGroups(), result.getMatches(), result.getChunks(),
+                result.getDurationMs());
+        return result;
+    }
+
+    private static final class Progress {
+        private final long start = System.nanoTime();
+        private int tournaments;
+        private int groups;
+        private int matches;
+        private int chunks;
+
+        void add(BulkOperationDTO chunk) {
+            tournaments += chunk.getTournaments();
+            groups += chunk.getGroups();
+            matches += chunk.getMatches();
+            chunks += chunk.getChunks();
+        }
+
+        BulkOperationDTO result() {
+            return new BulkOperationDTO(tournaments, groups, matches, chunks, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
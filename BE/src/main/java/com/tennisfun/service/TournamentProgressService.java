@@ -0,0 +1,224 @@
+package com.tennisfun.service;
+
+import com.tennisfun.dto.GroupProgressDTO;
+import com.tennisfun.dto.TournamentProgressDTO;
+import com.tennisfun.entity.GroupProgress;
+import com.tennisfun.entity.MatchStatus;
+import com.tennisfun.entity.TournamentGroup;
+import com.tennisfun.event.AuditEvent;
+import com.tennisfun.event.GroupSnapshot;
+import com.tennisfun.event.GroupsChangedEvent;
+import com.tennisfun.event.MatchResultChangedEvent;
+import com.tennisfun.event.MatchSnapshot;
+import com.tennisfun.event.TournamentChangedEvent;
+import com.tennisfun.repository.GroupProgressRepository;
+import com.tennisfun.repository.MatchResultRepository;
+import com.tennisfun.repository.TournamentGroupRepository;
+import com.tennisfun.repository.TournamentRepository;
+import com.tennisfun.tenant.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hur långt turneringens grupper har kommit: förväntade, spelade, uppgivna och
+ * W.O.-matcher per grupp och vilka grupper som är klara för slutspel.
+ * <p>
+ * Räknarna i {@code group_progress} ändras med {@code x = x + ?} i samma
+ * transaktion som ett resultat rapporteras, ändras eller tas bort, eller som
+ * gruppens deltagare ändras, så att läsningen är en fråga mot en rad per grupp.
+ * En turnering utan rader räknas fram ur tabellerna vid första läsningen. Importer
+ * och massåtgärder ger inga händelser per match; då tas klubbens rader bort och
+ * räknas fram igen på samma sätt. Omräkning sker med turneringsraden låst, så att
+ * en samtidig rapport antingen räknas med eller läggs på efteråt.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TournamentProgressService {
+
+    private static final String ADD_COUNTS =
+            "UPDATE group_progress SET played = played + ?, retired = retired + ?, walkovers = walkovers + ? " +
+            "WHERE group_id = ?";
+    private static final String SET_PARTICIPANTS =
+            "UPDATE group_progress SET participants = ?, expected = ? WHERE group_id = ?";
+    private static final String INSERT_PROGRESS =
+            "INSERT INTO group_progress (group_id, tenant_id, tournament_id, group_number, participants, expected, " +
+            "played, retired, walkovers) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String LOCK_TOURNAMENT =
+            "SELECT id FROM tournaments WHERE id = ? AND tenant_id = ? FOR UPDATE";
+    private static final String HAS_PROGRESS =
+            "SELECT COUNT(*) FROM group_progress WHERE tournament_id = ?";
+    private static final String DELETE_TOURNAMENT = "DELETE FROM group_progress WHERE tournament_id = ?";
+    private static final String DELETE_GROUP = "DELETE FROM group_progress WHERE group_id = ?";
+    private static final String DELETE_TENANT = "DELETE FROM group_progress WHERE tenant_id = ?";
+
+    private final GroupProgressRepository progressRepository;
+    private final TournamentRepository tournamentRepository;
+    private final TournamentGroupRepository groupRepository;
+    private final MatchResultRepository matchResultRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public TournamentProgressDTO getProgress(Long tournamentId) {
+        String tenantId = TenantContext.current();
+        List<GroupProgress> rows = progressRepository.findByTournamentIdAndTenantIdOrderByGroupNumber(tournamentId, tenantId);
+        if (rows.isEmpty()) {
+            tournamentRepository.findByIdAndTenantId(tournamentId, tenantId)
+                    .orElseThrow(() -> new IllegalArgumentException("Turnering med ID " + tournamentId + " hittades inte"));
+            if (lock(tenantId, tournamentId) && !hasProgress(tournamentId)) {
+                rebuild(tenantId, tournamentId);
+            }
+            rows = progressRepository.findByTournamentIdAndTenantIdOrderByGroupNumber(tournamentId, tenantId);
+        }
+
+        int expected = 0;
+        int completed = 0;
+        List<Long> ready = new ArrayList<>();
+        List<GroupProgressDTO> groups = new ArrayList<>(rows.size());
+        for (GroupProgress row : rows) {
+            int done = row.getPlayed() + row.getRetired() + row.getWalkovers();
+            boolean finished = row.getExpected() > 0 && done >= row.getExpected();
+            boolean knockout = row.getParticipants() == 2;
+            expected += row.getExpected();
+            completed += Math.min(done, row.getExpected());
+            if (finished && !knockout) {
+                ready.add(row.getGroupId());
+            }
+            groups.add(new GroupProgressDTO(row.getGroupId(), row.getGroupNumber(), row.getParticipants(),
+                    row.getExpected(), row.getPlayed(), row.getRetired(), row.getWalkovers(), done, finished, knockout));
+        }
+        return new TournamentProgressDTO(tournamentId, expected, completed,
+                expected > 0 ? (double) completed / expected : null, ready, groups);
+    }
+
+    // ---- Räknare, i ändringens transaktion ----
+
+    // Före slutspelsträdets lyssnare: en grupp som trädet skapar räknas då om med matchen redan inräknad
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onMatchResultChanged(MatchResultChangedEvent event) {
+        int[] counts = new int[3];
+        add(counts, event.before(), -1);
+        add(counts, event.after(), 1);
+        if (counts[0] == 0 && counts[1] == 0 && counts[2] == 0) {
+            return;
+        }
+        MatchSnapshot match = event.after() != null ? event.after() : event.before();
+        if (jdbcTemplate.update(ADD_COUNTS, counts[0], counts[1], counts[2], match.groupId()) == 0) {
+            repair(event.tenantId(), event.tournamentId());
+        }
+    }
+
+    @EventListener
+    public void onAudit(AuditEvent event) {
+        if (AuditEvent.PARTICIPANTS.equals(event.action()) && event.groupId() != null
+                && event.after() instanceof Collection<?> participants) {
+            setParticipants(event.tenantId(), event.tournamentId(), event.groupId(), participants.size());
+        }
+    }
+
+    @EventListener
+    public void onGroupsChanged(GroupsChangedEvent event) {
+        switch (event.type()) {
+            case PARTICIPANTS -> event.groups().forEach(group ->
+                    setParticipants(event.tenantId(), event.tournamentId(), group.id(), group.participants().size()));
+            case REMOVED -> event.groups().forEach(group -> jdbcTemplate.update(DELETE_GROUP, group.id()));
+            case CREATED -> {
+                // Nya grupper har inga matcher; en turnering utan rader räknas fram när den läses
+                if (!event.groups().isEmpty() && lock(event.tenantId(), event.tournamentId())
+                        && hasProgress(event.tournamentId())) {
+                    for (GroupSnapshot group : event.groups()) {
+                        int participants = group.participants().size();
+                        jdbcTemplate.update(INSERT_PROGRESS, group.id(), event.tenantId(), event.tournamentId(),
+                                group.groupNumber(), participants, expected(participants), 0, 0, 0);
+                    }
+                }
+            }
+        }
+    }
+
+    // Import och massåtgärder: klubbens räknare räknas fram igen vid nästa läsning
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTournamentChanged(TournamentChangedEvent event) {
+        if (event.tournamentId() == null && !event.remote()) {
+            int deleted = jdbcTemplate.update(DELETE_TENANT, event.tenantId());
+            log.debug("Cleared {} group progress rows after bulk change", deleted);
+        }
+    }
+
+    private void setParticipants(String tenantId, Long tournamentId, Long groupId, int participants) {
+        if (jdbcTemplate.update(SET_PARTICIPANTS, participants, expected(participants), groupId) == 0) {
+            repair(tenantId, tournamentId);
+        }
+    }
+
+    // En rad saknas: räkna om hela turneringen om den har rader, annars görs det vid nästa läsning
+    private void repair(String tenantId, Long tournamentId) {
+        if (lock(tenantId, tournamentId) && hasProgress(tournamentId)) {
+            rebuild(tenantId, tournamentId);
+        }
+    }
+
+    private void rebuild(String tenantId, Long tournamentId) {
+        Map<Long, int[]> counts = new HashMap<>();
+        for (Object[] row : matchResultRepository.countByGroupAndStatus(tournamentId)) {
+            int[] group = counts.computeIfAbsent((Long) row[0], id -> new int[3]);
+            group[index((MatchStatus) row[1])] += ((Number) row[2]).intValue();
+        }
+        List<Object[]> rows = new ArrayList<>();
+        for (TournamentGroup group : groupRepository.findByTournamentId(tournamentId)) {
+            int participants = group.getParticipants() != null ? group.getParticipants().size() : 0;
+            int[] groupCounts = counts.getOrDefault(group.getId(), new int[3]);
+            rows.add(new Object[]{group.getId(), tenantId, tournamentId, group.getGroupNumber(), participants,
+                    expected(participants), groupCounts[0], groupCounts[1], groupCounts[2]});
+        }
+        jdbcTemplate.update(DELETE_TOURNAMENT, tournamentId);
+        jdbcTemplate.batchUpdate(INSERT_PROGRESS, rows);
+        log.debug("Rebuilt progress for tournament {}: {} groups", tournamentId, rows.size());
+    }
+
+    // Låser turneringsraden; false om turneringen inte finns (t.ex. raderad i samma transaktion)
+    private boolean lock(String tenantId, Long tournamentId) {
+        return !jdbcTemplate.queryForList(LOCK_TOURNAMENT, Long.class, tournamentId, tenantId).isEmpty();
+    }
+
+    private boolean hasProgress(Long tournamentId) {
+        Long rows = jdbcTemplate.queryForObject(HAS_PROGRESS, Long.class, tournamentId);
+        return rows != null && rows > 0;
+    }
+
+    private static void add(int[] counts, MatchSnapshot match, int sign) {
+        if (match != null) {
+            counts[index(match.status())] += sign;
+        }
+    }
+
+    // Resultat utan status är från före W.O. och uppgivna matcher och räknas som spelade
+    private static int index(MatchStatus status) {
+        if (status == null) {
+            return 0;
+        }
+        return switch (status) {
+            case PLAYED -> 0;
+            case RETIRED -> 1;
+            case WALKOVER -> 2;
+        };
+    }
+
+    private static int expected(int participants) {
+        return participants * (participants - 1) / 2;
+    }
+}
@@ -1,16 +1,29 @@
 package com.tennisfun.service;
 
+import com.tennisfun.dto.BulkOperationDTO;
 import com.tennisfun.dto.CreateTournamentRequest;
 import com.tennisfun.dto.TournamentGroupDTO;
 import com.tennisfun.dto.TournamentSummaryDTO;
 import com.tennisfun.entity.MatchResult;
 import com.tennisfun.entity.Tournament;
 import com.tennisfun.entity.TournamentGroup;
+import com.tennisfun.event.AuditEvent;
+import com.tennisfun.event.GroupSnapshot;
+import com.tennisfun.event.GroupsChangedEvent;
+import com.tennisfun.event.MatchResultChangedEvent;
+import com.tennisfun.event.MatchSnapshot;
+import com.tennisfun.event.TournamentArchivedEvent;
+import com.tennisfun.event.TournamentChangedEvent;
+import com.tennisfun.event.TournamentSnapshot;
+import com.tennisfun.repository.BracketNodeRepository;
 import com.tennisfun.repository.MatchResultRepository;
 import com.tennisfun.repository.TournamentRepository;
 import com.tennisfun.repository.TournamentGroupRepository;
 import lombok.RequiredArgsConstructor;
+import com.tennisfun.tenant.TenantContext;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,10 +36,17 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @Slf4j
 public class TournamentService {
+
+    public static final String TOURNAMENT_CHANGED = "Turneringen har ändrats av någon annan. Ladda om och försök igen";
+    public static final String GROUP_CHANGED = "Gruppen har ändrats av någon annan. Ladda om och försök igen";
     
     private final TournamentRepository tournamentRepository;
     private final TournamentGroupRepository groupRepository;
     private final MatchResultRepository matchResultRepository;
+    private final BracketNodeRepository bracketNodeRepository;
+    private final TournamentCache tournamentCache;
+    private final TournamentLifecycleService lifecycleService;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Transactional
     public TournamentSummaryDTO createTournament(CreateTournamentRequest request) {
@@ -54,6 +74,7 @@ public class TournamentService {
         
         // Skapa Tournament entity
         Tournament tournament = new Tournament();
+        tournament.setTenantId(TenantContext.current());
         tournament.setName(request.getName().trim());
         tournament.setDate(LocalDate.parse(request.getDate(), DateTimeFormatter.ISO_LOCAL_DATE));
         tournament.setNumberOfWinners(request.getNumberOfWinners() != null ? request.getNumberOfWinners() : 1);
@@ -83,6 +104,9 @@ public class TournamentService {
         Tournament savedTournament = tournamentRepository.save(tournament);
         
         log.info("Tournament created with ID: {}", savedTournament.getId());
+        eventPublisher.publishEvent(new GroupsChangedEvent(savedTournament.getTenantId(), savedTournament.getId(),
+                GroupsChangedEvent.Type.CREATED, savedTournament.getGroups().stream().map(GroupSnapshot::of).toList()));
+        publishChange(savedTournament.getId());
         
         // Returnera sammanfattning
         int participantCount = savedTournament.getGroups().stream()
@@ -101,7 +125,7 @@ public class TournamentService {
     
     @Transactional(readOnly = true)
     public List<TournamentSummaryDTO> getAllTournaments() {
-        return tournamentRepository.findAllByOrderByDateDesc().stream()
+        return tournamentRepository.findByTenantIdOrderByDateDesc(TenantContext.current()).stream()
                 .map(tournament -> {
                     int participantCount = tournament.getGroups().stream()
                             .mapToInt(group -> group.getParticipants().size())
@@ -120,7 +144,7 @@ public class TournamentService {
     
     @Transactional(readOnly = true)
     public List<TournamentSummaryDTO> getActiveTournaments() {
-        return tournamentRepository.findByArchivedOrderByDateDesc(false).stream()
+        return tournamentRepository.findByTenantIdAndArchivedOrderByDateDesc(TenantContext.current(), false).stream()
                 .map(tournament -> {
                     int participantCount = tournament.getGroups().stream()
                             .mapToInt(group -> group.getParticipants().size())
@@ -139,7 +163,7 @@ public class TournamentService {
     
     @Transactional(readOnly = true)
     public List<TournamentSummaryDTO> getArchivedTournaments() {
-        return tournamentRepository.findByArchivedOrderByDateDesc(true).stream()
+        return tournamentRepository.findByTenantIdAndArchivedOrderByDateDesc(TenantContext.current(), true).stream()
                 .map(tournament -> {
                     int participantCount = tournament.getGroups().stream()
                             .mapToInt(group -> group.getParticipants().size())
@@ -158,34 +182,62 @@ public class TournamentService {
     
     @Transactional(readOnly = true)
     public Tournament getTournamentById(Long id) {
-        return tournamentRepository.findById(id)
+        return tournamentRepository.findByIdAndTenantId(id, TenantContext.current())
                 .orElseThrow(() -> new IllegalArgumentException("Turnering med ID " + id + " hittades inte"));
     }
+
+    @Transactional(readOnly = true)
+    public TournamentGroup getGroup(Long groupId) {
+        return groupRepository.findByIdAndTenantId(groupId, TenantContext.current())
+                .orElseThrow(() -> new IllegalArgumentException("Grupp med ID " + groupId + " hittades inte"));
+    }
+
+    // Fullständigt laddad turnering för läsvägen; delas mellan förfrågningar och får inte ändras
+    @Transactional(readOnly = true)
+    public Tournament getTournamentSnapshot(Long id) {
+        String tenantId = TenantContext.current();
+        return tournamentCache.get(tenantId, id, () -> {
+            Tournament tournament = getTournamentById(id);
+            tournament.getGroups().forEach(group -> Hibernate.initialize(group.getMatchResults()));
+            return tournament;
+        });
+    }
     
     @Transactional
     public void archiveTournament(Long id) {
         log.info("Archiving tournament with ID: {}", id);
         Tournament tournament = getTournamentById(id);
+        boolean wasArchived = Boolean.TRUE.equals(tournament.getArchived());
         tournament.setArchived(true);
         tournamentRepository.save(tournament);
+        if (!wasArchived) {
+            eventPublisher.publishEvent(new TournamentArchivedEvent(
+                    tournament.getTenantId(), id, tournament.getDate(), true));
+        }
+        publishChange(id);
         log.info("Tournament archived successfully");
     }
     
     @Transactional
     public void deleteTournament(Long id) {
         log.info("Deleting tournament with ID: {}", id);
-        Tournament tournament = tournamentRepository.findById(id)
+        String tenantId = TenantContext.current();
+        TournamentSnapshot tournament = tournamentRepository.findSnapshotsByIds(tenantId, List.of(id)).stream()
+                .findFirst()
                 .orElseThrow(() -> new IllegalArgumentException("Turnering med ID " + id + " hittades inte"));
-        tournamentRepository.delete(tournament);
+        List<MatchSnapshot> results = matchResultRepository.findSnapshotsByTournamentId(id);
+        lifecycleService.deleteRows(tenantId, List.of(tournament));
+        publishResultsDeleted(id, results);
+        if (Boolean.TRUE.equals(tournament.archived())) {
+            eventPublisher.publishEvent(new TournamentArchivedEvent(tenantId, id, tournament.date(), false));
+        }
+        publishChange(id);
         log.info("Tournament deleted successfully");
     }
     
-    @Transactional
-    public void deleteAllTournaments() {
+    public BulkOperationDTO deleteAllTournaments() {
         log.info("Deleting all non-archived tournaments from database");
-        List<Tournament> activeTournaments = tournamentRepository.findByArchivedOrderByDateDesc(false);
-        tournamentRepository.deleteAll(activeTournaments);
-        log.info("All active tournaments deleted successfully");
+        return lifecycleService.deleteActive();
     }
     
     @Transactional
@@ -229,6 +281,13 @@ public class TournamentService {
         }
         
         Tournament updatedTournament = tournamentRepository.save(tournament);
+        List<GroupSnapshot> created = updatedTournament.getGroups().stream()
+            .filter(g -> g.getGroupNumber() != null && g.getGroupNumber() >= nextGroupNumber)
+            .map(GroupSnapshot::of)
+            .toList();
+        eventPublisher.publishEvent(new GroupsChangedEvent(updatedTournament.getTenantId(), tournamentId,
+            GroupsChangedEvent.Type.CREATED, created));
+        publishChange(tournamentId);
         
         log.info("Created {} empty knockout matches for {} players", numMatches, numberOfPlayers);
         
@@ -236,11 +295,16 @@ public class TournamentService {
     }
     
     @Transactional
-    public TournamentGroup updateGroupParticipants(Long groupId, List<String> participants) {
+    public TournamentGroup updateGroupParticipants(Long groupId, List<String> participants, Long expectedVersion) {
         log.info("Updating participants for group ID: {}", groupId);
         
-        TournamentGroup group = groupRepository.findById(groupId)
-                .orElseThrow(() -> new IllegalArgumentException("Grupp med ID " + groupId + " hittades inte"));
+        TournamentGroup group = getGroup(groupId);
+        Versions.check(expectedVersion, group.getVersion(), GROUP_CHANGED);
+        
+        // Slutspelsträdet sätter spelarna i sina matcher när vinnare flyttas vidare
+        if (bracketNodeRepository.existsByGroupId(groupId)) {
+            throw new IllegalArgumentException("Matchen ingår i slutspelsträdet och får sina spelare därifrån");
+        }
         
         if (participants == null || participants.isEmpty()) {
             throw new IllegalArgumentException("Deltagarlista får inte vara tom");
@@ -254,8 +318,12 @@ public class TournamentService {
             throw new IllegalArgumentException("En spelare kan inte möta sig själv");
         }
         
+        List<String> previous = new ArrayList<>(group.getParticipants());
         group.setParticipants(new ArrayList<>(participants));
         TournamentGroup updatedGroup = groupRepository.save(group);
+        eventPublisher.publishEvent(new AuditEvent(group.getTenantId(), group.getTournament().getId(), groupId,
+                AuditEvent.PARTICIPANTS, previous, new ArrayList<>(participants)));
+        publishChange(group.getTournament().getId());
         
         log.info("Updated group {} with participants: {}", groupId, participants);
         
@@ -263,17 +331,23 @@ public class TournamentService {
     }
 
     @Transactional
-    public Tournament renameTournament(Long id, String newName) {
+    public Tournament renameTournament(Long id, String newName, Long expectedVersion) {
         if (newName == null || newName.trim().isEmpty()) {
             throw new IllegalArgumentException("Turneringsnamn f\u00e5r inte vara tomt");
         }
         Tournament tournament = getTournamentById(id);
+        Versions.check(expectedVersion, tournament.getVersion(), TOURNAMENT_CHANGED);
+        String previousName = tournament.getName();
         tournament.setName(newName.trim());
-        return tournamentRepository.save(tournament);
+        Tournament saved = tournamentRepository.save(tournament);
+        eventPublisher.publishEvent(new AuditEvent(tournament.getTenantId(), id, null,
+                AuditEvent.RENAME_TOURNAMENT, Map.of("name", previousName), Map.of("name", saved.getName())));
+        publishChange(id);
+        return saved;
     }
 
     @Transactional
-    public void renamePlayer(Long groupId, String oldName, String newName) {
+    public TournamentGroup renamePlayer(Long groupId, String oldName, String newName, Long expectedVersion) {
         log.info("Renaming player '{}' to '{}' in group ID: {}", oldName, newName, groupId);
 
         if (oldName == null || oldName.trim().isEmpty()) {
@@ -285,8 +359,8 @@ public class TournamentService {
 
         String trimmedNew = newName.trim();
 
-        TournamentGroup group = groupRepository.findById(groupId)
-                .orElseThrow(() -> new IllegalArgumentException("Grupp med ID " + groupId + " hittades inte"));
+        TournamentGroup group = getGroup(groupId);
+        Versions.check(expectedVersion, group.getVersion(), GROUP_CHANGED);
 
         List<String> participants = group.getParticipants();
         if (!participants.contains(oldName)) {
@@ -303,10 +377,15 @@ public class TournamentService {
         }
         group.setParticipants(updatedParticipants);
         groupRepository.save(group);
+        eventPublisher.publishEvent(new AuditEvent(group.getTenantId(), group.getTournament().getId(), groupId,
+                AuditEvent.RENAME_PLAYER, Map.of("player", oldName, "participants", participants),
+                Map.of("player", trimmedNew, "participants", updatedParticipants)));
 
         // Update all match results in this group that reference the old name
         List<MatchResult> results = matchResultRepository.findByGroupId(groupId);
+        String setsPerMatch = group.getTournament().getSetsPerMatch();
         for (MatchResult result : results) {
+            MatchSnapshot before = MatchSnapshot.of(result, setsPerMatch);
             boolean changed = false;
             if (oldName.equals(result.getPlayer1())) {
                 result.setPlayer1(trimmedNew);
@@ -322,12 +401,16 @@ public class TournamentService {
             }
             if (changed) {
                 matchResultRepository.save(result);
+                eventPublisher.publishEvent(MatchResultChangedEvent.updated(TenantContext.current(),
+                        group.getTournament().getId(), before, MatchSnapshot.of(result, setsPerMatch)));
             }
         }
+        publishChange(group.getTournament().getId());
 
         log.info("Renamed player '{}' to '{}' in group {}, updated {} match results",
                 oldName, trimmedNew, groupId, results.stream().filter(r ->
                     trimmedNew.equals(r.getPlayer1()) || trimmedNew.equals(r.getPlayer2())).count());
+        return group;
     }
     
     // Hjälpklass för att hålla statistik för varje spelare
@@ -346,6 +429,17 @@ public class TournamentService {
         }
     }
     
+    private void publishChange(Long tournamentId) {
+        eventPublisher.publishEvent(new TournamentChangedEvent(TenantContext.current(), tournamentId));
+    }
+    
+    // Publiceras efter borttagningen så att lyssnare i samma transaktion inte ser turneringen
+    private void publishResultsDeleted(Long tournamentId, List<MatchSnapshot> results) {
+        for (MatchSnapshot snapshot : results) {
+            eventPublisher.publishEvent(MatchResultChangedEvent.deleted(TenantContext.current(), tournamentId, snapshot));
+        }
+    }
+    
     private boolean isNullOrEmpty(String str) {
         return str == null || str.trim().isEmpty();
     }
@@ -0,0 +1,648 @@
+package com.tennisfun.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.tennisfun.dto.PlayerSimulationDTO;
+import com.tennisfun.dto.SimulationDTO;
+import com.tennisfun.entity.BracketNode;
+import com.tennisfun.entity.PlayerRating;
+import com.tennisfun.entity.Tournament;
+import com.tennisfun.entity.TournamentGroup;
+import com.tennisfun.event.MatchSnapshot;
+import com.tennisfun.repository.BracketNodeRepository;
+import com.tennisfun.repository.MatchResultRepository;
+import com.tennisfun.repository.PlayerRatingRepository;
+import com.tennisfun.repository.TournamentRepository;
+import com.tennisfun.service.StandingsCalculator.Standing;
+import com.tennisfun.tenant.TenantContext;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Monte Carlo-simulering av resten av en pågående turnering.
+ * <p>
+ * Varje iteration spelar klart gruppernas återstående matcher, tar ut de som
+ * går vidare och spelar slutspelet till en vinnare. Redan spelade matcher
+ * ligger fast. Slutspelet följer turneringens läge:
+ * <ul>
+ *   <li>GROUPS – gruppspelet pågår; slutspelet seedas som {@link BracketService} gör.</li>
+ *   <li>BRACKET – slutspelsträdet finns; trädet spelas klart från nuvarande läge.</li>
+ *   <li>KNOCKOUT – manuella utslagsmatcher (grupper med två deltagare från
+ *       nästa omgång); kvarvarande spelare lottas ihop i gruppnummerordning.</li>
+ * </ul>
+ * Vinstchansen i en match kommer från Elo-ratingen eller från spelarens
+ * historiska vinstandel (log5). Simulerade gruppmatcher ger poäng och
+ * setskillnad; games i ospelade matcher är okända, så lika lägen därefter
+ * avgörs av nuvarande gameskillnad och till sist slumpmässigt.
+ * <p>
+ * Turneringen kompileras till primitiva arrayer en gång. Varje arbetare har
+ * egen slumpgenerator och egna arrayer, så en iteration allokerar ingenting.
+ * Arbetet körs i omgångar och ett delresultat lämnas efter varje omgång.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TournamentSimulationService {
+
+    public static final int DEFAULT_ITERATIONS = 20_000;
+    public static final int MAX_ITERATIONS = 1_000_000;
+
+    private static final int PROGRESS_ROUNDS = 20;     // Ungefär så många delresultat per simulering
+    private static final int MIN_ROUND_ITERATIONS = 1_000;
+    private static final int MAX_PLAYERS = 1024;       // Vinstchanserna hålls i en n×n-matris
+
+    private final TournamentRepository tournamentRepository;
+    private final MatchResultRepository matchResultRepository;
+    private final BracketNodeRepository bracketNodeRepository;
+    private final PlayerRatingRepository playerRatingRepository;
+    private final ObjectMapper objectMapper;
+
+    private final ForkJoinPool pool = new ForkJoinPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+
+    @PreDestroy
+    public void stop() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Läser turneringen och bygger simuleringen. Själva körningen sker utanför
+     * transaktionen med {@link Simulation#run(Consumer)} eller {@link #stream}.
+     */
+    @Transactional(readOnly = true)
+    public Simulation prepare(Long tournamentId, Integer iterations, String model, Long seed) {
+        String tenantId = TenantContext.current();
+        Tournament tournament = tournamentRepository.findByIdAndTenantId(tournamentId, tenantId)
+                .orElseThrow(() -> new IllegalArgumentException("Turnering med ID " + tournamentId + " hittades inte"));
+        if (Boolean.TRUE.equals(tournament.getArchived())) {
+            throw new IllegalArgumentException("Turneringen är arkiverad och kan inte simuleras");
+        }
+        int total = iterations != null ? iterations : DEFAULT_ITERATIONS;
+        if (total < 1 || total > MAX_ITERATIONS) {
+            throw new IllegalArgumentException("Antal iterationer måste vara mellan 1 och " + MAX_ITERATIONS);
+        }
+        String strengthModel = model != null ? model.toLowerCase(Locale.ROOT) : "rating";
+        if (!strengthModel.equals("rating") && !strengthModel.equals("winrate")) {
+            throw new IllegalArgumentException("Okänd modell: " + model + " (rating eller winrate)");
+        }
+
+        Compiler compiler = new Compiler(tournament);
+        if (compiler.players.size() < 2) {
+            throw new IllegalArgumentException("Turneringen har inga spelare att simulera");
+        }
+        if (compiler.players.size() > MAX_PLAYERS) {
+            throw new IllegalArgumentException("Turneringen har för många spelare för simulering (max " + MAX_PLAYERS + ")");
+        }
+        double[] strength = strengthModel.equals("rating")
+                ? ratings(tenantId, compiler.players)
+                : winRates(tenantId, compiler.players);
+        Plan plan = compiler.compile(strength, strengthModel.equals("rating"));
+        return new Simulation(tournamentId, strengthModel, total,
+                seed != null ? seed : new SplittableRandom().nextLong(), plan);
+    }
+
+    // Skriver ett delresultat per rad (NDJSON) och till sist slutresultatet med completed = true
+    public void stream(Simulation simulation, OutputStream out) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        ObjectWriter jsonWriter = objectMapper.writerFor(SimulationDTO.class);
+        simulation.run(progress -> {
+            try {
+                writer.write(jsonWriter.writeValueAsString(progress));
+                writer.write('\n');
+                writer.flush();
+            } catch (IOException e) {
+                // Klienten har kopplat ner; avbryter efter pågående omgång
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private double[] ratings(String tenantId, List<String> players) {
+        Map<String, Double> byName = playerRatingRepository.findByTenantIdOrderByRatingDesc(tenantId).stream()
+                .collect(Collectors.toMap(PlayerRating::getPlayerName, PlayerRating::getRating, (a, b) -> a));
+        double[] strength = new double[players.size()];
+        for (int i = 0; i < strength.length; i++) {
+            strength[i] = byName.getOrDefault(players.get(i), EloCalculator.INITIAL_RATING);
+        }
+        return strength;
+    }
+
+    // Vinstandel med en vinst och en förlust tillagd, så att nya spelare hamnar på 0,5
+    private double[] winRates(String tenantId, List<String> players) {
+        Map<String, long[]> counts = new HashMap<>();
+        for (List<Object[]> rows : List.of(matchResultRepository.countWinsAsPlayer1(tenantId, players),
+                matchResultRepository.countWinsAsPlayer2(tenantId, players))) {
+            for (Object[] row : rows) {
+                long[] c = counts.computeIfAbsent((String) row[0], name -> new long[2]);
+                c[0] += ((Number) row[1]).longValue();
+                c[1] += row[2] != null ? ((Number) row[2]).longValue() : 0;
+            }
+        }
+        double[] strength = new double[players.size()];
+        for (int i = 0; i < strength.length; i++) {
+            long[] c = counts.getOrDefault(players.get(i), new long[2]);
+            strength[i] = (c[1] + 1.0) / (c[0] + 2.0);
+        }
+        return strength;
+    }
+
+    /**
+     * En förberedd simulering. Kan köras i vilken tråd som helst, eftersom all
+     * data redan är läst.
+     */
+    public final class Simulation {
+        private final Long tournamentId;
+        private final String model;
+        private final int total;
+        private final long seed;
+        private final Plan plan;
+
+        private Simulation(Long tournamentId, String model, int total, long seed, Plan plan) {
+            this.tournamentId = tournamentId;
+            this.model = model;
+            this.total = total;
+            this.seed = seed;
+            this.plan = plan;
+        }
+
+        public SimulationDTO run(Consumer<SimulationDTO> progress) {
+            long start = System.nanoTime();
+            SplittableRandom root = new SplittableRandom(seed);
+            Worker[] workers = new Worker[pool.getParallelism()];
+            for (int w = 0; w < workers.length; w++) {
+                workers[w] = new Worker(plan, root.split());
+            }
+            int roundSize = Math.max(MIN_ROUND_ITERATIONS, total / PROGRESS_ROUNDS);
+            int done = 0;
+            SimulationDTO result = null;
+            while (done < total) {
+                int round = Math.min(roundSize, total - done);
+                try {
+                    pool.submit(() -> IntStream.range(0, workers.length).parallel()
+                            .forEach(w -> workers[w].run(round / workers.length
+                                    + (w < round % workers.length ? 1 : 0)))).get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Simuleringen avbröts", e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Simuleringen misslyckades", e.getCause());
+                }
+                done += round;
+                result = summarize(workers, done, start);
+                if (progress != null) {
+                    progress.accept(result);
+                }
+            }
+            log.debug("Simulated tournament {} {} times in {} ms", tournamentId, total, result.getElapsedMs());
+            return result;
+        }
+
+        private SimulationDTO summarize(Worker[] workers, int done, long start) {
+            int n = plan.players.length;
+            List<PlayerSimulationDTO> players = new ArrayList<>(n);
+            for (int p = 0; p < n; p++) {
+                long advanced = 0;
+                long won = 0;
+                for (Worker worker : workers) {
+                    advanced += worker.advanced[p];
+                    won += worker.won[p];
+                }
+                players.add(new PlayerSimulationDTO(plan.players[p], plan.strength[p],
+                        (double) advanced / done, (double) won / done));
+            }
+            players.sort(Comparator.comparing(PlayerSimulationDTO::getWinProbability).reversed()
+                    .thenComparing(Comparator.comparing(PlayerSimulationDTO::getAdvanceProbability).reversed()));
+            return new SimulationDTO(tournamentId, plan.stage, model, done, total, done == total, players,
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * Turneringen som primitiva arrayer. Spelare är index i {@code players};
+     * gruppernas medlemmar ligger i följd i {@code member} i nuvarande
+     * tabellordning, och gruppmatcher refererar till positioner i {@code member}.
+     */
+    private static final class Plan {
+        String stage;
+        String[] players;
+        double[] strength;
+        double[] winProbability;   // [a * n + b] = chansen att a vinner mot b
+
+        // Gruppspel
+        int[] groupStart;           // Längd grupper + 1
+        int[] matchStart;           // Längd grupper + 1
+        int[] member;
+        int[] basePoints;
+        int[] baseSets;
+        int[] baseGames;
+        int[] matchA;
+        int[] matchB;
+        int setsPerWin;
+        int qualifiers;             // Per grupp
+        int[] seedSlots;            // Seed -> plats i seedOrder, -1 = frilott
+
+        // Slutspel: noder i omgångsordning, barn före förälder
+        int[] nodeFixed;            // Känd vinnare eller -1
+        int[] nodeChild1;
+        int[] nodeChild2;
+        int[] nodePlayer1;
+        int[] nodePlayer2;
+
+        // Manuella utslagsmatcher: en post är en ospelad match eller en spelare som väntar
+        int[] entryA;
+        int[] entryB;
+
+        boolean[] alreadyAdvanced;  // Spelare som redan är i slutspelet
+    }
+
+    private final class Compiler {
+        private final Tournament tournament;
+        private final List<String> players = new ArrayList<>();
+        private final Map<String, Integer> index = new HashMap<>();
+        private final List<TournamentGroup> groupStage;
+        private final List<TournamentGroup> knockout;
+        private final List<BracketNode> nodes;
+        private final Map<Long, List<MatchSnapshot>> resultsByGroup;
+
+        Compiler(Tournament tournament) {
+            this.tournament = tournament;
+            List<TournamentGroup> groups = tournament.getGroups().stream()
+                    .filter(group -> group.getParticipants() != null)
+                    .sorted(Comparator.comparing(TournamentGroup::getGroupNumber))
+                    .toList();
+            groupStage = groups.stream().filter(group -> group.getParticipants().size() > 2).toList();
+            knockout = groups.stream().filter(group -> group.getParticipants().size() == 2).toList();
+            nodes = bracketNodeRepository.findByTournamentIdOrderByRoundAscPositionAsc(tournament.getId());
+            resultsByGroup = matchResultRepository.findSnapshotsByTournamentId(tournament.getId()).stream()
+                    .collect(Collectors.groupingBy(MatchSnapshot::groupId));
+            groups.forEach(group -> group.getParticipants().forEach(this::indexOf));
+            nodes.forEach(node -> {
+                indexOf(node.getPlayer1());
+                indexOf(node.getPlayer2());
+            });
+        }
+
+        private int indexOf(String player) {
+            if (player == null) {
+                return -1;
+            }
+            return index.computeIfAbsent(player, name -> {
+                players.add(name);
+                return players.size() - 1;
+            });
+        }
+
+        Plan compile(double[] strength, boolean elo) {
+            Plan plan = new Plan();
+            int n = players.size();
+            plan.players = players.toArray(new String[0]);
+            plan.strength = strength;
+            plan.winProbability = new double[n * n];
+            for (int a = 0; a < n; a++) {
+                for (int b = 0; b < n; b++) {
+                    plan.winProbability[a * n + b] = elo
+                            ? EloCalculator.expected(strength[a], strength[b])
+                            : log5(strength[a], strength[b]);
+                }
+            }
+            plan.alreadyAdvanced = new boolean[n];
+
+            if (!nodes.isEmpty()) {
+                plan.stage = "BRACKET";
+                compileBracket(plan);
+            } else if (!knockout.isEmpty()) {
+                plan.stage = "KNOCKOUT";
+                compileKnockout(plan);
+            } else if (!groupStage.isEmpty()) {
+                plan.stage = "GROUPS";
+                compileGroups(plan);
+            } else {
+                throw new IllegalArgumentException("Turneringen har inga grupper eller slutspelsmatcher att simulera");
+            }
+            return plan;
+        }
+
+        private void compileGroups(Plan plan) {
+            int groups = groupStage.size();
+            plan.groupStart = new int[groups + 1];
+            plan.matchStart = new int[groups + 1];
+            List<Integer> member = new ArrayList<>();
+            List<int[]> base = new ArrayList<>();
+            List<int[]> matches = new ArrayList<>();
+            for (int g = 0; g < groups; g++) {
+                TournamentGroup group = groupStage.get(g);
+                List<MatchSnapshot> results = resultsByGroup.getOrDefault(group.getId(), List.of());
+                plan.groupStart[g] = member.size();
+                Map<String, Integer> slot = new HashMap<>();
+                for (Standing standing : StandingsCalculator.standings(group.getParticipants(), results)) {
+                    slot.put(standing.player(), member.size());
+                    member.add(index.get(standing.player()));
+                    base.add(new int[]{standing.points(), standing.setDifference(), standing.gameDifference()});
+                }
+                Set<String> played = new HashSet<>();
+                for (MatchSnapshot result : results) {
+                    played.add(pairKey(result.player1(), result.player2()));
+                }
+                List<String> participants = group.getParticipants();
+                for (int i = 0; i < participants.size(); i++) {
+                    for (int j = i + 1; j < participants.size(); j++) {
+                        if (!played.contains(pairKey(participants.get(i), participants.get(j)))) {
+                            matches.add(new int[]{slot.get(participants.get(i)), slot.get(participants.get(j))});
+                        }
+                    }
+                }
+                plan.matchStart[g + 1] = matches.size();
+            }
+            plan.groupStart[groups] = member.size();
+            plan.member = member.stream().mapToInt(Integer::intValue).toArray();
+            plan.basePoints = base.stream().mapToInt(b -> b[0]).toArray();
+            plan.baseSets = base.stream().mapToInt(b -> b[1]).toArray();
+            plan.baseGames = base.stream().mapToInt(b -> b[2]).toArray();
+            plan.matchA = matches.stream().mapToInt(m -> m[0]).toArray();
+            plan.matchB = matches.stream().mapToInt(m -> m[1]).toArray();
+            plan.setsPerWin = "ett-set".equals(tournament.getSetsPerMatch()) ? 1 : 2;
+
+            Integer configured = tournament.getNumberOfWinners();
+            plan.qualifiers = Math.max(1, configured != null ? configured : 2);
+            int seeds = 0;
+            for (int g = 0; g < groups; g++) {
+                seeds += Math.min(plan.qualifiers, plan.groupStart[g + 1] - plan.groupStart[g]);
+            }
+            if (seeds < 2) {
+                throw new IllegalArgumentException("Minst två spelare måste gå vidare till slutspelet");
+            }
+            int size = Integer.highestOneBit(seeds - 1) << 1;
+            int[] order = BracketService.seedOrder(size);
+            plan.seedSlots = new int[size];
+            for (int position = 0; position < size; position++) {
+                plan.seedSlots[position] = order[position] <= seeds ? order[position] - 1 : -1;
+            }
+        }
+
+        private void compileBracket(Plan plan) {
+            int count = nodes.size();
+            plan.nodeFixed = new int[count];
+            plan.nodeChild1 = new int[count];
+            plan.nodeChild2 = new int[count];
+            plan.nodePlayer1 = new int[count];
+            plan.nodePlayer2 = new int[count];
+            Map<Long, Integer> position = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                position.put(nodes.get(i).getId(), i);
+            }
+            Arrays.fill(plan.nodeChild1, -1);
+            Arrays.fill(plan.nodeChild2, -1);
+            for (int i = 0; i < count; i++) {
+                BracketNode node = nodes.get(i);
+                plan.nodeFixed[i] = indexOf(node.getWinner());
+                plan.nodePlayer1[i] = indexOf(node.getPlayer1());
+                plan.nodePlayer2[i] = indexOf(node.getPlayer2());
+                if (node.getRound() == 1) {
+                    markAdvanced(plan, plan.nodePlayer1[i]);
+                    markAdvanced(plan, plan.nodePlayer2[i]);
+                }
+                if (node.getParentId() != null) {
+                    int parent = position.get(node.getParentId());
+                    if (node.getParentSlot() == 0) {
+                        plan.nodeChild1[parent] = i;
+                    } else {
+                        plan.nodeChild2[parent] = i;
+                    }
+                }
+            }
+        }
+
+        private void compileKnockout(Plan plan) {
+            Set<String> eliminated = new HashSet<>();
+            Map<Long, String> winners = new HashMap<>();
+            for (TournamentGroup group : knockout) {
+                group.getParticipants().forEach(player -> markAdvanced(plan, index.get(player)));
+                List<MatchSnapshot> results = resultsByGroup.getOrDefault(group.getId(), List.of());
+                String winner = results.isEmpty() ? null : results.get(0).winner();
+                if (winner != null) {
+                    winners.put(group.getId(), winner);
+                    group.getParticipants().stream().filter(player -> !player.equals(winner)).forEach(eliminated::add);
+                }
+            }
+            // Ospelade matcher mellan kvarvarande spelare, annars varje kvarvarande spelare för sig
+            List<int[]> entries = new ArrayList<>();
+            Set<String> placed = new HashSet<>();
+            for (TournamentGroup group : knockout) {
+                List<String> pair = group.getParticipants();
+                if (!winners.containsKey(group.getId()) && !eliminated.contains(pair.get(0))
+                        && !eliminated.contains(pair.get(1)) && !placed.contains(pair.get(0))
+                        && !placed.contains(pair.get(1))) {
+                    entries.add(new int[]{index.get(pair.get(0)), index.get(pair.get(1))});
+                    placed.addAll(pair);
+                }
+            }
+            for (TournamentGroup group : knockout) {
+                for (String player : group.getParticipants()) {
+                    if (!eliminated.contains(player) && placed.add(player)) {
+                        entries.add(new int[]{index.get(player), -1});
+                    }
+                }
+            }
+            plan.entryA = entries.stream().mapToInt(e -> e[0]).toArray();
+            plan.entryB = entries.stream().mapToInt(e -> e[1]).toArray();
+        }
+
+        private void markAdvanced(Plan plan, int player) {
+            if (player >= 0) {
+                plan.alreadyAdvanced[player] = true;
+            }
+        }
+    }
+
+    /**
+     * En arbetares tillstånd: slumpgenerator, arrayer för en iteration och
+     * räknare. Allt allokeras i konstruktorn.
+     */
+    private static final class Worker {
+        private final Plan plan;
+        private final SplittableRandom random;
+        private final int n;
+        private final long[] advanced;
+        private final long[] won;
+        private final int[] points;
+        private final int[] sets;
+        private final long[] key;
+        private final double[] crossKey;
+        private final int[] qualified;   // Platsvis: alla ettor, alla tvåor osv.
+        private final int[] field;
+        private final int[] nodeWinner;
+
+        Worker(Plan plan, SplittableRandom random) {
+            this.plan = plan;
+            this.random = random;
+            this.n = plan.players.length;
+            this.advanced = new long[n];
+            this.won = new long[n];
+            int members = plan.member != null ? plan.member.length : 0;
+            this.points = new int[members];
+            this.sets = new int[members];
+            this.key = new long[members];
+            this.crossKey = new double[members];
+            this.qualified = new int[plan.seedSlots != null ? plan.seedSlots.length : 0];
+            int fieldSize = Math.max(qualified.length, plan.entryA != null ? plan.entryA.length : 0);
+            this.field = new int[fieldSize];
+            this.nodeWinner = new int[plan.nodeFixed != null ? plan.nodeFixed.length : 0];
+        }
+
+        void run(int iterations) {
+            for (int i = 0; i < iterations; i++) {
+                int champion = switch (plan.stage) {
+                    case "BRACKET" -> playBracket();
+                    case "KNOCKOUT" -> playKnockout();
+                    default -> playGroups();
+                };
+                if (champion >= 0) {
+                    won[champion]++;
+                }
+            }
+            if (!"GROUPS".equals(plan.stage)) {
+                for (int p = 0; p < n; p++) {
+                    if (plan.alreadyAdvanced[p]) {
+                        advanced[p] += iterations;
+                    }
+                }
+            }
+        }
+
+        private int playGroups() {
+            int groups = plan.groupStart.length - 1;
+            int seeds = 0;
+            for (int place = 0; place < plan.qualifiers; place++) {
+                int placeStart = seeds;
+                for (int g = 0; g < groups; g++) {
+                    int from = plan.groupStart[g];
+                    int to = plan.groupStart[g + 1];
+                    if (place == 0) {
+                        playGroup(g, from, to);
+                    }
+                    if (place >= to - from) {
+                        continue;
+                    }
+                    int best = takeBest(from, to);
+                    crossKey[best] = (points[best] + sets[best] * 1e-3 + random.nextDouble() * 1e-6) / (to - from - 1);
+                    // Platsens seedordning avgörs över grupperna per spelad match, som i BracketService
+                    int at = seeds++;
+                    while (at > placeStart && crossKey[qualified[at - 1]] < crossKey[best]) {
+                        qualified[at] = qualified[at - 1];
+                        at--;
+                    }
+                    qualified[at] = best;
+                }
+            }
+            for (int s = 0; s < seeds; s++) {
+                advanced[plan.member[qualified[s]]]++;
+            }
+            for (int position = 0; position < plan.seedSlots.length; position++) {
+                int seed = plan.seedSlots[position];
+                field[position] = seed >= 0 ? plan.member[qualified[seed]] : -1;
+            }
+            return knockout(plan.seedSlots.length);
+        }
+
+        private void playGroup(int g, int from, int to) {
+            for (int s = from; s < to; s++) {
+                points[s] = plan.basePoints[s];
+                sets[s] = plan.baseSets[s];
+            }
+            for (int m = plan.matchStart[g]; m < plan.matchStart[g + 1]; m++) {
+                int a = plan.matchA[m];
+                int b = plan.matchB[m];
+                int winner = random.nextDouble() < plan.winProbability[plan.member[a] * n + plan.member[b]] ? a : b;
+                int loser = winner == a ? b : a;
+                points[winner] += StandingsCalculator.POINTS_PER_WIN;
+                sets[winner] += plan.setsPerWin;
+                sets[loser] -= plan.setsPerWin;
+            }
+            boolean complete = plan.matchStart[g] == plan.matchStart[g + 1];
+            for (int s = from; s < to; s++) {
+                // Färdigspelad grupp: tabellordningen gäller rakt av
+                key[s] = complete
+                        ? -s
+                        : ((long) points[s] << 40) + ((long) (sets[s] + 2048) << 28)
+                          + ((long) (plan.baseGames[s] + 8192) << 14) + random.nextInt(1 << 14);
+            }
+        }
+
+        // Plockar gruppens bästa kvarvarande spelare; utplockade får lägsta möjliga nyckel
+        private int takeBest(int from, int to) {
+            int best = from;
+            for (int s = from + 1; s < to; s++) {
+                if (key[s] > key[best]) {
+                    best = s;
+                }
+            }
+            key[best] = Long.MIN_VALUE;
+            return best;
+        }
+
+        private int playBracket() {
+            for (int i = 0; i < nodeWinner.length; i++) {
+                if (plan.nodeFixed[i] >= 0) {
+                    nodeWinner[i] = plan.nodeFixed[i];
+                    continue;
+                }
+                int a = plan.nodeChild1[i] >= 0 ? nodeWinner[plan.nodeChild1[i]] : plan.nodePlayer1[i];
+                int b = plan.nodeChild2[i] >= 0 ? nodeWinner[plan.nodeChild2[i]] : plan.nodePlayer2[i];
+                nodeWinner[i] = play(a, b);
+            }
+            return nodeWinner.length > 0 ? nodeWinner[nodeWinner.length - 1] : -1;
+        }
+
+        private int playKnockout() {
+            for (int e = 0; e < plan.entryA.length; e++) {
+                field[e] = plan.entryB[e] < 0 ? plan.entryA[e] : play(plan.entryA[e], plan.entryB[e]);
+            }
+            return knockout(plan.entryA.length);
+        }
+
+        // Utslagsspel över field[0..size); udda sist i en omgång och -1 (frilott) går vidare direkt
+        private int knockout(int size) {
+            while (size > 1) {
+                int next = 0;
+                for (int i = 0; i + 1 < size; i += 2) {
+                    field[next++] = play(field[i], field[i + 1]);
+                }
+                if (size % 2 == 1) {
+                    field[next++] = field[size - 1];
+                }
+                size = next;
+            }
+            return size == 1 ? field[0] : -1;
+        }
+
+        private int play(int a, int b) {
+            if (a < 0) {
+                return b;
+            }
+            if (b < 0) {
+                return a;
+            }
+            return random.nextDouble() < plan.winProbability[a * n + b] ? a : b;
+        }
+    }
+
+    static double log5(double a, double b) {
+        double numerator = a * (1 - b);
+        return numerator / (numerator + b * (1 - a));
+    }
+
+    private static String pairKey(String a, String b) {
+        return a.compareTo(b) <= 0 ? a + "\u0000" + b : b + "\u0000" + a;
+    }
+}
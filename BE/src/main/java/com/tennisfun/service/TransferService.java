@@ -0,0 +1,490 @@
+package com.tennisfun.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.tennisfun.dto.ImportSummaryDTO;
+import com.tennisfun.dto.ResultTransferRow;
+import com.tennisfun.entity.MatchStatus;
+import com.tennisfun.entity.Tournament;
+import com.tennisfun.entity.TournamentGroup;
+import com.tennisfun.event.TournamentChangedEvent;
+import com.tennisfun.repository.BracketNodeRepository;
+import com.tennisfun.repository.MatchResultRepository;
+import com.tennisfun.repository.PlayerRepository;
+import com.tennisfun.repository.TournamentGroupRepository;
+import com.tennisfun.repository.TournamentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Strömmande import och export av spelarlistor och matchresultat.
+ * <p>
+ * Importen läser rad för rad och skriver i JDBC-batchar om {@value #BATCH_SIZE}
+ * rader, en transaktion per batch. Exporten läser en cursor med platta
+ * projektioner och skriver direkt till svaret. Ingen av riktningarna håller hela
+ * datamängden i minnet.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransferService {
+
+    static final int BATCH_SIZE = 500;
+    private static final int MAX_CACHED_GROUPS = 256;
+
+    static final String[] RESULT_COLUMNS = {
+            "tournament", "date", "gamesPerSet", "setsPerMatch", "groupNumber", "player1", "player2",
+            "status", "winner", "score1", "score2", "set2Score1", "set2Score2", "set3Score1", "set3Score2",
+            "tiebreak1Score1", "tiebreak1Score2", "tiebreak2Score1", "tiebreak2Score2",
+            "tiebreak3Score1", "tiebreak3Score2"
+    };
+
+    static final String INSERT_PLAYER =
+            "INSERT INTO players (tenant_id, name, created_at) VALUES (?, ?, ?)";
+
+    static final String INSERT_RESULT =
+            "INSERT INTO match_results (tenant_id, group_id, status, winner, player1, player2, score1, score2, " +
+            "set2score1, set2score2, set3score1, set3score2, tiebreak1score1, tiebreak1score2, " +
+            "tiebreak2score1, tiebreak2score2, tiebreak3score1, tiebreak3score2, reported_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final PlayerRepository playerRepository;
+    private final TournamentRepository tournamentRepository;
+    private final TournamentGroupRepository groupRepository;
+    private final MatchResultRepository matchResultRepository;
+    private final BracketNodeRepository bracketNodeRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // ---- Spelarlistor ----
+
+    public ImportSummaryDTO importPlayers(String tenantId, BufferedReader reader) throws IOException {
+        int linesRead = 0;
+        int imported = 0;
+        Set<String> batch = new LinkedHashSet<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            linesRead++;
+            String name = stripBom(line).trim();
+            if (!name.isEmpty()) {
+                batch.add(name);
+            }
+            if (batch.size() >= BATCH_SIZE) {
+                imported += insertPlayers(tenantId, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            imported += insertPlayers(tenantId, batch);
+        }
+        log.info("Imported {} players for tenant {} ({} lines)", imported, tenantId, linesRead);
+        return new ImportSummaryDTO(linesRead, imported, linesRead - imported, null);
+    }
+
+    private int insertPlayers(String tenantId, Set<String> names) {
+        return Objects.requireNonNull(transactionTemplate.execute(status -> {
+            Set<String> existing = new HashSet<>(playerRepository.findExistingNames(tenantId, names));
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> rows = new ArrayList<>();
+            for (String name : names) {
+                if (!existing.contains(name)) {
+                    rows.add(new Object[]{tenantId, name, now});
+                }
+            }
+            jdbcTemplate.batchUpdate(INSERT_PLAYER, rows);
+            return rows.size();
+        }));
+    }
+
+    public void exportPlayers(String tenantId, OutputStream out) {
+        readOnlyTransaction().executeWithoutResult(status -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            try (Stream<String> names = playerRepository.streamNames(tenantId)) {
+                names.forEach(name -> write(writer, name + "\n"));
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    // ---- Matchresultat ----
+
+    /**
+     * Ett fel på en rad stoppar importen. Raden och resten av dess batch sparas
+     * inte, men tidigare batchar är redan committade; summeringen visar hur många
+     * resultat som sparades och felet står i {@code message}. Rader för en
+     * befintlig knockout-grupp (två deltagare eller del av ett slutspelsträd)
+     * läggs inte till utan räknas som överhoppade.
+     */
+    public ImportSummaryDTO importResults(String tenantId, BufferedReader reader, boolean jsonLines) throws IOException {
+        ResultImporter importer = new ResultImporter(tenantId);
+        List<ResultTransferRow> batch = new ArrayList<>(BATCH_SIZE);
+        List<Integer> lineNumbers = new ArrayList<>(BATCH_SIZE);
+        Map<String, Integer> header = null;
+        int lineNumber = 0;
+        String error = null;
+        String line;
+        try {
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = stripBom(line);
+                if (line.isBlank()) {
+                    continue;
+                }
+                int recordLine = lineNumber;
+                if (!jsonLines) {
+                    // Ett citerat fält kan innehålla radbrytningar; läs tills citattecknen går jämnt ut
+                    StringBuilder record = new StringBuilder(line);
+                    while (insideQuotes(record)) {
+                        String next = reader.readLine();
+                        if (next == null) {
+                            throw new IllegalArgumentException("Rad " + recordLine + ": citattecknet avslutas aldrig");
+                        }
+                        lineNumber++;
+                        record.append('\n').append(next);
+                    }
+                    line = record.toString();
+                }
+                if (!jsonLines && header == null) {
+                    header = parseHeader(line);
+                    continue;
+                }
+                batch.add(jsonLines ? parseJsonLine(line, recordLine) : parseCsvLine(line, header, recordLine));
+                lineNumbers.add(recordLine);
+                if (batch.size() >= BATCH_SIZE) {
+                    importer.importBatch(batch, lineNumbers);
+                    batch.clear();
+                    lineNumbers.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                importer.importBatch(batch, lineNumbers);
+            }
+        } catch (IllegalArgumentException e) {
+            error = e.getMessage() + ". Importen avbröts, " + importer.imported + " resultat före felet är sparade";
+            log.warn("Result import for tenant {} stopped at line {} after {} imported: {}",
+                    tenantId, lineNumber, importer.imported, e.getMessage());
+        } finally {
+            // Även en avbruten import kan ha sparat batchar
+            eventPublisher.publishEvent(new TournamentChangedEvent(tenantId, null));
+        }
+        log.info("Imported {} match results for tenant {} ({} lines, {} skipped)",
+                importer.imported, tenantId, lineNumber, importer.skipped);
+        return new ImportSummaryDTO(lineNumber, importer.imported, importer.skipped, error);
+    }
+
+    public void exportResults(String tenantId, OutputStream out, boolean jsonLines) {
+        readOnlyTransaction().executeWithoutResult(status -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            ObjectWriter jsonWriter = objectMapper.writerFor(ResultTransferRow.class);
+            try (Stream<ResultTransferRow> rows = matchResultRepository.streamForExport(tenantId)) {
+                if (!jsonLines) {
+                    write(writer, String.join(",", RESULT_COLUMNS) + "\n");
+                }
+                rows.forEach(row -> {
+                    try {
+                        write(writer, (jsonLines ? jsonWriter.writeValueAsString(row) : toCsv(row)) + "\n");
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Håller reda på turneringar och grupper som importen har rört. Grupper
+     * (deltagare och redan rapporterade par) hålls i en begränsad LRU och laddas
+     * om från databasen om de behövs igen.
+     */
+    private final class ResultImporter {
+        private final String tenantId;
+        private final LinkedHashMap<String, Long> tournamentIds = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<String, GroupState> groups = new LinkedHashMap<>(16, 0.75f, true);
+        private int imported;
+        private int skipped;
+
+        ResultImporter(String tenantId) {
+            this.tenantId = tenantId;
+        }
+
+        void importBatch(List<ResultTransferRow> rows, List<Integer> lineNumbers) {
+            transactionTemplate.executeWithoutResult(status -> {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                List<Object[]> inserts = new ArrayList<>(rows.size());
+                Set<GroupState> changedGroups = new HashSet<>();
+                int skippedRows = 0;
+                for (int i = 0; i < rows.size(); i++) {
+                    ResultTransferRow row = rows.get(i);
+                    validate(row, lineNumbers.get(i));
+                    GroupState group = resolveGroup(row);
+                    if (group.knockout || !group.pairs.add(pairKey(row.getPlayer1(), row.getPlayer2()))) {
+                        skippedRows++;
+                        continue;
+                    }
+                    if (group.addParticipant(row.getPlayer1()) | group.addParticipant(row.getPlayer2())) {
+                        changedGroups.add(group);
+                    }
+                    inserts.add(toInsertParams(tenantId, row, group.groupId, now));
+                }
+                jdbcTemplate.batchUpdate(INSERT_RESULT, inserts);
+                for (GroupState group : changedGroups) {
+                    TournamentGroup entity = groupRepository.getReferenceById(group.groupId);
+                    entity.setParticipants(new ArrayList<>(group.participants));
+                }
+                imported += inserts.size();
+                skipped += skippedRows;
+            });
+            // Trimma först när batchen är skriven, så att en omladdad grupp ser sina nya rader
+            trim(tournamentIds);
+            trim(groups);
+        }
+
+        private GroupState resolveGroup(ResultTransferRow row) {
+            Long tournamentId = tournamentIds.computeIfAbsent(row.getTournament() + "|" + row.getDate(),
+                    key -> findOrCreateTournament(row));
+            return groups.computeIfAbsent(tournamentId + "|" + row.getGroupNumber(),
+                    key -> loadOrCreateGroup(tournamentId, row.getGroupNumber()));
+        }
+
+        private Long findOrCreateTournament(ResultTransferRow row) {
+            return tournamentRepository.findFirstByTenantIdAndNameAndDate(tenantId, row.getTournament(), row.getDate())
+                    .map(Tournament::getId)
+                    .orElseGet(() -> {
+                        Tournament tournament = new Tournament();
+                        tournament.setTenantId(tenantId);
+                        tournament.setName(row.getTournament());
+                        tournament.setDate(row.getDate());
+                        tournament.setNumberOfWinners(1);
+                        tournament.setGamesPerSet(row.getGamesPerSet() != null ? row.getGamesPerSet() : 4);
+                        tournament.setSetsPerMatch(row.getSetsPerMatch() != null ? row.getSetsPerMatch() : "ett-set");
+                        tournament.setArchived(true);
+                        return tournamentRepository.save(tournament).getId();
+                    });
+        }
+
+        private GroupState loadOrCreateGroup(Long tournamentId, Integer groupNumber) {
+            TournamentGroup group = groupRepository.findFirstByTournamentIdAndGroupNumber(tournamentId, groupNumber)
+                    .orElseGet(() -> {
+                        TournamentGroup created = new TournamentGroup();
+                        created.setTournament(tournamentRepository.getReferenceById(tournamentId));
+                        created.setTenantId(tenantId);
+                        created.setGroupNumber(groupNumber);
+                        return groupRepository.save(created);
+                    });
+            // En befintlig grupp med två deltagare är en slutspelsmatch; den tar inte emot fler spelare
+            boolean knockout = bracketNodeRepository.existsByGroupId(group.getId())
+                    || (group.getParticipants() != null && group.getParticipants().size() == 2);
+            GroupState state = new GroupState(group.getId(), group.getParticipants(), knockout);
+            matchResultRepository.findByGroupId(group.getId())
+                    .forEach(result -> state.pairs.add(pairKey(result.getPlayer1(), result.getPlayer2())));
+            return state;
+        }
+    }
+
+    private static final class GroupState {
+        final Long groupId;
+        final List<String> participants;
+        final boolean knockout;
+        final Set<String> pairs = new HashSet<>();
+
+        GroupState(Long groupId, List<String> participants, boolean knockout) {
+            this.groupId = groupId;
+            this.knockout = knockout;
+            this.participants = participants != null ? new ArrayList<>(participants) : new ArrayList<>();
+        }
+
+        boolean addParticipant(String name) {
+            if (participants.contains(name)) {
+                return false;
+            }
+            participants.add(name);
+            return true;
+        }
+    }
+
+    private static void trim(LinkedHashMap<String, ?> lru) {
+        Iterator<String> eldest = lru.keySet().iterator();
+        while (lru.size() > MAX_CACHED_GROUPS && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    private static void validate(ResultTransferRow row, int lineNumber) {
+        if (row.getTournament() == null || row.getTournament().isBlank() || row.getDate() == null
+                || row.getGroupNumber() == null) {
+            throw new IllegalArgumentException("Rad " + lineNumber + ": turnering, datum och grupp måste anges");
+        }
+        if (row.getPlayer1() == null || row.getPlayer2() == null || row.getPlayer1().equals(row.getPlayer2())) {
+            throw new IllegalArgumentException("Rad " + lineNumber + ": två olika spelare måste anges");
+        }
+        if (row.getStatus() == null) {
+            row.setStatus(MatchStatus.PLAYED);
+        }
+        if (row.getWinner() == null && row.getStatus() == MatchStatus.PLAYED
+                && row.getScore1() != null && row.getScore2() != null) {
+            row.setWinner(row.getScore1() > row.getScore2() ? row.getPlayer1() : row.getPlayer2());
+        }
+        if (row.getWinner() == null
+                || (!row.getWinner().equals(row.getPlayer1()) && !row.getWinner().equals(row.getPlayer2()))) {
+            throw new IllegalArgumentException("Rad " + lineNumber + ": vinnaren måste vara en av de två spelarna");
+        }
+    }
+
+    private static Object[] toInsertParams(String tenantId, ResultTransferRow row, Long groupId, Timestamp reportedAt) {
+        return new Object[]{
+                tenantId, groupId, row.getStatus().name(), row.getWinner(), row.getPlayer1(), row.getPlayer2(),
+                row.getScore1(), row.getScore2(), row.getSet2Score1(), row.getSet2Score2(),
+                row.getSet3Score1(), row.getSet3Score2(), row.getTiebreak1Score1(), row.getTiebreak1Score2(),
+                row.getTiebreak2Score1(), row.getTiebreak2Score2(), row.getTiebreak3Score1(),
+                row.getTiebreak3Score2(), reportedAt
+        };
+    }
+
+    private static String pairKey(String player1, String player2) {
+        return player1.compareTo(player2) < 0 ? player1 + "\u0000" + player2 : player2 + "\u0000" + player1;
+    }
+
+    // ---- CSV ----
+
+    private Map<String, Integer> parseHeader(String line) {
+        List<String> columns = splitCsv(line);
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            header.put(columns.get(i).trim(), i);
+        }
+        return header;
+    }
+
+    private ResultTransferRow parseCsvLine(String line, Map<String, Integer> header, int lineNumber) {
+        List<String> values = splitCsv(line);
+        Map<String, Object> fields = new HashMap<>();
+        for (String column : RESULT_COLUMNS) {
+            Integer index = header.get(column);
+            if (index != null && index < values.size() && !values.get(index).isEmpty()) {
+                fields.put(column, values.get(index));
+            }
+        }
+        try {
+            return objectMapper.convertValue(fields, ResultTransferRow.class);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Rad " + lineNumber + ": ogiltigt värde");
+        }
+    }
+
+    private ResultTransferRow parseJsonLine(String line, int lineNumber) {
+        try {
+            return objectMapper.readValue(line, ResultTransferRow.class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Rad " + lineNumber + ": ogiltig JSON");
+        }
+    }
+
+    private String toCsv(ResultTransferRow row) {
+        Object[] values = {
+                row.getTournament(), row.getDate(), row.getGamesPerSet(), row.getSetsPerMatch(),
+                row.getGroupNumber(), row.getPlayer1(), row.getPlayer2(), row.getStatus(), row.getWinner(),
+                row.getScore1(), row.getScore2(), row.getSet2Score1(), row.getSet2Score2(),
+                row.getSet3Score1(), row.getSet3Score2(), row.getTiebreak1Score1(), row.getTiebreak1Score2(),
+                row.getTiebreak2Score1(), row.getTiebreak2Score2(), row.getTiebreak3Score1(), row.getTiebreak3Score2()
+        };
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            if (values[i] != null) {
+                String value = values[i].toString();
+                if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                        || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                    sb.append('"').append(value.replace("\"", "\"\"")).append('"');
+                } else {
+                    sb.append(value);
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString().trim());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString().trim());
+        return values;
+    }
+
+    // Ett udda antal citattecken betyder att ett citerat fält fortsätter på nästa rad ("" räknas som två)
+    private static boolean insideQuotes(CharSequence record) {
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            if (record.charAt(i) == '"') {
+                quoted = !quoted;
+            }
+        }
+        return quoted;
+    }
+
+    private static String stripBom(String line) {
+        return !line.isEmpty() && line.charAt(0) == '\uFEFF' ? line.substring(1) : line;
+    }
+
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        template.setReadOnly(true);
+        return template;
+    }
+
+    private static void write(Writer writer, String text) {
+        try {
+            writer.write(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
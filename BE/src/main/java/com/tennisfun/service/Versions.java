@@ -0,0 +1,21 @@
+package com.tennisfun.service;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+
+/**
+ * Jämför versionen som klienten utgick från med den som finns lagrad.
+ * Ändringar som korsar varandra inom samma ögonblick fångas av {@code @Version}
+ * vid commit; den här kontrollen fångar ändringar gjorda på ett äldre underlag.
+ */
+final class Versions {
+
+    private Versions() {
+    }
+
+    // Utan förväntad version gäller bara kontrollen vid commit
+    static void check(Long expected, Long current, String message) {
+        if (expected != null && !expected.equals(current)) {
+            throw new OptimisticLockingFailureException(message);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.tennisfun.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tennisfun.dto.ReportMatchRequest;
+import com.tennisfun.dto.TournamentSummaryDTO;
+import com.tennisfun.entity.Tournament;
+import com.tennisfun.entity.TournamentGroup;
+import com.tennisfun.repository.TournamentRepository;
+import com.tennisfun.tenant.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Uppvärmning efter start, innan noden tar emot trafik.
+ * <p>
+ * Går igenom de heta läsvägarna (turnering, gruppernas matcher, spelordning,
+ * kvalificering, huvud-mot-huvud, slutspel) och resultatkontrollerna för den
+ * senaste aktiva turneringen hos de mest aktiva klubbarna, några varv, så att
+ * JIT, Hibernates frågeplaner, Jackson och {@link TournamentCache} är varma när
+ * de första användarna kommer. {@code /api/health} svarar 503 tills uppvärmningen
+ * är klar; {@code /api/health/live} svarar direkt.
+ * <p>
+ * Misslyckas eller drar uppvärmningen över {@code tennisfun.warmup.timeout-ms}
+ * markeras noden som redo ändå, hellre kall än aldrig i drift.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WarmupService {
+
+    private final TournamentRepository tournamentRepository;
+    private final TournamentService tournamentService;
+    private final MatchResultService matchResultService;
+    private final MatchScheduleService matchScheduleService;
+    private final QualificationService qualificationService;
+    private final HeadToHeadService headToHeadService;
+    private final BracketService bracketService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${tennisfun.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${tennisfun.warmup.iterations:5}")
+    private int iterations;
+
+    @Value("${tennisfun.warmup.max-tenants:10}")
+    private int maxTenants;
+
+    @Value("${tennisfun.warmup.timeout-ms:60000}")
+    private long timeoutMs;
+
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            ready = true;
+            return;
+        }
+        Thread thread = new Thread(this::warmUp, "warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void warmUp() {
+        long start = System.nanoTime();
+        long deadline = start + timeoutMs * 1_000_000;
+        int calls = 0;
+        try {
+            List<String> tenantIds = new ArrayList<>(tournamentRepository.findActiveTenantIds(PageRequest.of(0, maxTenants)));
+            if (tenantIds.isEmpty()) {
+                tenantIds.add(TenantContext.DEFAULT_TENANT);
+            }
+            rounds:
+            for (int i = 0; i < iterations; i++) {
+                for (String tenantId : tenantIds) {
+                    if (System.nanoTime() >= deadline) {
+                        log.warn("Warm-up timed out after {} ms, marking ready", timeoutMs);
+                        break rounds;
+                    }
+                    calls += warmUpTenant(tenantId, deadline);
+                }
+            }
+            log.info("Warm-up done: {} tenants, {} calls in {} ms", tenantIds.size(), calls,
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            log.warn("Warm-up failed after {} calls, marking ready: {}", calls, e.getMessage());
+        } finally {
+            ready = true;
+        }
+    }
+
+    // Tiden kontrolleras före varje grupp, så en klubb med stora turneringar inte drar långt över gränsen
+    private int warmUpTenant(String tenantId, long deadline) throws Exception {
+        TenantContext.set(tenantId);
+        MDC.put(TenantContext.MDC_KEY, tenantId);
+        try {
+            int calls = 1;
+            List<TournamentSummaryDTO> active = tournamentService.getActiveTournaments();
+            if (active.isEmpty()) {
+                warmUpValidation(4, false);
+                warmUpValidation(6, true);
+                return calls;
+            }
+            Long tournamentId = active.get(0).getId();
+            if (System.nanoTime() >= deadline) {
+                return calls;
+            }
+            Tournament tournament = tournamentService.getTournamentSnapshot(tournamentId);
+            objectMapper.writeValueAsBytes(tournament);
+            objectMapper.writeValueAsBytes(matchScheduleService.getTournamentSchedule(tournamentId));
+            objectMapper.writeValueAsBytes(headToHeadService.getTournamentMatrix(tournamentId));
+            objectMapper.writeValueAsBytes(bracketService.getBracket(tournamentId));
+            calls += 5;
+            for (TournamentGroup group : tournament.getGroups()) {
+                if (System.nanoTime() >= deadline) {
+                    return calls;
+                }
+                objectMapper.writeValueAsBytes(matchResultService.getMatchResultsForGroup(group.getId()));
+                objectMapper.writeValueAsBytes(matchScheduleService.getGroupSchedule(group.getId()));
+                calls += 2;
+                try {
+                    qualificationService.getQualification(group.getId(), null);
+                    calls++;
+                } catch (IllegalArgumentException e) {
+                    // För få eller för många spelare för en exakt beräkning
+                }
+            }
+            int gamesPerSet = tournament.getGamesPerSet() != null ? tournament.getGamesPerSet() : 4;
+            warmUpValidation(gamesPerSet, tournament.getSetsPerMatch() != null
+                    && !"ett-set".equals(tournament.getSetsPerMatch()));
+            return calls;
+        } finally {
+            MDC.remove(TenantContext.MDC_KEY);
+            TenantContext.clear();
+        }
+    }
+
+    // Giltiga och ogiltiga resultat, så att både godkända vägar och felvägar körs
+    private void warmUpValidation(int gamesPerSet, boolean isMultiSet) {
+        List<ReportMatchRequest> samples = List.of(
+                sample("PLAYED", gamesPerSet, gamesPerSet - 2, null),
+                sample("PLAYED", gamesPerSet, gamesPerSet, null),
+                sample("WALKOVER", null, null, "A"),
+                sample("RETIRED", 1, 0, "B"),
+                sample("RETIRED", gamesPerSet, 0, "A"));
+        for (ReportMatchRequest request : samples) {
+            try {
+                matchResultService.validateScores(request, gamesPerSet, isMultiSet);
+            } catch (IllegalArgumentException e) {
+                // Förväntat för de ogiltiga exemplen
+            }
+        }
+    }
+
+    private static ReportMatchRequest sample(String status, Integer score1, Integer score2, String winner) {
+        ReportMatchRequest request = new ReportMatchRequest();
+        request.setPlayer1("A");
+        request.setPlayer2("B");
+        request.setStatus(status);
+        request.setScore1(score1);
+        request.setScore2(score2);
+        request.setWinner(winner);
+        return request;
+    }
+}
@@ -0,0 +1,31 @@
+package com.tennisfun.tenant;
+
+/**
+ * Håller aktuell klubb (tenant) för tråden som hanterar en förfrågan.
+ * Sätts av {@link TenantFilter}; utan header används {@link #DEFAULT_TENANT}.
+ */
+public final class TenantContext {
+
+    public static final String DEFAULT_TENANT = "default";
+
+    // Nyckel i loggningens MDC, se logback-spring.xml
+    public static final String MDC_KEY = "tenant";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static String current() {
+        String tenant = CURRENT.get();
+        return tenant != null ? tenant : DEFAULT_TENANT;
+    }
+
+    public static void set(String tenantId) {
+        CURRENT.set(tenantId);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
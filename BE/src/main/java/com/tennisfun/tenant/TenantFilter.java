@@ -0,0 +1,163 @@
+package com.tennisfun.tenant;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Läser klubb-id från headern (standard {@code X-Club-Id}) och begränsar antalet
+ * samtidiga förfrågningar per klubb, så att en klubbs fulla kväll inte tar alla
+ * trådar och databasanslutningar från de andra. Läsningar får inte ta de sista
+ * {@code tennisfun.tenant.reserved-for-writes} platserna, så att rapporteringar
+ * kommer fram även när klubbens skärmar pollar för fullt.
+ * <p>
+ * Klubbens semaforer finns bara medan den har förfrågningar på gång, så klubb-id:n
+ * som bara skickas en gång (eller hittas på) inte blir kvar i minnet.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@Slf4j
+public class TenantFilter extends OncePerRequestFilter {
+
+    private static final Pattern TENANT_PATTERN = Pattern.compile("[a-z0-9][a-z0-9-]{0,63}");
+
+    private final ConcurrentMap<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    @Value("${tennisfun.tenant.header:X-Club-Id}")
+    private String tenantHeader;
+
+    @Value("${tennisfun.tenant.max-concurrent-requests:16}")
+    private int maxConcurrentRequests;
+
+    @Value("${tennisfun.tenant.acquire-timeout-ms:2000}")
+    private long acquireTimeoutMs;
+
+    @Value("${tennisfun.tenant.reserved-for-writes:4}")
+    private int reservedForWrites;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !path.startsWith("/api/") || path.startsWith("/api/health");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(tenantHeader);
+        String tenantId = header == null || header.isBlank()
+                ? TenantContext.DEFAULT_TENANT
+                : header.trim().toLowerCase();
+        if (!TENANT_PATTERN.matcher(tenantId).matches()) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Ogiltigt klubb-id");
+            return;
+        }
+
+        Bulkhead tenantBulkhead = enter(tenantId);
+        try {
+            filterLimited(request, response, chain, tenantId, tenantBulkhead);
+        } finally {
+            leave(tenantId);
+        }
+    }
+
+    private void filterLimited(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
+                               String tenantId, Bulkhead tenantBulkhead) throws ServletException, IOException {
+        String method = request.getMethod();
+        Semaphore readBulkhead = method.equals("GET") || method.equals("HEAD") ? tenantBulkhead.reads : null;
+        Semaphore bulkhead = tenantBulkhead.all;
+        boolean acquired;
+        try {
+            acquired = acquire(readBulkhead, bulkhead);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (!acquired) {
+            log.warn("Tenant {} exceeded {} concurrent requests", tenantId, maxConcurrentRequests);
+            response.setHeader("Retry-After", "1");
+            writeError(response, HttpStatus.TOO_MANY_REQUESTS, "För många samtidiga förfrågningar, försök igen");
+            return;
+        }
+
+        TenantContext.set(tenantId);
+        // Klubben skrivs med på varje loggrad under förfrågan
+        MDC.put(TenantContext.MDC_KEY, tenantId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            MDC.remove(TenantContext.MDC_KEY);
+            TenantContext.clear();
+            bulkhead.release();
+            if (readBulkhead != null) {
+                readBulkhead.release();
+            }
+        }
+    }
+
+    private Bulkhead enter(String tenantId) {
+        return bulkheads.compute(tenantId, (k, current) -> {
+            Bulkhead next = current != null ? current
+                    : new Bulkhead(maxConcurrentRequests, Math.max(1, maxConcurrentRequests - reservedForWrites));
+            next.users++;
+            return next;
+        });
+    }
+
+    // Sista förfrågan för klubben tar bort semaforerna
+    private void leave(String tenantId) {
+        bulkheads.computeIfPresent(tenantId, (k, current) -> --current.users == 0 ? null : current);
+    }
+
+    // Ändras bara inuti compute för klubbens nyckel
+    private static final class Bulkhead {
+        private final Semaphore all;
+        private final Semaphore reads;
+        private int users;
+
+        Bulkhead(int maxConcurrent, int maxReads) {
+            this.all = new Semaphore(maxConcurrent);
+            this.reads = new Semaphore(maxReads);
+        }
+    }
+
+    private boolean acquire(Semaphore readBulkhead, Semaphore bulkhead) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMs);
+        if (readBulkhead != null && !readBulkhead.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+            return false;
+        }
+        boolean acquired = false;
+        try {
+            acquired = bulkhead.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            return acquired;
+        } finally {
+            if (!acquired && readBulkhead != null) {
+                readBulkhead.release();
+            }
+        }
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("{\"message\":\"" + message + "\"}");
+    }
+}
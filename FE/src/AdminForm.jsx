@@ -1,6 +1,6 @@
 import { useState, useEffect } from 'react';
 import './AdminForm.css';
-import { createTournament, getActiveTournaments, deleteAllTournaments, archiveTournament } from './services/api';
+import { createTournament, getActiveTournaments, deleteAllTournaments, archiveTournament, suggestPlayers } from './services/api';
 
 export default function AdminForm() {
   const [tournamentName, setTournamentName] = useState('');
@@ -9,6 +9,7 @@ export default function AdminForm() {
   const [setsPerMatch, setSetsPerMatch] = useState('ett-set');
   const [playerName, setPlayerName] = useState('');
   const [participantList, setParticipantList] = useState('');
+  const [playerSuggestions, setPlayerSuggestions] = useState([]);
   const [groups, setGroups] = useState(Array(9).fill().map(() => []));
   const [groupCourts, setGroupCourts] = useState(Array(9).fill().map(() => ({ court1: '', court2: '' })));
   const [draggedItem, setDraggedItem] = useState(null);
@@ -22,6 +23,23 @@ export default function AdminForm() {
     checkForTournaments();
   }, []);
 
+  // Förslag på namn som redan använts, så att samma spelare inte skrivs på två sätt
+  useEffect(() => {
+    const prefix = playerName.trim();
+    if (!prefix) {
+      setPlayerSuggestions([]);
+      return;
+    }
+    const timer = setTimeout(async () => {
+      try {
+        setPlayerSuggestions(await suggestPlayers(prefix));
+      } catch (error) {
+        setPlayerSuggestions([]);
+      }
+    }, 150);
+    return () => clearTimeout(timer);
+  }, [playerName]);
+
   const checkForTournaments = async () => {
     try {
       const tournaments = await getActiveTournaments();
@@ -392,7 +410,14 @@ export default function AdminForm() {
                 placeholder="Ange spelarens namn"
                 style={{ flex: 1 }}
                 disabled={hasTournament}
+                list="player-suggestions"
+                autoComplete="off"
               />
+              <datalist id="player-suggestions">
+                {playerSuggestions.map(suggestion => (
+                  <option key={suggestion.name} value={suggestion.name} />
+                ))}
+              </datalist>
               <button
                 type="button"
                 onClick={handleAddPlayer}
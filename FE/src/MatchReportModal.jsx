@@ -331,6 +331,7 @@ export default function MatchReportModal({ match, groupId, onClose, onSubmit, on
           status,
           winner: matchWinner,
           matchId: existingResult?.id,
+          version: existingResult?.version,
         });
       } finally {
         setIsSubmitting(false);
@@ -353,6 +354,7 @@ export default function MatchReportModal({ match, groupId, onClose, onSubmit, on
           status,
           winner: status === 'PLAYED' ? (s1 > s2 ? match.player1 : match.player2) : winner,
           matchId: existingResult?.id,
+          version: existingResult?.version,
         });
       } finally {
         setIsSubmitting(false);
@@ -607,7 +609,7 @@ export default function MatchReportModal({ match, groupId, onClose, onSubmit, on
               {isSubmitting ? 'Sparar...' : (isEditMode ? 'Uppdatera' : 'Rapportera')}
             </button>
             {isEditMode && onReset && (
-              <button type="button" onClick={() => onReset(existingResult.id)} className="reset-match-btn" disabled={isSubmitting}>
+              <button type="button" onClick={() => onReset(existingResult.id, existingResult.version)} className="reset-match-btn" disabled={isSubmitting}>
                 Nollställ
               </button>
             )}
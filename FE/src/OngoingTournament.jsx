@@ -1,5 +1,5 @@
 import { useState, useEffect, useRef, useCallback } from 'react';
-import { getAllTournaments, getTournamentById, reportMatch, updateMatch, deleteMatch, getMatchResultsForGroup, getActiveTournaments, createNextRound, updateGroupParticipants, renamePlayer, renameTournament } from './services/api';
+import { getAllTournaments, getTournamentById, reportMatch, updateMatch, deleteMatch, getMatchResultsForGroup, getTournamentProgress, getActiveTournaments, createNextRound, updateGroupParticipants, renamePlayer, renameTournament, backoffMs } from './services/api';
 import MatchReportModal from './MatchReportModal';
 import PrintableGroupSchedule from './PrintableGroupSchedule';
 import './OngoingTournament.css';
@@ -16,29 +16,63 @@ export default function OngoingTournament({ tournamentData = null, isReadOnly =
   const [editingTitleValue, setEditingTitleValue] = useState('');
   const [showColumnLegend, setShowColumnLegend] = useState(false);
   const [matchResults, setMatchResults] = useState({}); // groupId -> array of results
+  const [progress, setProgress] = useState(null); // spelade av förväntade matcher, från /progress
   const [playoffSetup, setPlayoffSetup] = useState({}); // groupId -> { player1: null, player2: null, filled: false }
   const pollingIntervalRef = useRef(null);
   const tournamentIdRef = useRef(null);
   const isPlacingPlayerRef = useRef(false);
+  const pollPausedUntilRef = useRef(0); // tidpunkt då pollingen får fortsätta efter 429/503
+
+  // Servern är överbelastad: pausa pollingen så länge Retry-After säger
+  const pausePolling = (error) => {
+    const backoff = backoffMs(error);
+    if (backoff == null) return false;
+    pollPausedUntilRef.current = Date.now() + backoff;
+    console.warn(`Servern är belastad, pausar uppdateringen i ${backoff / 1000} s`);
+    return true;
+  };
 
   const loadAllMatchResults = async (groups) => {
     const results = {};
-    for (const group of groups) {
+    const failed = [];
+    for (let i = 0; i < groups.length; i++) {
+      const group = groups[i];
       try {
         const groupResults = await getMatchResultsForGroup(group.id);
         results[group.id] = groupResults;
       } catch (error) {
         console.error(`Fel vid hämtning av resultat för grupp ${group.id}:`, error);
-        results[group.id] = [];
+        failed.push(group.id);
+        // Vid 429/503 skulle resten av grupperna också nekas, hämta dem efter pausen
+        if (pausePolling(error)) {
+          groups.slice(i + 1).forEach(rest => failed.push(rest.id));
+          break;
+        }
       }
     }
-    setMatchResults(results);
+    // Behåll senast hämtade resultat för grupper som inte gick att hämta (t.ex. 429), hellre gamla än tomma
+    setMatchResults(prev => {
+      const next = { ...results };
+      failed.forEach(id => {
+        next[id] = prev[id] || [];
+      });
+      return next;
+    });
   };
 
+  // Hämta framsteg varje gång resultaten har laddats om; vid fel behålls förra värdet
+  useEffect(() => {
+    if (!tournament?.id) return;
+    getTournamentProgress(tournament.id)
+      .then(setProgress)
+      .catch(error => console.error('Fel vid hämtning av framsteg:', error));
+  }, [tournament?.id, matchResults]);
+
   // Uppdatera data i bakgrunden utan att visa loading-spinner
   const refreshData = useCallback(async () => {
     const currentId = tournamentIdRef.current;
     if (!currentId) return;
+    if (Date.now() < pollPausedUntilRef.current) return;
 
     try {
       console.log('Uppdaterar data i bakgrunden... ID:', currentId);
@@ -53,7 +87,8 @@ export default function OngoingTournament({ tournamentData = null, isReadOnly =
       console.log('Data uppdaterad!');
     } catch (err) {
       console.error('Fel vid uppdatering av data:', err);
-      // Fortsätt tysta, försök igen vid nästa intervall
+      // Fortsätt tysta, försök igen vid nästa intervall (eller efter Retry-After vid 429/503)
+      pausePolling(err);
     }
   }, []);
 
@@ -546,8 +581,8 @@ export default function OngoingTournament({ tournamentData = null, isReadOnly =
       return;
     }
     try {
-      const updated = await renameTournament(tournament.id, trimmed);
-      setTournament(prev => ({ ...prev, name: updated.name }));
+      const updated = await renameTournament(tournament.id, trimmed, tournament.version);
+      setTournament(prev => ({ ...prev, name: updated.name, version: updated.version }));
       setEditingTitle(false);
       setEditingTitleValue('');
     } catch (error) {
@@ -579,7 +614,8 @@ export default function OngoingTournament({ tournamentData = null, isReadOnly =
       return;
     }
     try {
-      await renamePlayer(editingPlayer.groupId, editingPlayer.oldName, trimmed);
+      const group = tournament.groups.find(g => g.id === editingPlayer.groupId);
+      await renamePlayer(editingPlayer.groupId, editingPlayer.oldName, trimmed, group?.version);
       const fullTournament = await getTournamentById(tournament.id);
       setTournament(fullTournament);
       await loadAllMatchResults(fullTournament.groups);
@@ -645,13 +681,15 @@ export default function OngoingTournament({ tournamentData = null, isReadOnly =
       
       // Uppdatera backend när båda players är ifyllda
       try {
-        await updateGroupParticipants(parseInt(groupId), [setup.player1, playerName]);
+        const current = tournament.groups.find(g => g.id === parseInt(groupId));
+        const updated = await updateGroupParticipants(parseInt(groupId), [setup.player1, playerName], current?.version);
         
         // Uppdatera turneringen lokalt
         const updatedTournament = { ...tournament };
         const group = updatedTournament.groups.find(g => g.id === parseInt(groupId));
         if (group) {
           group.participants = [setup.player1, playerName];
+          group.version = updated.version;
         }
         setTournament(updatedTournament);
       } catch (error) {
@@ -708,10 +746,10 @@ export default function OngoingTournament({ tournamentData = null, isReadOnly =
     }
   };
 
-  const handleResetMatch = async (matchId) => {
+  const handleResetMatch = async (matchId, version) => {
     if (!window.confirm('Är du säker på att du vill nollställa det rapporterade resultatet? Matchen kan sedan rapporteras på nytt.')) return;
     try {
-      await deleteMatch(matchId);
+      await deleteMatch(matchId, version);
       const fullTournament = await getTournamentById(tournament.id);
       setTournament(fullTournament);
       await loadAllMatchResults(fullTournament.groups);
@@ -842,6 +880,14 @@ export default function OngoingTournament({ tournamentData = null, isReadOnly =
           month: 'long', 
           day: 'numeric' 
         })}</h3>
+        {progress?.tournamentId === tournament.id && progress.expected > 0 && (
+          <div className="tournament-progress" title={`${progress.groupsReadyForPlayoffs.length} grupper färdigspelade`}>
+            <div className="tournament-progress-bar">
+              <div className="tournament-progress-fill" style={{ width: `${Math.round(progress.completion * 100)}%` }} />
+            </div>
+            <span>{progress.completed} av {progress.expected} matcher klara</span>
+          </div>
+        )}
         {getRoundRobinGroups().length > 0 && (
           <button
             className="print-schedule-btn"
@@ -10,6 +10,58 @@ const api = axios.create({
   },
 });
 
+// Versionen som ändringen bygger på; backend svarar 409 om någon annan hunnit ändra
+const ifMatch = (version) => (version != null ? { headers: { 'If-Match': `"${version}"` } } : {});
+
+const etagVersion = (response) => {
+  const etag = response.headers?.etag;
+  return etag ? Number(etag.replace(/^W\//, '').replace(/"/g, '')) : undefined;
+};
+
+// En nyckel per rapport eller ändring, samma vid omförsök, så att backend inte sparar resultatet två gånger
+const newIdempotencyKey = () => (
+  globalThis.crypto?.randomUUID
+    ? globalThis.crypto.randomUUID()
+    : `${Date.now().toString(36)}-${Math.random().toString(36).slice(2)}`
+);
+
+const MAX_ATTEMPTS = 3;
+
+// Försöker igen när svaret uteblev (t.ex. tappad mobiltäckning), vid 429/503 och när originalet fortfarande pågår
+const isRetryable = (error) => {
+  const response = error.response;
+  if (!response) return true;
+  return response.status === 429 || response.status === 503
+    || (response.status === 409 && response.headers?.['retry-after'] != null);
+};
+
+// Väntetiden från Retry-After i millisekunder, eller null om servern inte angav någon
+const retryAfterHeaderMs = (error) => {
+  const retryAfter = Number(error.response?.headers?.['retry-after']);
+  return Number.isFinite(retryAfter) && retryAfter > 0 ? retryAfter * 1000 : null;
+};
+
+const retryDelayMs = (error, attempt) => retryAfterHeaderMs(error) ?? attempt * 1000;
+
+// Hur länge bakgrundsuppdateringar ska vänta efter ett 429/503, annars null
+export const backoffMs = (error) => {
+  const status = error.response?.status;
+  if (status !== 429 && status !== 503) return null;
+  return retryAfterHeaderMs(error) ?? 10000;
+};
+
+const sendIdempotent = async (send) => {
+  const key = newIdempotencyKey();
+  for (let attempt = 1; ; attempt++) {
+    try {
+      return await send({ 'Idempotency-Key': key });
+    } catch (error) {
+      if (attempt >= MAX_ATTEMPTS || !isRetryable(error)) throw error;
+      await new Promise(resolve => setTimeout(resolve, retryDelayMs(error, attempt)));
+    }
+  }
+};
+
 export const healthCheck = async () => {
   const response = await api.get('/health');
   return response.data;
@@ -40,6 +92,11 @@ export const getTournamentById = async (id) => {
   return response.data;
 };
 
+export const getTournamentProgress = async (id) => {
+  const response = await api.get(`/tournaments/${id}/progress`);
+  return response.data;
+};
+
 export const archiveTournament = async (id) => {
   const response = await api.put(`/tournaments/${id}/archive`);
   return response.data;
@@ -56,17 +113,19 @@ export const deleteAllTournaments = async () => {
 };
 
 export const reportMatch = async (matchData) => {
-  const response = await api.post('/matches/report', matchData);
+  const response = await sendIdempotent(headers => api.post('/matches/report', matchData, { headers }));
   return response.data;
 };
 
 export const updateMatch = async (matchId, matchData) => {
-  const response = await api.put(`/matches/${matchId}`, matchData);
+  const { headers: versionHeaders = {} } = ifMatch(matchData.version);
+  const response = await sendIdempotent(headers => api.put(`/matches/${matchId}`, matchData,
+    { headers: { ...versionHeaders, ...headers } }));
   return response.data;
 };
 
-export const deleteMatch = async (matchId) => {
-  await api.delete(`/matches/${matchId}`);
+export const deleteMatch = async (matchId, version) => {
+  await api.delete(`/matches/${matchId}`, ifMatch(version));
 };
 
 export const getMatchResultsForGroup = async (groupId) => {
@@ -82,18 +141,23 @@ export const createNextRound = async (tournamentId, numberOfPlayers = null) => {
   return response.data;
 };
 
-export const updateGroupParticipants = async (groupId, participants) => {
-  const response = await api.put(`/tournaments/groups/${groupId}/participants`, participants);
+export const updateGroupParticipants = async (groupId, participants, version) => {
+  const response = await api.put(`/tournaments/groups/${groupId}/participants`, participants, ifMatch(version));
+  return { ...response.data, version: etagVersion(response) };
+};
+
+export const suggestPlayers = async (prefix, limit = 10) => {
+  const response = await api.get('/players/suggest', { params: { q: prefix, limit } });
   return response.data;
 };
 
-export const renamePlayer = async (groupId, oldName, newName) => {
-  const response = await api.put(`/tournaments/groups/${groupId}/rename-player`, { oldName, newName });
+export const renamePlayer = async (groupId, oldName, newName, version) => {
+  const response = await api.put(`/tournaments/groups/${groupId}/rename-player`, { oldName, newName }, ifMatch(version));
   return response.data;
 };
 
-export const renameTournament = async (id, newName) => {
-  const response = await api.put(`/tournaments/${id}/rename`, { newName });
+export const renameTournament = async (id, newName, version) => {
+  const response = await api.put(`/tournaments/${id}/rename`, { newName }, ifMatch(version));
   return response.data;
 };
 